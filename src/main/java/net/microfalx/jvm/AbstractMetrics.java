@@ -35,6 +35,8 @@ public abstract class AbstractMetrics<M, C extends AbstractCollector<M>> {
     private volatile Duration interval = Duration.ofSeconds(5);
     private volatile Future<?> scrapeTask;
     private volatile SeriesStore seriesStore;
+    private volatile String scrapeTimerName;
+    private volatile String storeTimerName;
 
     private static ScheduledExecutorService executorService;
 
@@ -135,9 +137,14 @@ public abstract class AbstractMetrics<M, C extends AbstractCollector<M>> {
      */
     public void scrape() {
         if (seriesStore == null) initialize();
+        if (scrapeTimerName == null) {
+            // the names do not change, avoid building them on every scrape
+            storeTimerName = "Store " + getMetricsName();
+            scrapeTimerName = "Scrape " + getMetricsName();
+        }
         Batch batch = Batch.create(currentTimeMillis());
-        METRICS.time("Scrape " + getMetricsName(), t -> collectMetrics(batch));
-        METRICS.time("Store " + getMetricsName(), t -> getStore().add(batch));
+        METRICS.time(scrapeTimerName, t -> collectMetrics(batch));
+        METRICS.time(storeTimerName, t -> getStore().add(batch));
     }
 
     /**
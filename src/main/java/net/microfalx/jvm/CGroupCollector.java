@@ -0,0 +1,180 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.CGroup;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects CPU quota and throttling information for the control group of the current process.
+ * <p>
+ * Both cgroup v2 (<code>cpu.max</code>, <code>cpu.stat</code>) and cgroup v1 (<code>cpu.cfs_quota_us</code>,
+ * <code>cpu.cfs_period_us</code>, <code>cpu.stat</code>, <code>cpuacct.usage</code>) are supported. The usage
+ * is reported relative to the effective CPU limit of the group and not relative to the host cores, so a container
+ * which is throttled shows up as saturated even if the host is idle.
+ * <p>
+ * The collector keeps the previous sample to calculate the values for the current interval, so the same instance
+ * needs to be reused between collections.
+ */
+public final class CGroupCollector extends AbstractCollector<CGroup> {
+
+    private static final String UNLIMITED = "max";
+    private static final String UNIFIED_CONTROLLERS = "cgroup.controllers";
+
+    private final Path proc;
+    private final Path root;
+
+    private volatile Sample prevSample;
+    private PressureCollector pressureCollector;
+
+    public CGroupCollector() {
+        this(PROC, SYS.resolve("fs").resolve("cgroup"));
+    }
+
+    CGroupCollector(Path proc, Path root) {
+        requireNonNull(proc);
+        requireNonNull(root);
+        this.proc = proc;
+        this.root = root;
+    }
+
+    @Override
+    public synchronized CGroup execute() {
+        CGroup cgroup = new CGroup();
+        Sample sample;
+        if (exists(root.resolve(UNIFIED_CONTROLLERS))) {
+            sample = collectV2(cgroup);
+        } else {
+            sample = collectV1(cgroup);
+        }
+        if (sample == null) return cgroup;
+        cgroup.setCpuLimit(getCpuLimit(cgroup));
+        cgroup.setCpuUsageTime(sample.usage);
+        cgroup.setPeriods(sample.periods);
+        cgroup.setThrottledPeriods(sample.throttledPeriods);
+        cgroup.setThrottledTime(sample.throttledTime);
+        if (isMetadata()) return cgroup;
+        if (prevSample != null) updateInterval(cgroup, sample, prevSample);
+        prevSample = sample;
+        return cgroup;
+    }
+
+    private Sample collectV2(CGroup cgroup) {
+        String path = getPath(line -> line.startsWith("0::") ? line.substring(3) : null);
+        Path directory = resolve(root, path, "cpu.stat");
+        if (directory == null) return null;
+        cgroup.setVersion(2);
+        cgroup.setPath(path);
+        String cpuMax = readString(directory.resolve("cpu.max"));
+        if (cpuMax != null) {
+            String[] parts = cpuMax.split("\\s+");
+            cgroup.setCpuQuota(UNLIMITED.equals(parts[0]) ? -1 : parseLong(parts[0], -1));
+            if (parts.length > 1) cgroup.setCpuPeriod(parseLong(parts[1], 0));
+        }
+        cgroup.setCpuSet(countCpus(readString(directory.resolve("cpuset.cpus.effective"))));
+        collectPressure(cgroup, directory);
+        List<String> stats = readLines(directory.resolve("cpu.stat"));
+        Sample sample = new Sample();
+        sample.usage = getKeyValue(stats, "usage_usec", 0);
+        sample.periods = getKeyValue(stats, "nr_periods", 0);
+        sample.throttledPeriods = getKeyValue(stats, "nr_throttled", 0);
+        sample.throttledTime = getKeyValue(stats, "throttled_usec", 0);
+        return sample;
+    }
+
+    private Sample collectV1(CGroup cgroup) {
+        String path = getPath(line -> getV1Path(line, "cpu"));
+        Path directory = resolveV1(path, "cpu", "cpu.cfs_quota_us");
+        if (directory == null) return null;
+        cgroup.setVersion(1);
+        cgroup.setPath(path);
+        cgroup.setCpuQuota(readLong(directory.resolve("cpu.cfs_quota_us"), -1));
+        cgroup.setCpuPeriod(readLong(directory.resolve("cpu.cfs_period_us"), 0));
+        Path cpuSetDirectory = resolveV1(getPath(line -> getV1Path(line, "cpuset")), "cpuset", "cpuset.cpus");
+        if (cpuSetDirectory != null) cgroup.setCpuSet(countCpus(readString(cpuSetDirectory.resolve("cpuset.cpus"))));
+        List<String> stats = readLines(directory.resolve("cpu.stat"));
+        Sample sample = new Sample();
+        sample.periods = getKeyValue(stats, "nr_periods", 0);
+        sample.throttledPeriods = getKeyValue(stats, "nr_throttled", 0);
+        sample.throttledTime = getKeyValue(stats, "throttled_time", 0) / 1000;
+        Path cpuAcctDirectory = resolveV1(getPath(line -> getV1Path(line, "cpuacct")), "cpuacct", "cpuacct.usage");
+        if (cpuAcctDirectory != null) sample.usage = readLong(cpuAcctDirectory.resolve("cpuacct.usage"), 0) / 1000;
+        return sample;
+    }
+
+    private void collectPressure(CGroup cgroup, Path directory) {
+        if (pressureCollector == null || !pressureCollector.getDirectory().equals(directory)) {
+            pressureCollector = PressureCollector.cgroup(directory);
+        }
+        pressureCollector.setMetadata(isMetadata());
+        cgroup.setPressures(pressureCollector.execute());
+    }
+
+    private void updateInterval(CGroup cgroup, Sample sample, Sample prevSample) {
+        long duration = sample.time - prevSample.time;
+        long usage = sample.usage - prevSample.usage;
+        long periods = sample.periods - prevSample.periods;
+        long throttledPeriods = sample.throttledPeriods - prevSample.throttledPeriods;
+        if (duration > 0 && usage >= 0 && cgroup.getCpuLimit() > 0) {
+            cgroup.setCpuUsage((float) (100 * (usage * 1000d) / (duration * (double) cgroup.getCpuLimit())));
+        }
+        if (periods > 0 && throttledPeriods >= 0) {
+            cgroup.setCpuThrottled(100 * (float) throttledPeriods / periods);
+        }
+        cgroup.setCpuThrottledTime(Math.max(0, sample.throttledTime - prevSample.throttledTime));
+    }
+
+    private float getCpuLimit(CGroup cgroup) {
+        float limit = Runtime.getRuntime().availableProcessors();
+        if (cgroup.getCpuSet() > 0) limit = Math.min(limit, cgroup.getCpuSet());
+        if (cgroup.isCpuLimited()) limit = Math.min(limit, (float) cgroup.getCpuQuota() / cgroup.getCpuPeriod());
+        return limit;
+    }
+
+    private String getPath(Function<String, String> extractor) {
+        for (String line : readLines(proc.resolve("self").resolve("cgroup"))) {
+            String path = extractor.apply(line);
+            if (path != null) return path;
+        }
+        return null;
+    }
+
+    private String getV1Path(String line, String controller) {
+        String[] parts = line.split(":", 3);
+        if (parts.length != 3) return null;
+        for (String name : parts[1].split(",")) {
+            if (name.equals(controller)) return parts[2];
+        }
+        return null;
+    }
+
+    private Path resolveV1(String path, String controller, String file) {
+        Path directory = resolve(root.resolve(controller), path, file);
+        if (directory == null) directory = resolve(root.resolve("cpu,cpuacct"), path, file);
+        if (directory == null) directory = resolve(root.resolve("cpuacct,cpu"), path, file);
+        return directory;
+    }
+
+    private Path resolve(Path mount, String path, String file) {
+        if (path != null && path.length() > 1) {
+            Path directory = mount.resolve(path.substring(1));
+            if (exists(directory.resolve(file))) return directory;
+        }
+        // inside a container with a private cgroup namespace, the group is mounted as root
+        return exists(mount.resolve(file)) ? mount : null;
+    }
+
+    private static class Sample {
+
+        private final long time = System.nanoTime();
+
+        private long usage;
+        private long periods;
+        private long throttledPeriods;
+        private long throttledTime;
+    }
+}
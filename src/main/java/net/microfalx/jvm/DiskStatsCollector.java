@@ -0,0 +1,93 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.BlockDevice;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects per device I/O statistics from <code>/proc/diskstats</code>.
+ * <p>
+ * Only whole devices (the ones listed in <code>/sys/block</code>) are reported, partitions and loop/ram devices
+ * are ignored. Besides the cumulative counters, the collector derives for each interval the device utilization
+ * (based on the time spent doing I/O), the average queue depth (based on the weighted time spent doing I/O) and the
+ * average read and write latency.
+ * <p>
+ * The collector keeps the previous sample to calculate the values for the current interval, so the same instance
+ * needs to be reused between collections.
+ */
+public final class DiskStatsCollector extends AbstractCollector<Collection<BlockDevice>> {
+
+    private static final long SECTOR_SIZE = 512;
+
+    private final Path proc;
+    private final Path sys;
+
+    private Map<String, BlockDevice> prevDevices = new HashMap<>();
+    private long prevTime;
+
+    public DiskStatsCollector() {
+        this(PROC, SYS);
+    }
+
+    DiskStatsCollector(Path proc, Path sys) {
+        requireNonNull(proc);
+        requireNonNull(sys);
+        this.proc = proc;
+        this.sys = sys;
+    }
+
+    @Override
+    public synchronized Collection<BlockDevice> execute() {
+        long time = System.nanoTime();
+        long duration = prevTime > 0 ? (time - prevTime) / 1_000_000 : 0;
+        Collection<BlockDevice> devices = new ArrayList<>();
+        Map<String, BlockDevice> currentDevices = new HashMap<>();
+        for (String line : readLines(proc.resolve("diskstats"))) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 14) continue;
+            String name = parts[2];
+            if (!isDevice(name)) continue;
+            BlockDevice device = new BlockDevice(name);
+            device.setReads(parseLong(parts[3], 0));
+            device.setReadBytes(parseLong(parts[5], 0) * SECTOR_SIZE);
+            device.setReadTime(parseLong(parts[6], 0));
+            device.setWrites(parseLong(parts[7], 0));
+            device.setWriteBytes(parseLong(parts[9], 0) * SECTOR_SIZE);
+            device.setWriteTime(parseLong(parts[10], 0));
+            device.setInFlight(parseLong(parts[11], 0));
+            device.setIoTime(parseLong(parts[12], 0));
+            device.setWeightedIoTime(parseLong(parts[13], 0));
+            BlockDevice prevDevice = prevDevices.get(name);
+            if (prevDevice != null && duration > 0 && !isMetadata()) updateInterval(device, prevDevice, duration);
+            currentDevices.put(name, device);
+            devices.add(device);
+        }
+        prevDevices = currentDevices;
+        prevTime = time;
+        return devices;
+    }
+
+    private boolean isDevice(String name) {
+        if (name.startsWith("loop") || name.startsWith("ram")) return false;
+        Path devices = sys.resolve("block");
+        return !exists(devices) || exists(devices.resolve(name));
+    }
+
+    private void updateInterval(BlockDevice device, BlockDevice prevDevice, long duration) {
+        long reads = device.getReads() - prevDevice.getReads();
+        long writes = device.getWrites() - prevDevice.getWrites();
+        long ioTime = device.getIoTime() - prevDevice.getIoTime();
+        long weightedIoTime = device.getWeightedIoTime() - prevDevice.getWeightedIoTime();
+        if (ioTime >= 0) device.setUtilization(Math.min(100, 100 * (float) ioTime / duration));
+        if (weightedIoTime >= 0) device.setQueueDepth((float) weightedIoTime / duration);
+        if (reads > 0) device.setReadLatency((float) (device.getReadTime() - prevDevice.getReadTime()) / reads);
+        if (writes > 0) device.setWriteLatency((float) (device.getWriteTime() - prevDevice.getWriteTime()) / writes);
+    }
+}
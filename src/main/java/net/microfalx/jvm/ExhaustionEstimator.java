@@ -0,0 +1,115 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ExhaustionForecast;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+
+/**
+ * Predicts when a resource reaches its limit by fitting a linear trend over the recent values.
+ * <p>
+ * The trend is calculated incrementally with an ordinary least squares regression, which keeps only a few sums,
+ * so the memory used per series is constant regardless of how long it is observed. To follow changes in trend,
+ * two overlapping regressions are maintained: the active one and the next one, which starts halfway through the
+ * window and replaces the active one once it has half a window of samples. The prediction is therefore based on
+ * the last <code>window / 2</code> to <code>window</code> samples.
+ * <p>
+ * A prediction is made only when there are enough samples, the resource grows and the growth is statistically
+ * significant; the minimum and maximum time to exhaustion are derived from the 95% confidence interval of the slope.
+ */
+public final class ExhaustionEstimator {
+
+    static final int DEFAULT_WINDOW = 120;
+    static final int MINIMUM_SAMPLES = 10;
+
+    private static final double SIGNIFICANCE = 0.05;
+
+    private final int window;
+
+    private SimpleRegression current = new SimpleRegression();
+    private SimpleRegression next = new SimpleRegression();
+    private long origin = -1;
+    private long lastValue;
+
+    public ExhaustionEstimator() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public ExhaustionEstimator(int window) {
+        if (window < 2 * MINIMUM_SAMPLES) {
+            throw new IllegalArgumentException("The window must have at least " + (2 * MINIMUM_SAMPLES) + " samples, got " + window);
+        }
+        this.window = window;
+    }
+
+    /**
+     * Returns the number of samples used to calculate the trend.
+     *
+     * @return a positive integer
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Registers a new value.
+     *
+     * @param timestamp the timestamp (in milliseconds) of the value
+     * @param value     the value
+     */
+    public synchronized void update(long timestamp, long value) {
+        if (origin < 0) origin = timestamp;
+        double x = (timestamp - origin) / 1000d;
+        current.addData(x, value);
+        if (current.getN() > window / 2) next.addData(x, value);
+        if (next.getN() >= window / 2) {
+            current = next;
+            next = new SimpleRegression();
+        }
+        lastValue = value;
+    }
+
+    /**
+     * Predicts when the value reaches the limit.
+     *
+     * @param limit the limit
+     * @return a non-null instance
+     */
+    public synchronized ExhaustionForecast forecast(long limit) {
+        ExhaustionForecast forecast = new ExhaustionForecast();
+        forecast.setValue(lastValue);
+        forecast.setLimit(limit);
+        forecast.setSamples(current.getN());
+        if (current.getN() < MINIMUM_SAMPLES) return forecast;
+        double slope = current.getSlope();
+        if (Double.isNaN(slope)) return forecast;
+        forecast.setSlope(slope);
+        forecast.setRSquare(current.getRSquare());
+        if (slope <= 0 || limit <= 0) return forecast;
+        double remaining = Math.max(0, limit - lastValue);
+        if (current.getSlopeStdErr() > 0) {
+            // a perfect fit has no error, therefore no significance or confidence interval
+            if (current.getSignificance() > SIGNIFICANCE) return forecast;
+            double interval = current.getSlopeConfidenceInterval(SIGNIFICANCE);
+            forecast.setMinimumTimeToExhaustion(toMillis(remaining / (slope + interval)));
+            if (slope > interval) forecast.setMaximumTimeToExhaustion(toMillis(remaining / (slope - interval)));
+        } else {
+            forecast.setMinimumTimeToExhaustion(toMillis(remaining / slope));
+            forecast.setMaximumTimeToExhaustion(forecast.getMinimumTimeToExhaustion());
+        }
+        forecast.setTimeToExhaustion(toMillis(remaining / slope));
+        return forecast;
+    }
+
+    /**
+     * Discards all the samples.
+     */
+    public synchronized void reset() {
+        current = new SimpleRegression();
+        next = new SimpleRegression();
+        origin = -1;
+        lastValue = 0;
+    }
+
+    private static long toMillis(double seconds) {
+        return (long) Math.min(Long.MAX_VALUE, seconds * 1000);
+    }
+}
@@ -0,0 +1,196 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Process;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.lang.System.currentTimeMillis;
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Tracks the file descriptors of the current process against the process limits.
+ * <p>
+ * The soft and hard limits are read from <code>/proc/self/limits</code>. The open descriptors are classified by type
+ * (based on the link target in <code>/proc/self/fd</code>) on a slow cadence, since it requires one
+ * <code>readlink</code> per descriptor; between classifications the previous breakdown is reported. A caller which
+ * also needs the listing (for example, to collect the sockets) lists the descriptors only when
+ * {@link #isClassificationDue() a classification is due} and passes the listing to the tracker.
+ * <p>
+ * The number of open descriptors is kept, with the time of each sample, for a window of time (30 minutes by
+ * default), to calculate the growth (descriptors per minute) and to detect a leak: the descriptors are considered
+ * leaking when the samples cover at least half of the window, every sample in the newer half of the covered time is
+ * above every sample in the older half and the total growth exceeds a minimum, so regular fluctuations (connection
+ * pools, temporary files) are not reported. The window does not depend on how often the tracker is updated; samples
+ * closer than {@code window / capacity} to the previous one are not kept, so the buffer always spans the window.
+ */
+public final class FileDescriptorTracker {
+
+    private static final Duration DEFAULT_CLASSIFY_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(30);
+    private static final int CAPACITY = 256;
+    private static final int MINIMUM_SAMPLES = 4;
+    private static final int MINIMUM_GROWTH = 10;
+    private static final String MAX_OPEN_FILES = "Max open files";
+
+    private final Path proc;
+    private final long classifyInterval;
+    private final long window;
+    private final long spacing;
+    private final int[] counts = new int[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+
+    private int index;
+    private int size;
+    private long lastClassification;
+    private Map<Process.FileDescriptorType, Integer> types = new EnumMap<>(Process.FileDescriptorType.class);
+
+    public FileDescriptorTracker() {
+        this(PROC, DEFAULT_CLASSIFY_INTERVAL, DEFAULT_WINDOW);
+    }
+
+    FileDescriptorTracker(Path proc, Duration classifyInterval, Duration window) {
+        requireNonNull(proc);
+        requireNonNull(classifyInterval);
+        requireNonNull(window);
+        if (window.toMillis() <= 0) throw new IllegalArgumentException("Window must be positive, got " + window);
+        this.proc = proc;
+        this.classifyInterval = classifyInterval.toMillis();
+        this.window = window.toMillis();
+        this.spacing = this.window / CAPACITY;
+    }
+
+    /**
+     * Updates the limits, the breakdown by type and the trend of the file descriptors of a process.
+     * <p>
+     * The process is expected to have the number of open file descriptors already populated.
+     *
+     * @param process the process
+     */
+    public void update(Process process) {
+        update(process, null, currentTimeMillis());
+    }
+
+    /**
+     * Updates the limits, the breakdown by type and the trend of the file descriptors of a process, based on an
+     * existing listing of the file descriptors.
+     *
+     * @param process         the process
+     * @param fileDescriptors the targets of the links in <code>/proc/self/fd</code>
+     */
+    public void update(Process process, Collection<String> fileDescriptors) {
+        requireNonNull(fileDescriptors);
+        update(process, fileDescriptors, currentTimeMillis());
+    }
+
+    /**
+     * Returns whether the next update classifies the open descriptors, which requires a listing of
+     * <code>/proc/self/fd</code>.
+     *
+     * @return {@code true} if a classification is due, {@code false} if the previous breakdown is still recent
+     */
+    public boolean isClassificationDue() {
+        return isClassificationDue(currentTimeMillis());
+    }
+
+    synchronized boolean isClassificationDue(long time) {
+        return lastClassification == 0 || time - lastClassification >= classifyInterval;
+    }
+
+    synchronized void update(Process process, Collection<String> fileDescriptors, long time) {
+        requireNonNull(process);
+        Path self = proc.resolve("self");
+        updateLimits(process, readLines(self.resolve("limits")));
+        if (fileDescriptors != null) {
+            types = classify(fileDescriptors);
+            lastClassification = time;
+        } else if (isClassificationDue(time)) {
+            types = classify(readLinks(self.resolve("fd")));
+            lastClassification = time;
+        }
+        process.setFileDescriptorTypes(new EnumMap<>(types));
+        addSample(process.getFileDescriptors(), time);
+        updateTrend(process);
+    }
+
+    private void addSample(int count, long time) {
+        int last = (index - 1 + CAPACITY) % CAPACITY;
+        if (size > 0 && time - times[last] < spacing) {
+            // too close to the previous sample, replace it so the newest value is always used
+            counts[last] = count;
+            return;
+        }
+        counts[index] = count;
+        times[index] = time;
+        index = (index + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+        while (size > 1 && times[(index - size + CAPACITY) % CAPACITY] < time - window) size--;
+    }
+
+    private void updateLimits(Process process, Iterable<String> lines) {
+        for (String line : lines) {
+            if (!line.startsWith(MAX_OPEN_FILES)) continue;
+            String[] parts = line.substring(MAX_OPEN_FILES.length()).trim().split("\\s+");
+            if (parts.length < 2) break;
+            process.setFileDescriptorsSoftLimit(parseLimit(parts[0]));
+            process.setFileDescriptorsHardLimit(parseLimit(parts[1]));
+            break;
+        }
+    }
+
+    private void updateTrend(Process process) {
+        if (size < 2) return;
+        int first = (index - size + CAPACITY) % CAPACITY;
+        int last = (index - 1 + CAPACITY) % CAPACITY;
+        long duration = times[last] - times[first];
+        if (duration > 0) {
+            process.setFileDescriptorsGrowth((float) (counts[last] - counts[first]) * 60_000 / duration);
+        }
+        if (size < MINIMUM_SAMPLES || duration < window / 2) return;
+        long middle = times[first] + duration / 2;
+        int olderMaximum = Integer.MIN_VALUE;
+        int newerMinimum = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int position = (first + i) % CAPACITY;
+            int count = counts[position];
+            if (times[position] < middle) {
+                olderMaximum = Math.max(olderMaximum, count);
+            } else {
+                newerMinimum = Math.min(newerMinimum, count);
+            }
+        }
+        process.setFileDescriptorsLeaking(newerMinimum > olderMaximum && counts[last] - counts[first] >= MINIMUM_GROWTH);
+    }
+
+    private Map<Process.FileDescriptorType, Integer> classify(Collection<String> fileDescriptors) {
+        Map<Process.FileDescriptorType, Integer> types = new EnumMap<>(Process.FileDescriptorType.class);
+        for (String target : fileDescriptors) {
+            types.merge(getType(target), 1, Integer::sum);
+        }
+        return types;
+    }
+
+    static Process.FileDescriptorType getType(String target) {
+        if (target.startsWith("socket:")) {
+            return Process.FileDescriptorType.SOCKET;
+        } else if (target.startsWith("pipe:")) {
+            return Process.FileDescriptorType.PIPE;
+        } else if (target.startsWith("anon_inode:")) {
+            return target.contains("eventfd") ? Process.FileDescriptorType.EVENTFD : Process.FileDescriptorType.ANON_INODE;
+        } else if (target.startsWith("/dev/")) {
+            return Process.FileDescriptorType.DEVICE;
+        } else if (target.startsWith("/")) {
+            return Process.FileDescriptorType.FILE;
+        } else {
+            return Process.FileDescriptorType.OTHER;
+        }
+    }
+
+    private static long parseLimit(String value) {
+        return "unlimited".equals(value) ? -1 : parseLong(value, -1);
+    }
+}
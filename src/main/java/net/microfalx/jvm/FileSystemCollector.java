@@ -0,0 +1,247 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.FileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import oshi.SystemInfo;
+import oshi.software.os.OSFileStore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static net.microfalx.jvm.LinuxUtils.PROC;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects information about file systems (mounts).
+ * <p>
+ * The mount list is cached and refreshed only when <code>/proc/self/mountinfo</code> changes (or every minute on
+ * platforms without it). The space and inodes of each mount (<code>statvfs</code>) are refreshed concurrently with
+ * a timeout; a mount which does not answer in time (a hung NFS server, for example) is reported with the last
+ * known values and marked as stale, without blocking the scrape. A new refresh is not attempted for a mount until
+ * the previous one completes, so a hung mount holds at most one thread. The mount list itself is also retrieved
+ * with a timeout, since OSHI reads the attributes of every mount while listing them; a retrieval which does not
+ * complete within the mounts timeout (one minute by default) is cancelled and retried, so a mount which hangs while
+ * listing does not stop the mount list from being refreshed forever.
+ */
+public final class FileSystemCollector extends AbstractCollector<Collection<FileSystem>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemCollector.class);
+
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration DEFAULT_MOUNTS_TIMEOUT = Duration.ofMinutes(1);
+    private static final long REFRESH_INTERVAL = Duration.ofMinutes(1).toMillis();
+
+    private final oshi.software.os.FileSystem fileSystem;
+    private final Path mountInfo;
+    private final ExecutorService executor = Executors.newCachedThreadPool(new StatsThreadFactory());
+
+    private volatile Duration timeout = DEFAULT_TIMEOUT;
+    private volatile Duration mountsTimeout = DEFAULT_MOUNTS_TIMEOUT;
+    private List<Mount> mounts = Collections.emptyList();
+    private Future<List<OSFileStore>> mountsUpdate;
+    private long mountsUpdateTime;
+    private boolean mountsUpdateHung;
+    private int mountInfoHash;
+    private long lastRefresh;
+
+    public FileSystemCollector() {
+        this(new SystemInfo().getOperatingSystem().getFileSystem(), PROC.resolve("self").resolve("mountinfo"));
+    }
+
+    FileSystemCollector(oshi.software.os.FileSystem fileSystem, Path mountInfo) {
+        requireNonNull(fileSystem);
+        requireNonNull(mountInfo);
+        this.fileSystem = fileSystem;
+        this.mountInfo = mountInfo;
+    }
+
+    /**
+     * Returns the maximum amount of time to wait for the space and inode information of a mount.
+     *
+     * @return a non-null instance
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Changes the maximum amount of time to wait for the space and inode information of a mount.
+     *
+     * @param timeout the timeout
+     * @return self
+     */
+    public FileSystemCollector setTimeout(Duration timeout) {
+        requireNonNull(timeout);
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Returns the maximum amount of time to wait for the mount list before the retrieval is cancelled and retried.
+     *
+     * @return a non-null instance
+     */
+    public Duration getMountsTimeout() {
+        return mountsTimeout;
+    }
+
+    /**
+     * Changes the maximum amount of time to wait for the mount list before the retrieval is cancelled and retried.
+     *
+     * @param mountsTimeout the timeout
+     * @return self
+     */
+    public FileSystemCollector setMountsTimeout(Duration mountsTimeout) {
+        requireNonNull(mountsTimeout);
+        this.mountsTimeout = mountsTimeout;
+        return this;
+    }
+
+    @Override
+    public synchronized Collection<FileSystem> execute() {
+        long deadline = nanoTime() + timeout.toNanos();
+        refreshMounts(deadline);
+        for (Mount mount : mounts) {
+            if (mount.update == null || mount.update.isDone()) {
+                mount.update = executor.submit(mount.store::updateAttributes);
+            }
+        }
+        Collection<FileSystem> fileSystems = new ArrayList<>(mounts.size());
+        for (Mount mount : mounts) {
+            fileSystems.add(collect(mount, deadline));
+        }
+        return fileSystems;
+    }
+
+    private FileSystem collect(Mount mount, long deadline) {
+        boolean stale = true;
+        try {
+            mount.update.get(Math.max(0, deadline - nanoTime()), TimeUnit.NANOSECONDS);
+            stale = false;
+        } catch (TimeoutException e) {
+            LOGGER.debug("Timeout while retrieving file system stats for '{}'", mount.store.getMount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.debug("Failed to retrieve file system stats for '{}'", mount.store.getMount(), e.getCause());
+        }
+        // the store keeps the values from the last successful update
+        FileSystem fileSystem = create(mount.store);
+        fileSystem.setStale(stale);
+        return fileSystem;
+    }
+
+    private void refreshMounts(long deadline) {
+        if (mountsUpdate == null) {
+            int hash = 0;
+            boolean changed;
+            if (LinuxUtils.exists(mountInfo)) {
+                String content = LinuxUtils.readString(mountInfo);
+                hash = content != null ? content.hashCode() : 0;
+                changed = hash != mountInfoHash || lastRefresh == 0;
+            } else {
+                changed = currentTimeMillis() - lastRefresh > REFRESH_INTERVAL;
+            }
+            if (!changed) return;
+            mountInfoHash = hash;
+            mountsUpdate = executor.submit(() -> fileSystem.getFileStores());
+            mountsUpdateTime = nanoTime();
+        }
+        List<OSFileStore> stores;
+        try {
+            stores = mountsUpdate.get(Math.max(0, deadline - nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (nanoTime() - mountsUpdateTime > mountsTimeout.toNanos()) {
+                cancelMounts();
+            } else {
+                LOGGER.debug("Timeout while retrieving mounts, use the previous mounts");
+            }
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            LOGGER.warn("Failed to retrieve mounts", e.getCause());
+            mountsUpdate = null;
+            lastRefresh = 0;
+            return;
+        }
+        mountsUpdate = null;
+        lastRefresh = currentTimeMillis();
+        List<Mount> newMounts = new ArrayList<>();
+        for (OSFileStore store : stores) {
+            Mount mount = findMount(store);
+            newMounts.add(mount != null ? mount : new Mount(store));
+        }
+        mounts = newMounts;
+    }
+
+    private void cancelMounts() {
+        if (mountsUpdateHung) {
+            LOGGER.debug("Mounts not retrieved after {}, retry", mountsTimeout);
+        } else {
+            LOGGER.warn("Mounts not retrieved after {}, retry (a mount might be hung)", mountsTimeout);
+            mountsUpdateHung = true;
+        }
+        // the thread stays blocked if the file system does not answer to interrupts, but the next refresh is not
+        // waiting for it
+        mountsUpdate.cancel(true);
+        mountsUpdate = null;
+        lastRefresh = 0;
+    }
+
+    private Mount findMount(OSFileStore store) {
+        for (Mount mount : mounts) {
+            if (mount.store.getMount().equals(store.getMount()) && mount.store.getName().equals(store.getName())) {
+                return mount;
+            }
+        }
+        return null;
+    }
+
+    private FileSystem create(OSFileStore fileStore) {
+        FileSystem disk = new FileSystem();
+        disk.setId(fileStore.getUUID());
+        disk.setName(fileStore.getName());
+        disk.setDescription(fileStore.getDescription());
+        disk.setMount(fileStore.getMount());
+        disk.setType(FileSystem.Type.fromString(fileStore.getType()));
+        disk.setTotalSpace(fileStore.getTotalSpace());
+        disk.setFreeSpace(fileStore.getFreeSpace());
+        disk.setUsableSpace(fileStore.getUsableSpace());
+        disk.setTotalInodes(fileStore.getTotalInodes());
+        disk.setFreeInodes(fileStore.getFreeInodes());
+        return disk;
+    }
+
+    private static class Mount {
+
+        private final OSFileStore store;
+        private Future<Boolean> update;
+
+        private Mount(OSFileStore store) {
+            this.store = store;
+        }
+    }
+
+    private static class StatsThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "File System Stats " + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.microfalx.jvm;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import net.microfalx.jvm.model.GarbageCollection;
+import net.microfalx.jvm.model.MemoryPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the allocation and promotion of objects, based on the memory usage before and after each young collection
+ * (received as GC notifications).
+ * <p>
+ * For each young collection, the bytes allocated since the previous collection are the Eden usage before this
+ * collection minus the Eden usage after the previous one, and the bytes promoted are the growth of the tenured pool
+ * during the collection. A collection which leaves the survivor space full (above {@link #SURVIVOR_OVERFLOW_PERCENT}
+ * of its maximum) is counted as a survivor overflow: objects which did not fit were promoted prematurely.
+ * <p>
+ * Some collectors (G1) have no maximum for the survivor space and size it (and commit it) as needed, so its usage is
+ * always close to its committed size. For these collectors, a collection is counted as an overflow when it promoted
+ * more than the survivor space held before the collection: objects promoted by age come from the survivor space, so
+ * the rest was copied directly from Eden because it did not fit.
+ * <p>
+ * All values are cumulative since the tracker was started, the rates are calculated by the metrics store.
+ */
+public final class GarbageCollectionTracker implements NotificationListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GarbageCollectionTracker.class);
+
+    static final float SURVIVOR_OVERFLOW_PERCENT = 95;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong promotedBytes = new AtomicLong();
+    private final AtomicLong youngCollections = new AtomicLong();
+    private final AtomicLong survivorOverflows = new AtomicLong();
+
+    private long edenUsedAfterGc = -1;
+
+    /**
+     * Registers the tracker with all garbage collectors of the current JVM. It does nothing if already started.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) return;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (garbageCollectorMXBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) garbageCollectorMXBean).addNotificationListener(this, null, null);
+            }
+        }
+    }
+
+    /**
+     * Returns the bytes allocated in Eden since the tracker was started.
+     *
+     * @return a positive integer
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Returns the bytes promoted from the young generation to the tenured pool since the tracker was started.
+     *
+     * @return a positive integer
+     */
+    public long getPromotedBytes() {
+        return promotedBytes.get();
+    }
+
+    /**
+     * Returns the number of young collections observed since the tracker was started.
+     *
+     * @return a positive integer
+     */
+    public long getYoungCollections() {
+        return youngCollections.get();
+    }
+
+    /**
+     * Returns the number of young collections which left the survivor space full.
+     *
+     * @return a positive integer
+     */
+    public long getSurvivorOverflows() {
+        return survivorOverflows.get();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        try {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            update(info.getGcName(), info.getGcInfo().getMemoryUsageBeforeGc(), info.getGcInfo().getMemoryUsageAfterGc());
+        } catch (Exception e) {
+            LOGGER.debug("Failed to process GC notification", e);
+        }
+    }
+
+    /**
+     * Updates the counters with the memory usage of a collection.
+     *
+     * @param name   the name of the garbage collector
+     * @param before the usage of the pools before the collection
+     * @param after  the usage of the pools after the collection
+     */
+    synchronized void update(String name, Map<String, MemoryUsage> before, Map<String, MemoryUsage> after) {
+        long edenBefore = 0;
+        long edenAfter = 0;
+        long tenuredBefore = 0;
+        long tenuredAfter = 0;
+        long survivorBefore = 0;
+        long survivorAfter = 0;
+        long survivorMaximum = 0;
+        for (Map.Entry<String, MemoryUsage> entry : after.entrySet()) {
+            MemoryUsage usageBefore = before.get(entry.getKey());
+            MemoryUsage usageAfter = entry.getValue();
+            if (usageBefore == null || usageAfter == null) continue;
+            MemoryPool.Type type = VirtualMachineCollector.guessMemoryType(entry.getKey());
+            if (type == MemoryPool.Type.EDEN) {
+                edenBefore += usageBefore.getUsed();
+                edenAfter += usageAfter.getUsed();
+            } else if (type == MemoryPool.Type.TENURED) {
+                tenuredBefore += usageBefore.getUsed();
+                tenuredAfter += usageAfter.getUsed();
+            } else if (type == MemoryPool.Type.SURVIVOR) {
+                survivorBefore += usageBefore.getUsed();
+                survivorAfter += usageAfter.getUsed();
+                // -1 once any survivor pool has no maximum
+                survivorMaximum = survivorMaximum < 0 || usageAfter.getMax() <= 0 ? -1 : survivorMaximum + usageAfter.getMax();
+            }
+        }
+        if (edenUsedAfterGc >= 0) allocatedBytes.addAndGet(Math.max(0, edenBefore - edenUsedAfterGc));
+        edenUsedAfterGc = edenAfter;
+        if (VirtualMachineCollector.guessGarbageCollectorType(name) != GarbageCollection.Type.EDEN) return;
+        youngCollections.incrementAndGet();
+        long promoted = Math.max(0, tenuredAfter - tenuredBefore);
+        promotedBytes.addAndGet(promoted);
+        if (isSurvivorOverflow(promoted, survivorBefore, survivorAfter, survivorMaximum)) {
+            survivorOverflows.incrementAndGet();
+        }
+    }
+
+    private static boolean isSurvivorOverflow(long promoted, long survivorBefore, long survivorAfter, long survivorMaximum) {
+        if (survivorMaximum < 0) {
+            return promoted > survivorBefore;
+        } else {
+            return survivorMaximum > 0 && 100 * (float) survivorAfter / survivorMaximum >= SURVIVOR_OVERFLOW_PERCENT;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.MemoryPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Signals when the heap is running out of space, so applications can shed load (shrink caches, reject work)
+ * before the JVM spends most of its time collecting garbage.
+ * <p>
+ * The pressure is based on the tenured memory used after a collection (the live set), relative to the maximum size
+ * of the tenured pool. It is evaluated when the JVM reports that the collection usage threshold of the tenured pool
+ * (set to the {@link #getElevatedThreshold() elevated threshold}) was exceeded and after every collection, so the
+ * level follows the heap as soon as the garbage collector runs, without polling. The usage before a collection
+ * includes garbage and is not used, since a tenured pool which fills up before a collection is normal.
+ * <p>
+ * A level is left only when the usage drops below its threshold minus the {@link #getHysteresis() hysteresis}, so
+ * the level does not flap when the live set hovers around a threshold. The current level is a volatile read and can
+ * be checked on every request; listeners are called (on the JMX notification thread) only when the level changes.
+ */
+public final class HeapPressureMonitor implements NotificationListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapPressureMonitor.class);
+
+    private static final HeapPressureMonitor instance = new HeapPressureMonitor();
+
+    private static final float DEFAULT_ELEVATED_THRESHOLD = 75;
+    private static final float DEFAULT_CRITICAL_THRESHOLD = 90;
+    private static final float DEFAULT_HYSTERESIS = 10;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Collection<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<MemoryPoolMXBean> tenuredPools = new ArrayList<>();
+
+    private volatile Level level = Level.NORMAL;
+    private volatile float usedPercent;
+    private volatile float elevatedThreshold = DEFAULT_ELEVATED_THRESHOLD;
+    private volatile float criticalThreshold = DEFAULT_CRITICAL_THRESHOLD;
+    private volatile float hysteresis = DEFAULT_HYSTERESIS;
+
+    /**
+     * Returns the monitor for the current JVM, started on first access.
+     *
+     * @return a non-null instance
+     */
+    public static HeapPressureMonitor get() {
+        instance.start();
+        return instance;
+    }
+
+    HeapPressureMonitor() {
+    }
+
+    /**
+     * Returns the current pressure level.
+     *
+     * @return a non-null instance
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the tenured memory used after the last collection, relative to the maximum size of the tenured pool.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getUsedPercent() {
+        return usedPercent;
+    }
+
+    /**
+     * Returns the percentage of tenured memory used after a collection which raises the level to {@link Level#ELEVATED}.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getElevatedThreshold() {
+        return elevatedThreshold;
+    }
+
+    /**
+     * Returns the percentage of tenured memory used after a collection which raises the level to {@link Level#CRITICAL}.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getCriticalThreshold() {
+        return criticalThreshold;
+    }
+
+    /**
+     * Returns how much (percentage points) the usage needs to drop below a threshold to leave its level.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getHysteresis() {
+        return hysteresis;
+    }
+
+    /**
+     * Changes the thresholds.
+     *
+     * @param elevatedThreshold the percentage which raises the level to {@link Level#ELEVATED}
+     * @param criticalThreshold the percentage which raises the level to {@link Level#CRITICAL}
+     * @param hysteresis        the percentage points the usage needs to drop below a threshold to leave its level
+     * @return self
+     */
+    public HeapPressureMonitor setThresholds(float elevatedThreshold, float criticalThreshold, float hysteresis) {
+        if (elevatedThreshold <= 0 || criticalThreshold > 100 || elevatedThreshold > criticalThreshold) {
+            throw new IllegalArgumentException("Invalid thresholds, elevated " + elevatedThreshold + "%, critical " + criticalThreshold + "%");
+        }
+        if (hysteresis < 0 || hysteresis >= elevatedThreshold) {
+            throw new IllegalArgumentException("Invalid hysteresis " + hysteresis + "%");
+        }
+        this.elevatedThreshold = elevatedThreshold;
+        this.criticalThreshold = criticalThreshold;
+        this.hysteresis = hysteresis;
+        updateCollectionUsageThresholds();
+        return this;
+    }
+
+    /**
+     * Registers a listener called when the pressure level changes.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Listener listener) {
+        requireNonNull(listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener
+     */
+    public void removeListener(Listener listener) {
+        requireNonNull(listener);
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers the collection usage threshold on the tenured pools and subscribes to the memory and garbage
+     * collector notifications of the current JVM. It does nothing if already started.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) return;
+        for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (VirtualMachineCollector.guessMemoryType(memoryPoolMXBean.getName()) == MemoryPool.Type.TENURED) {
+                tenuredPools.add(memoryPoolMXBean);
+            }
+        }
+        updateCollectionUsageThresholds();
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (garbageCollectorMXBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) garbageCollectorMXBean).addNotificationListener(this, null, null);
+            }
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) return;
+        try {
+            long used = 0;
+            long maximum = 0;
+            for (MemoryPoolMXBean tenuredPool : tenuredPools) {
+                MemoryUsage usage = tenuredPool.getCollectionUsage();
+                if (usage == null) continue;
+                used += usage.getUsed();
+                maximum += usage.getMax() > 0 ? usage.getMax() : usage.getCommitted();
+            }
+            update(used, maximum);
+        } catch (Exception e) {
+            LOGGER.debug("Failed to process memory notification", e);
+        }
+    }
+
+    /**
+     * Updates the pressure level with the tenured memory used after a collection.
+     *
+     * @param used    the memory used
+     * @param maximum the maximum size of the memory
+     */
+    synchronized void update(long used, long maximum) {
+        if (maximum <= 0) return;
+        float percent = Math.min(100, 100 * (float) used / maximum);
+        usedPercent = percent;
+        Level previousLevel = level;
+        Level newLevel = previousLevel;
+        if (percent >= criticalThreshold) {
+            newLevel = Level.CRITICAL;
+        } else if (percent >= elevatedThreshold) {
+            if (previousLevel == Level.NORMAL || percent < criticalThreshold - hysteresis) newLevel = Level.ELEVATED;
+        } else if (percent < elevatedThreshold - hysteresis) {
+            newLevel = Level.NORMAL;
+        } else if (previousLevel == Level.CRITICAL && percent < criticalThreshold - hysteresis) {
+            newLevel = Level.ELEVATED;
+        }
+        if (newLevel == previousLevel) return;
+        level = newLevel;
+        LOGGER.info("Heap pressure changed from {} to {}, tenured used after GC {}%", previousLevel, newLevel, (int) percent);
+        for (Listener listener : listeners) {
+            try {
+                listener.onPressureChanged(previousLevel, newLevel, percent);
+            } catch (Exception e) {
+                LOGGER.error("Failed to notify listener " + listener + " about heap pressure change", e);
+            }
+        }
+    }
+
+    private void updateCollectionUsageThresholds() {
+        for (MemoryPoolMXBean tenuredPool : tenuredPools) {
+            if (!tenuredPool.isCollectionUsageThresholdSupported()) continue;
+            long maximum = tenuredPool.getUsage().getMax();
+            if (maximum <= 0) continue;
+            try {
+                tenuredPool.setCollectionUsageThreshold((long) (maximum * elevatedThreshold / 100));
+            } catch (Exception e) {
+                LOGGER.debug("Failed to set the collection usage threshold for '{}'", tenuredPool.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * An enum for the pressure levels.
+     */
+    public enum Level {
+
+        /**
+         * The live set is well below the maximum size of the heap.
+         */
+        NORMAL,
+
+        /**
+         * The live set is getting close to the maximum size of the heap, caches should shrink.
+         */
+        ELEVATED,
+
+        /**
+         * The heap is almost full after collections, new work should be rejected.
+         */
+        CRITICAL
+    }
+
+    /**
+     * A listener called when the pressure level changes.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Invoked when the pressure level changes.
+         *
+         * @param previousLevel the previous level
+         * @param level         the new level
+         * @param usedPercent   the tenured memory used after the last collection, between 0 and 100
+         */
+        void onPressureChanged(Level previousLevel, Level level, float usedPercent);
+    }
+}
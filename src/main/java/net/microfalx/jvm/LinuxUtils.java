@@ -0,0 +1,252 @@
+package net.microfalx.jvm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Utilities around Linux pseudo file systems (<code>/proc</code>, <code>/sys</code>).
+ * <p>
+ * All methods are lenient: a missing or unreadable file is reported as an empty value, since most of the
+ * files are optional (depend on kernel version, configuration or container runtime).
+ */
+public class LinuxUtils {
+
+    /**
+     * The default mount point of the <code>proc</code> file system.
+     */
+    public static final Path PROC = Paths.get("/proc");
+
+    /**
+     * The default mount point of the <code>sysfs</code> file system.
+     */
+    public static final Path SYS = Paths.get("/sys");
+
+    /**
+     * The number of clock ticks per second (<code>USER_HZ</code>), the unit of the CPU times in <code>/proc</code>.
+     * <p>
+     * The value is 100 on all mainstream architectures.
+     */
+    public static final long CLOCK_TICKS = 100;
+
+    private static final boolean LINUX = System.getProperty("os.name", "").toLowerCase().startsWith("linux");
+    private static final long DEFAULT_PAGE_SIZE = 4096;
+
+    private static volatile long pageSize;
+
+    /**
+     * Returns whether the current operating system is Linux.
+     *
+     * @return {@code true} if Linux, {@code false} otherwise
+     */
+    public static boolean isLinux() {
+        return LINUX;
+    }
+
+    /**
+     * Returns the size of a memory page, used by the memory counters in <code>/proc/[pid]/stat</code> and
+     * <code>/proc/[pid]/statm</code>.
+     *
+     * @return a positive integer
+     */
+    public static long getPageSize() {
+        if (pageSize == 0) {
+            long value = DEFAULT_PAGE_SIZE;
+            try (Stream<String> lines = Files.lines(PROC.resolve("self").resolve("smaps"))) {
+                value = lines.filter(line -> line.startsWith("KernelPageSize:")).findFirst()
+                        .map(line -> parseLong(line.substring(15).replace("kB", ""), 0) * 1024)
+                        .filter(size -> size > 0).orElse(DEFAULT_PAGE_SIZE);
+            } catch (IOException | UncheckedIOException | SecurityException e) {
+                // use the default
+            }
+            pageSize = value;
+        }
+        return pageSize;
+    }
+
+    /**
+     * Returns whether a (pseudo) file exists.
+     *
+     * @param path the path
+     * @return {@code true} if exists, {@code false} otherwise
+     */
+    public static boolean exists(Path path) {
+        return path != null && Files.exists(path);
+    }
+
+    /**
+     * Reads the content of a (pseudo) file.
+     *
+     * @param path the path
+     * @return the content (trimmed), null if the file does not exist or cannot be read
+     */
+    public static String readString(Path path) {
+        try {
+            return new String(Files.readAllBytes(path)).trim();
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the lines of a (pseudo) file.
+     *
+     * @param path the path
+     * @return a non-null instance, empty if the file does not exist or cannot be read
+     */
+    public static List<String> readLines(Path path) {
+        try {
+            return Files.readAllLines(path);
+        } catch (IOException | SecurityException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Reads the targets of the symbolic links in a directory (<code>/proc/[pid]/fd</code>).
+     * <p>
+     * Links which disappear while the directory is listed (descriptors closed in the meantime) are ignored.
+     *
+     * @param directory the directory
+     * @return a non-null instance, empty if the directory does not exist or cannot be read
+     */
+    public static List<String> readLinks(Path directory) {
+        List<String> targets = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path link : stream) {
+                try {
+                    targets.add(Files.readSymbolicLink(link).toString());
+                } catch (IOException | UnsupportedOperationException e) {
+                    // the descriptor was closed in the meantime
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            return Collections.emptyList();
+        }
+        return targets;
+    }
+
+    /**
+     * Reads a file which contains a single number.
+     *
+     * @param path         the path
+     * @param defaultValue the value returned if the file does not exist or does not contain a number
+     * @return the value
+     */
+    public static long readLong(Path path, long defaultValue) {
+        return parseLong(readString(path), defaultValue);
+    }
+
+    /**
+     * Parses a number, lenient.
+     *
+     * @param value        the value as string
+     * @param defaultValue the value returned if the string is not a number
+     * @return the value
+     */
+    public static long parseLong(String value, long defaultValue) {
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Parses a number, lenient.
+     *
+     * @param value        the value as string
+     * @param defaultValue the value returned if the string is not a number
+     * @return the value
+     */
+    public static double parseDouble(String value, double defaultValue) {
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Extracts the value associated with a key from a "flat keyed" file (<code>key value</code> per line), like
+     * <code>cpu.stat</code> in a cgroup.
+     *
+     * @param lines        the lines
+     * @param key          the key
+     * @param defaultValue the value returned if the key does not exist
+     * @return the value
+     */
+    public static long getKeyValue(List<String> lines, String key, long defaultValue) {
+        for (String line : lines) {
+            if (line.startsWith(key) && line.length() > key.length() && Character.isWhitespace(line.charAt(key.length()))) {
+                return parseLong(line.substring(key.length()), defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Parses a file with one value per line, like <code>/proc/meminfo</code> (<code>MemTotal:  1024 kB</code>) or
+     * <code>/proc/vmstat</code> (<code>pgmajfault 10</code>).
+     * <p>
+     * Values with a <code>kB</code> unit are converted to bytes.
+     *
+     * @param lines the lines
+     * @return a non-null instance
+     */
+    public static Map<String, Long> parseKeyValues(List<String> lines) {
+        Map<String, Long> values = new HashMap<>(lines.size() * 2);
+        for (String line : lines) {
+            int start = 0;
+            while (start < line.length() && !Character.isWhitespace(line.charAt(start)) && line.charAt(start) != ':') {
+                start++;
+            }
+            if (start == 0 || start == line.length()) continue;
+            String key = line.substring(0, start);
+            String value = line.substring(start + 1).trim();
+            long multiplier = 1;
+            if (value.endsWith(" kB")) {
+                value = value.substring(0, value.length() - 3);
+                multiplier = 1024;
+            }
+            long number = parseLong(value, Long.MIN_VALUE);
+            if (number != Long.MIN_VALUE) values.put(key, number * multiplier);
+        }
+        return values;
+    }
+
+    /**
+     * Counts the CPUs in a CPU list (<code>0-3,8,10-11</code>) as used by <code>cpuset</code>.
+     *
+     * @param value the CPU list
+     * @return the number of CPUs, 0 if the list is empty or invalid
+     */
+    public static int countCpus(String value) {
+        if (value == null || value.isEmpty()) return 0;
+        int count = 0;
+        for (String range : value.split(",")) {
+            range = range.trim();
+            if (range.isEmpty()) continue;
+            int index = range.indexOf('-');
+            if (index == -1) {
+                if (parseLong(range, -1) >= 0) count++;
+            } else {
+                long start = parseLong(range.substring(0, index), -1);
+                long end = parseLong(range.substring(index + 1), -1);
+                if (start >= 0 && end >= start) count += (int) (end - start + 1);
+            }
+        }
+        return count;
+    }
+}
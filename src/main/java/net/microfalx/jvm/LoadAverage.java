@@ -0,0 +1,83 @@
+package net.microfalx.jvm;
+
+import java.time.Duration;
+
+/**
+ * Smooths a metric with exponentially weighted moving averages over 1, 5 and 15 minutes, like the load average of
+ * the kernel.
+ * <p>
+ * Each update decays the previous averages with a factor derived from the time elapsed since the previous update, so
+ * the averages stay correct if the scrape interval changes or a scrape is skipped. The first value initializes all
+ * averages. An update takes constant time and memory; the averages are volatile and can be read concurrently, from
+ * any number of threads, without locking.
+ * <p>
+ * Updates are expected from a single thread (the scraper); concurrent updates are serialized.
+ */
+public final class LoadAverage {
+
+    private static final double ONE_MINUTE = Duration.ofMinutes(1).toMillis();
+    private static final double FIVE_MINUTES = Duration.ofMinutes(5).toMillis();
+    private static final double FIFTEEN_MINUTES = Duration.ofMinutes(15).toMillis();
+
+    private volatile double oneMinute;
+    private volatile double fiveMinutes;
+    private volatile double fifteenMinutes;
+    private long lastTimestamp = -1;
+
+    /**
+     * Returns the average over the last minute.
+     *
+     * @return the average
+     */
+    public double getOneMinute() {
+        return oneMinute;
+    }
+
+    /**
+     * Returns the average over the last 5 minutes.
+     *
+     * @return the average
+     */
+    public double getFiveMinutes() {
+        return fiveMinutes;
+    }
+
+    /**
+     * Returns the average over the last 15 minutes.
+     *
+     * @return the average
+     */
+    public double getFifteenMinutes() {
+        return fifteenMinutes;
+    }
+
+    /**
+     * Registers a new value.
+     *
+     * @param timestamp the timestamp (in milliseconds) of the value
+     * @param value     the value
+     */
+    public synchronized void update(long timestamp, double value) {
+        if (lastTimestamp < 0) {
+            oneMinute = value;
+            fiveMinutes = value;
+            fifteenMinutes = value;
+        } else {
+            long elapsed = Math.max(0, timestamp - lastTimestamp);
+            oneMinute = decay(oneMinute, value, elapsed, ONE_MINUTE);
+            fiveMinutes = decay(fiveMinutes, value, elapsed, FIVE_MINUTES);
+            fifteenMinutes = decay(fifteenMinutes, value, elapsed, FIFTEEN_MINUTES);
+        }
+        lastTimestamp = timestamp;
+    }
+
+    private static double decay(double average, double value, long elapsed, double window) {
+        double factor = Math.exp(-elapsed / window);
+        return average * factor + value * (1 - factor);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f, %.2f, %.2f", oneMinute, fiveMinutes, fifteenMinutes);
+    }
+}
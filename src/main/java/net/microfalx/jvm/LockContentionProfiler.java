@@ -0,0 +1,164 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.LockContention;
+import net.microfalx.jvm.model.ThreadInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * A sampling lock contention profiler.
+ * <p>
+ * Each update uses a {@link ThreadSampler.Sample} (which can be shared with other collectors) for the lock
+ * information (lock, owner and the top frame) of all threads and the changes of the blocked counters since the
+ * previous update. The blocked counters of a thread are attributed to the monitor the
+ * thread is blocked on when sampled (or the last monitor it was seen blocked on), and the contention is aggregated
+ * by monitor identity and code location into a top-N "hottest monitors" report.
+ * <p>
+ * The blocked time is measured by the JVM only when thread contention monitoring is enabled, which has a small cost
+ * on every monitor enter; it is disabled by default and it can be enabled with {@link #setContentionMonitoring(boolean)}.
+ */
+public final class LockContentionProfiler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockContentionProfiler.class);
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private final ThreadMXBean threadMXBean;
+    private final ThreadSampler threadSampler;
+    private final int size;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private int generation;
+
+    public LockContentionProfiler() {
+        this(ManagementFactory.getThreadMXBean(), DEFAULT_SIZE);
+    }
+
+    LockContentionProfiler(ThreadMXBean threadMXBean, int size) {
+        requireNonNull(threadMXBean);
+        if (size <= 0) throw new IllegalArgumentException("The size of the report must be positive");
+        this.threadMXBean = threadMXBean;
+        this.threadSampler = new ThreadSampler(threadMXBean);
+        this.size = size;
+    }
+
+    /**
+     * Returns whether the JVM measures the time threads are blocked on monitors.
+     *
+     * @return {@code true} if enabled, {@code false} otherwise
+     */
+    public boolean isContentionMonitoring() {
+        return threadMXBean.isThreadContentionMonitoringSupported() && threadMXBean.isThreadContentionMonitoringEnabled();
+    }
+
+    /**
+     * Enables or disables the measurement of the time threads are blocked on monitors.
+     *
+     * @param enabled {@code true} to enable, {@code false} to disable
+     * @return self
+     */
+    public LockContentionProfiler setContentionMonitoring(boolean enabled) {
+        if (threadMXBean.isThreadContentionMonitoringSupported()) {
+            threadMXBean.setThreadContentionMonitoringEnabled(enabled);
+        } else {
+            LOGGER.warn("Thread contention monitoring is not supported by this JVM");
+        }
+        return this;
+    }
+
+    /**
+     * Samples the threads and updates the blocked/waited counters and the hottest monitors of a thread summary.
+     * <p>
+     * The counters are the values for the interval since the previous update.
+     *
+     * @param threadInformation the thread summary
+     */
+    public void update(ThreadInformation threadInformation) {
+        update(threadInformation, threadSampler.sample());
+    }
+
+    /**
+     * Updates the blocked/waited counters and the hottest monitors of a thread summary based on a sample.
+     * <p>
+     * The sample is expected to come from the same sampler on every call, so the counters cover the interval
+     * since the previous update.
+     *
+     * @param threadInformation the thread summary
+     * @param sample            the threads
+     */
+    public synchronized void update(ThreadInformation threadInformation, ThreadSampler.Sample sample) {
+        requireNonNull(threadInformation);
+        requireNonNull(sample);
+        generation++;
+        Map<String, LockContention> contentions = new HashMap<>();
+        Map<String, Integer> waiters = new HashMap<>();
+        long blockedTime = 0;
+        long blockedCount = 0;
+        long waitedTime = 0;
+        long waitedCount = 0;
+        for (int i = 0; i < sample.size(); i++) {
+            ThreadInfo threadInfo = sample.getThreadInfo(i);
+            Entry entry = entries.computeIfAbsent(threadInfo.getThreadId(), id -> new Entry());
+            long blockedTimeDelta = sample.getBlockedTime(i);
+            long blockedCountDelta = sample.getBlockedCount(i);
+            blockedTime += blockedTimeDelta;
+            blockedCount += blockedCountDelta;
+            waitedTime += sample.getWaitedTime(i);
+            waitedCount += sample.getWaitedCount(i);
+            entry.generation = generation;
+            boolean blocked = threadInfo.getThreadState() == Thread.State.BLOCKED && threadInfo.getLockInfo() != null;
+            if (blocked) {
+                entry.lockInfo = threadInfo.getLockInfo();
+                entry.frame = getFrame(threadInfo);
+            }
+            if (entry.lockInfo == null || (!blocked && blockedCountDelta == 0 && blockedTimeDelta == 0)) continue;
+            String key = entry.lockInfo.toString() + "|" + entry.frame;
+            LockContention contention = contentions.computeIfAbsent(key,
+                    k -> new LockContention(entry.lockInfo.toString(), entry.lockInfo.getClassName(), entry.frame));
+            contention.setBlockedCount(contention.getBlockedCount() + blockedCountDelta);
+            contention.setBlockedTime(contention.getBlockedTime() + blockedTimeDelta);
+            if (blocked) {
+                contention.setSamples(contention.getSamples() + 1);
+                if (threadInfo.getLockOwnerName() != null) contention.setOwnerName(threadInfo.getLockOwnerName());
+                waiters.merge(contention.getLockName(), 1, Integer::sum);
+            }
+        }
+        entries.values().removeIf(entry -> entry.generation != generation);
+        for (LockContention contention : contentions.values()) {
+            contention.setMaximumWaiters(waiters.getOrDefault(contention.getLockName(), 0));
+        }
+        threadInformation.setBlockedTime(blockedTime);
+        threadInformation.setBlockedCount(blockedCount);
+        threadInformation.setWaitedTime(waitedTime);
+        threadInformation.setWaitedCount(waitedCount);
+        threadInformation.setContentions(getTop(contentions.values()));
+    }
+
+    private Collection<LockContention> getTop(Collection<LockContention> contentions) {
+        List<LockContention> top = new ArrayList<>(contentions);
+        top.sort(Comparator.comparingLong(LockContention::getBlockedTime)
+                .thenComparingInt(LockContention::getSamples)
+                .thenComparingLong(LockContention::getBlockedCount).reversed());
+        return top.size() > size ? new ArrayList<>(top.subList(0, size)) : top;
+    }
+
+    private static String getFrame(ThreadInfo threadInfo) {
+        StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+        return stackTrace.length > 0 ? stackTrace[0].toString() : "Unknown";
+    }
+
+    private static final class Entry {
+
+        private int generation;
+        private LockInfo lockInfo;
+        private String frame;
+    }
+}
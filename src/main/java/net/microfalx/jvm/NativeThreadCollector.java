@@ -0,0 +1,289 @@
+package net.microfalx.jvm;
+
+import com.esotericsoftware.kryo.util.IntMap;
+import net.microfalx.jvm.model.NativeThreadGroup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects scheduler statistics for the native threads of the current process from
+ * <code>/proc/self/task/[tid]/schedstat</code> (time on CPU, time waiting on the run-queue and timeslices) and
+ * the user and system CPU times from <code>/proc/self/task/[tid]/stat</code>.
+ * <p>
+ * Threads are grouped by their normalized native name (<code>/proc/self/task/[tid]/comm</code>). A thread whose
+ * name matches a Java thread (the kernel keeps only the first 15 characters) is considered an application thread,
+ * anything else (GC, compiler, VM threads) is considered internal to the JVM. Each group is also assigned a
+ * {@link NativeThreadGroup.Category category} based on the well known names of the HotSpot threads, which allows
+ * the CPU consumed by concurrent GC and JIT compiler threads to be separated from the application.
+ * <p>
+ * The collector keeps the counters of each thread (keyed by thread identifier) between collections to report the
+ * values for the last interval, so the same instance needs to be reused between collections. Like the
+ * {@link ProcessTable}, the files are read into a reused buffer and only numbers are parsed; the name of a thread is
+ * read when the thread is first seen and refreshed every 60 collections.
+ */
+public final class NativeThreadCollector extends AbstractCollector<Collection<NativeThreadGroup>> {
+
+    private static final int MAX_NATIVE_NAME_LENGTH = 15;
+
+    private static final String[] GC_THREAD_PREFIXES = {"GC Thread", "G1 ", "G1Conc", "G1Refine", "ZWorker", "ZDriver",
+            "ZDirector", "ZStat", "ZUnmapper", "ZUncommitter", "ZRelocate", "XWorker", "XDriver", "Shenandoah",
+            "Parallel GC", "ParGC", "CMS ", "Gang worker", "Concurrent GC"};
+    private static final String[] COMPILER_THREAD_PREFIXES = {"C1 CompilerThre", "C2 CompilerThre", "JVMCI",
+            "Sweeper thread", "Compiler"};
+    private static final String[] VM_THREAD_PREFIXES = {"VM Thread", "VM Periodic Tas", "Reference Handl", "Finalizer",
+            "Signal Dispatch", "Service Thread", "Common-Cleaner", "Attach Listener", "Notification Th",
+            "Monitor Deflati"};
+    // the main thread keeps the name of the launcher process
+    private static final String MAIN_THREAD_NAME = "main";
+    private static final String MAIN_THREAD_NATIVE_NAME = "java";
+    private static final int NAME_REFRESH_INTERVAL = 60;
+    private static final int BUFFER_SIZE = 512;
+
+    private final Path proc;
+    private final Supplier<Collection<String>> javaThreadNames;
+    private final IntMap<Entry> entries = new IntMap<>(256);
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Map<String, NativeThreadGroup> applicationGroups = new HashMap<>();
+    private final Map<String, NativeThreadGroup> internalGroups = new HashMap<>();
+
+    private int generation;
+    private long prevTime;
+
+    public NativeThreadCollector() {
+        this(PROC, NativeThreadCollector::getJavaThreadNames);
+    }
+
+    NativeThreadCollector(Path proc, Supplier<Collection<String>> javaThreadNames) {
+        requireNonNull(proc);
+        requireNonNull(javaThreadNames);
+        this.proc = proc;
+        this.javaThreadNames = javaThreadNames;
+    }
+
+    @Override
+    public Collection<NativeThreadGroup> execute() {
+        return execute(javaThreadNames.get());
+    }
+
+    /**
+     * Collects the native threads, classified based on the names of the Java threads of an existing sample.
+     *
+     * @param sample the Java threads
+     * @return a non-null instance
+     */
+    public Collection<NativeThreadGroup> execute(ThreadSampler.Sample sample) {
+        requireNonNull(sample);
+        return execute(sample.getThreadNames());
+    }
+
+    private synchronized Collection<NativeThreadGroup> execute(Collection<String> javaThreadNames) {
+        Path tasks = proc.resolve("self").resolve("task");
+        String[] tids = tasks.toFile().list();
+        if (tids == null) return Collections.emptyList();
+        Set<String> javaNames = new HashSet<>();
+        for (String name : javaThreadNames) {
+            javaNames.add(name.length() > MAX_NATIVE_NAME_LENGTH ? name.substring(0, MAX_NATIVE_NAME_LENGTH) : name);
+            if (MAIN_THREAD_NAME.equals(name)) javaNames.add(MAIN_THREAD_NATIVE_NAME);
+        }
+        long time = System.nanoTime();
+        long duration = prevTime > 0 ? time - prevTime : 0;
+        prevTime = time;
+        generation++;
+        String directory = tasks.toString() + File.separator;
+        for (String tid : tids) {
+            Entry entry = update((int) parseLong(tid, 0), directory + tid + File.separator);
+            if (entry == null) continue;
+            boolean internal = !javaNames.contains(entry.name);
+            Map<String, NativeThreadGroup> groups = internal ? internalGroups : applicationGroups;
+            NativeThreadGroup group = groups.get(entry.groupName);
+            if (group == null) {
+                group = new NativeThreadGroup(entry.groupName, internal, getCategory(entry.name, internal));
+                groups.put(entry.groupName, group);
+            }
+            group.setThreads(group.getThreads() + 1);
+            group.setCpuTime(group.getCpuTime() + entry.cpuDelta);
+            group.setWaitTime(group.getWaitTime() + entry.waitDelta);
+            group.setTimeslices(group.getTimeslices() + entry.timeslicesDelta);
+            group.setUserTime(group.getUserTime() + entry.userDelta * 1000 / CLOCK_TICKS);
+            group.setSystemTime(group.getSystemTime() + entry.systemDelta * 1000 / CLOCK_TICKS);
+        }
+        evict();
+        List<NativeThreadGroup> result = new ArrayList<>(applicationGroups.size() + internalGroups.size());
+        result.addAll(applicationGroups.values());
+        result.addAll(internalGroups.values());
+        applicationGroups.clear();
+        internalGroups.clear();
+        for (NativeThreadGroup group : result) {
+            group.setCpu(VirtualMachineUtils.getUsage(duration, group.getUserTime() + group.getSystemTime()));
+        }
+        result.sort(Comparator.comparingLong(NativeThreadGroup::getCpuTime).reversed());
+        return result;
+    }
+
+    private Entry update(int tid, String task) {
+        int length = read(task + "schedstat");
+        if (length == 0) return null;
+        long cpuTime = getField(0, length, 0);
+        long waitTime = getField(0, length, 1);
+        long timeslices = getField(0, length, 2);
+        length = read(task + "stat");
+        // the command can contain spaces, so the fields are counted after the last parenthesis, the state being
+        // the first one
+        int end = lastIndexOf((byte) ')', length);
+        if (end < 0 || end + 2 >= length) return null;
+        long userTime = getField(end + 2, length, 11);
+        long systemTime = getField(end + 2, length, 12);
+        long startTime = getField(end + 2, length, 19);
+        Entry entry = entries.get(tid);
+        if (entry == null || entry.startTime != startTime || cpuTime < entry.cpuTime) {
+            // a new thread or the identifier was reused
+            String name = readName(task);
+            if (name == null) return null;
+            entry = new Entry(name, startTime);
+            entry.nameGeneration = generation;
+            entries.put(tid, entry);
+        } else {
+            entry.cpuDelta = cpuTime - entry.cpuTime;
+            entry.waitDelta = Math.max(0, waitTime - entry.waitTime);
+            entry.timeslicesDelta = Math.max(0, timeslices - entry.timeslices);
+            entry.userDelta = Math.max(0, userTime - entry.userTime);
+            entry.systemDelta = Math.max(0, systemTime - entry.systemTime);
+            if (generation - entry.nameGeneration >= NAME_REFRESH_INTERVAL) refreshName(entry, task);
+        }
+        entry.generation = generation;
+        entry.cpuTime = cpuTime;
+        entry.waitTime = waitTime;
+        entry.timeslices = timeslices;
+        entry.userTime = userTime;
+        entry.systemTime = systemTime;
+        return entry;
+    }
+
+    private void refreshName(Entry entry, String task) {
+        // threads can change their name after they are started (usually once, when they join a pool)
+        entry.nameGeneration = generation;
+        String name = readName(task);
+        if (name == null || name.equals(entry.name)) return;
+        entry.name = name;
+        entry.groupName = VirtualMachineUtils.getThreadGroupName(name);
+    }
+
+    private String readName(String task) {
+        int length = read(task + "comm");
+        while (length > 0 && buffer[length - 1] == '\n') length--;
+        return length > 0 ? new String(buffer, 0, length, StandardCharsets.UTF_8) : null;
+    }
+
+    private int read(String path) {
+        try (FileInputStream inputStream = new FileInputStream(path)) {
+            int length = 0;
+            int count;
+            while (length < buffer.length && (count = inputStream.read(buffer, length, buffer.length - length)) > 0) {
+                length += count;
+            }
+            return length;
+        } catch (IOException e) {
+            // the thread exited in the meantime or the file is not accessible
+            return 0;
+        }
+    }
+
+    private long getField(int start, int length, int field) {
+        int index = start;
+        int current = 0;
+        while (index < length && current < field) {
+            if (buffer[index++] == ' ') current++;
+        }
+        long value = 0;
+        while (index < length && buffer[index] >= '0' && buffer[index] <= '9') {
+            value = value * 10 + (buffer[index++] - '0');
+        }
+        return value;
+    }
+
+    private int lastIndexOf(byte value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the category of a native thread.
+     *
+     * @param name     the native thread name
+     * @param internal {@code true} if the thread is not a (visible) Java thread
+     * @return a non-null instance
+     */
+    static NativeThreadGroup.Category getCategory(String name, boolean internal) {
+        if (startsWith(name, GC_THREAD_PREFIXES)) {
+            return NativeThreadGroup.Category.GC;
+        } else if (startsWith(name, COMPILER_THREAD_PREFIXES)) {
+            return NativeThreadGroup.Category.COMPILER;
+        } else if (startsWith(name, VM_THREAD_PREFIXES)) {
+            return NativeThreadGroup.Category.VM;
+        } else {
+            return internal ? NativeThreadGroup.Category.VM : NativeThreadGroup.Category.APPLICATION;
+        }
+    }
+
+    private static boolean startsWith(String name, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().generation != generation) iterator.remove();
+        }
+    }
+
+    private static Collection<String> getJavaThreadNames() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Collection<String> names = new ArrayList<>();
+        for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), 0)) {
+            if (threadInfo != null) names.add(threadInfo.getThreadName());
+        }
+        return names;
+    }
+
+    private static final class Entry {
+
+        private final long startTime;
+        private String name;
+        private String groupName;
+        private int generation;
+        private int nameGeneration;
+        private long cpuTime;
+        private long waitTime;
+        private long timeslices;
+        private long cpuDelta;
+        private long waitDelta;
+        private long timeslicesDelta;
+        private long userTime;
+        private long systemTime;
+        private long userDelta;
+        private long systemDelta;
+
+        private Entry(String name, long startTime) {
+            this.name = name;
+            this.groupName = VirtualMachineUtils.getThreadGroupName(name);
+            this.startTime = startTime;
+        }
+    }
+}
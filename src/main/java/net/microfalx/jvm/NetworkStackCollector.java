@@ -0,0 +1,138 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.NetworkStack;
+import net.microfalx.jvm.model.SocketInventory;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects TCP/UDP network stack health from <code>/proc/net/snmp</code>, <code>/proc/net/netstat</code> and
+ * <code>/proc/net/sockstat</code>.
+ * <p>
+ * The TCP sockets are counted by state from <code>/proc/net/tcp</code> and <code>/proc/net/tcp6</code>; only the
+ * state column is parsed, since the files have one line per socket.
+ * <p>
+ * The counters are reported as cumulative values and published as counters, so rates are calculated by the store.
+ */
+public final class NetworkStackCollector extends AbstractCollector<NetworkStack> {
+
+    private final Path proc;
+
+    public NetworkStackCollector() {
+        this(PROC);
+    }
+
+    NetworkStackCollector(Path proc) {
+        requireNonNull(proc);
+        this.proc = proc;
+    }
+
+    @Override
+    public NetworkStack execute() {
+        NetworkStack stack = new NetworkStack();
+        Path net = proc.resolve("net");
+        Map<String, Long> counters = parseTable(readLines(net.resolve("snmp")));
+        counters.putAll(parseTable(readLines(net.resolve("netstat"))));
+        stack.setTcpActiveOpens(counters.getOrDefault("Tcp.ActiveOpens", 0L));
+        stack.setTcpPassiveOpens(counters.getOrDefault("Tcp.PassiveOpens", 0L));
+        stack.setTcpAttemptFails(counters.getOrDefault("Tcp.AttemptFails", 0L));
+        stack.setTcpEstablishedResets(counters.getOrDefault("Tcp.EstabResets", 0L));
+        stack.setTcpOutResets(counters.getOrDefault("Tcp.OutRsts", 0L));
+        stack.setTcpInSegments(counters.getOrDefault("Tcp.InSegs", 0L));
+        stack.setTcpOutSegments(counters.getOrDefault("Tcp.OutSegs", 0L));
+        stack.setTcpRetransmits(counters.getOrDefault("Tcp.RetransSegs", 0L));
+        stack.setTcpInErrors(counters.getOrDefault("Tcp.InErrs", 0L));
+        stack.setTcpEstablished(counters.getOrDefault("Tcp.CurrEstab", 0L).intValue());
+        stack.setTcpListenOverflows(counters.getOrDefault("TcpExt.ListenOverflows", 0L));
+        stack.setTcpListenDrops(counters.getOrDefault("TcpExt.ListenDrops", 0L));
+        stack.setTcpTimeouts(counters.getOrDefault("TcpExt.TCPTimeouts", 0L));
+        stack.setUdpInDatagrams(counters.getOrDefault("Udp.InDatagrams", 0L));
+        stack.setUdpOutDatagrams(counters.getOrDefault("Udp.OutDatagrams", 0L));
+        stack.setUdpNoPorts(counters.getOrDefault("Udp.NoPorts", 0L));
+        stack.setUdpReceiveErrors(counters.getOrDefault("Udp.InErrors", 0L));
+        stack.setUdpBufferErrors(counters.getOrDefault("Udp.RcvbufErrors", 0L) + counters.getOrDefault("Udp.SndbufErrors", 0L));
+
+        Map<String, Long> sockets = parsePairs(readLines(net.resolve("sockstat")));
+        stack.setSocketsUsed(sockets.getOrDefault("sockets.used", 0L).intValue());
+        stack.setTcpInUse(sockets.getOrDefault("TCP.inuse", 0L).intValue());
+        stack.setTcpOrphan(sockets.getOrDefault("TCP.orphan", 0L).intValue());
+        stack.setTcpTimeWait(sockets.getOrDefault("TCP.tw", 0L).intValue());
+        stack.setTcpAllocated(sockets.getOrDefault("TCP.alloc", 0L).intValue());
+        stack.setUdpInUse(sockets.getOrDefault("UDP.inuse", 0L).intValue());
+
+        countStates(readLines(net.resolve("tcp")), stack.getTcpStates());
+        countStates(readLines(net.resolve("tcp6")), stack.getTcpStates());
+        return stack;
+    }
+
+    /**
+     * Parses a file where each section has a header line with the names and a line with the values
+     * (<code>/proc/net/snmp</code>, <code>/proc/net/netstat</code>).
+     *
+     * @param lines the lines
+     * @return the values, keyed by <code>section.name</code>
+     */
+    static Map<String, Long> parseTable(List<String> lines) {
+        Map<String, Long> values = new HashMap<>();
+        for (int i = 0; i + 1 < lines.size(); i += 2) {
+            String[] names = lines.get(i).trim().split("\\s+");
+            String[] numbers = lines.get(i + 1).trim().split("\\s+");
+            if (names.length != numbers.length || !names[0].equals(numbers[0])) continue;
+            String section = names[0].substring(0, names[0].length() - 1);
+            for (int j = 1; j < names.length; j++) {
+                values.put(section + "." + names[j], parseLong(numbers[j], 0));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Counts the sockets by state (<code>/proc/net/tcp</code>, <code>/proc/net/tcp6</code>).
+     *
+     * @param lines  the lines, the first one is the header
+     * @param states the counts, keyed by state
+     */
+    static void countStates(List<String> lines, Map<SocketInventory.State, Integer> states) {
+        // sl local_address rem_address st ...
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int end = 0;
+            int start = 0;
+            for (int field = 0; field < 4; field++) {
+                start = end;
+                while (start < line.length() && line.charAt(start) == ' ') start++;
+                end = start;
+                while (end < line.length() && line.charAt(end) != ' ') end++;
+            }
+            if (end - start != 2) continue;
+            int code = Character.digit(line.charAt(start), 16) * 16 + Character.digit(line.charAt(start + 1), 16);
+            SocketInventory.State state = SocketInventory.State.fromCode(code);
+            if (state != null) states.merge(state, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Parses a file where each line has a section followed by name/value pairs (<code>/proc/net/sockstat</code>).
+     *
+     * @param lines the lines
+     * @return the values, keyed by <code>section.name</code>
+     */
+    static Map<String, Long> parsePairs(List<String> lines) {
+        Map<String, Long> values = new HashMap<>();
+        for (String line : lines) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 3 || !parts[0].endsWith(":")) continue;
+            String section = parts[0].substring(0, parts[0].length() - 1);
+            for (int j = 1; j + 1 < parts.length; j += 2) {
+                values.put(section + "." + parts[j], parseLong(parts[j + 1], 0));
+            }
+        }
+        return values;
+    }
+}
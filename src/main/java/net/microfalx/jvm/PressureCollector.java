@@ -0,0 +1,122 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Pressure;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects Pressure Stall Information (PSI) for CPU, memory and I/O.
+ * <p>
+ * The same format is used by the system wide files (<code>/proc/pressure/cpu</code>) and by the cgroup v2 files
+ * (<code>cpu.pressure</code>), so the collector is created with the directory and the suffix of the files.
+ * <p>
+ * The collector keeps the previous totals to calculate the stall times for the current interval, so the same
+ * instance needs to be reused between collections.
+ */
+public final class PressureCollector extends AbstractCollector<Collection<Pressure>> {
+
+    private static final String SOME = "some";
+    private static final String FULL = "full";
+
+    private final Path directory;
+    private final String suffix;
+
+    private final Map<Pressure.Type, Pressure> prevPressures = new EnumMap<>(Pressure.Type.class);
+
+    /**
+     * Creates a collector for the system wide pressure.
+     *
+     * @return a non-null instance
+     */
+    public static PressureCollector system() {
+        return new PressureCollector(PROC.resolve("pressure"), "");
+    }
+
+    /**
+     * Creates a collector for a control group (cgroup v2).
+     *
+     * @param directory the directory of the control group
+     * @return a non-null instance
+     */
+    public static PressureCollector cgroup(Path directory) {
+        return new PressureCollector(directory, ".pressure");
+    }
+
+    PressureCollector(Path directory, String suffix) {
+        requireNonNull(directory);
+        requireNonNull(suffix);
+        this.directory = directory;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns the directory with the pressure files.
+     *
+     * @return a non-null instance
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized Collection<Pressure> execute() {
+        Collection<Pressure> pressures = new ArrayList<>();
+        for (Pressure.Type type : Pressure.Type.values()) {
+            Path file = directory.resolve(type.getFileName() + suffix);
+            if (!exists(file)) continue;
+            Pressure pressure = new Pressure(type);
+            for (String line : readLines(file)) {
+                parse(pressure, line);
+            }
+            Pressure prevPressure = prevPressures.get(type);
+            if (prevPressure != null && !isMetadata()) {
+                pressure.setSomeStallTime(Math.max(0, pressure.getSomeTotal() - prevPressure.getSomeTotal()));
+                pressure.setFullStallTime(Math.max(0, pressure.getFullTotal() - prevPressure.getFullTotal()));
+            }
+            prevPressures.put(type, pressure);
+            pressures.add(pressure);
+        }
+        return pressures;
+    }
+
+    private void parse(Pressure pressure, String line) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length == 0) return;
+        boolean some = SOME.equals(parts[0]);
+        if (!some && !FULL.equals(parts[0])) return;
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i];
+            int index = part.indexOf('=');
+            if (index == -1) continue;
+            String name = part.substring(0, index);
+            String value = part.substring(index + 1);
+            switch (name) {
+                case "avg10":
+                    if (some) pressure.setSomeAvg10((float) parseDouble(value, 0));
+                    else pressure.setFullAvg10((float) parseDouble(value, 0));
+                    break;
+                case "avg60":
+                    if (some) pressure.setSomeAvg60((float) parseDouble(value, 0));
+                    else pressure.setFullAvg60((float) parseDouble(value, 0));
+                    break;
+                case "avg300":
+                    if (some) pressure.setSomeAvg300((float) parseDouble(value, 0));
+                    else pressure.setFullAvg300((float) parseDouble(value, 0));
+                    break;
+                case "total":
+                    if (some) pressure.setSomeTotal(parseLong(value, 0));
+                    else pressure.setFullTotal(parseLong(value, 0));
+                    break;
+                default:
+                    // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Server;
+
+/**
+ * Counts processes by state, based on the content of their <code>/proc/[pid]/stat</code> file.
+ * <p>
+ * Only the state and the number of threads are parsed, directly from the bytes of the file, so counting is cheap
+ * even on hosts with tens of thousands of processes. The {@link ProcessTable} counts the processes with this parser
+ * while it reads <code>/proc</code>, so <code>/proc</code> is read only once per scrape.
+ */
+final class ProcessScanner {
+
+    private static final int RUNNING = 0;
+    private static final int SLEEPING = 1;
+    private static final int BLOCKED = 2;
+    private static final int STOPPED = 3;
+    private static final int IDLE = 4;
+    private static final int ZOMBIE = 5;
+    private static final int THREADS = 6;
+    private static final int TOTAL = 7;
+
+    private ProcessScanner() {
+    }
+
+    /**
+     * Creates the counters updated by {@link #parse(byte[], int, int[])}.
+     *
+     * @return a non-null instance
+     */
+    static int[] createCounters() {
+        return new int[TOTAL + 1];
+    }
+
+    /**
+     * Updates the process counters of a server.
+     *
+     * @param server   the server
+     * @param counters the counters
+     */
+    static void update(Server server, int[] counters) {
+        server.setProcessTotal(counters[TOTAL]);
+        server.setProcessRunning(counters[RUNNING]);
+        server.setProcessSleeping(counters[SLEEPING]);
+        server.setProcessBlocked(counters[BLOCKED]);
+        server.setProcessStopped(counters[STOPPED]);
+        server.setProcessIdle(counters[IDLE]);
+        server.setProcessZombie(counters[ZOMBIE]);
+        server.setProcessThreads(counters[THREADS]);
+    }
+
+    /**
+     * Counts a process by state, based on the content of its <code>stat</code> file.
+     *
+     * @param buffer   the content of the file
+     * @param length   the length of the content
+     * @param counters the counters
+     */
+    static void parse(byte[] buffer, int length, int[] counters) {
+        // the command can contain spaces and parenthesis, the fields start after the last ')'
+        int index = length - 1;
+        while (index >= 0 && buffer[index] != ')') index--;
+        if (index < 0 || index + 2 >= length) return;
+        index += 2;
+        int slot = getSlot((char) buffer[index]);
+        if (slot == -1) return;
+        counters[slot]++;
+        counters[TOTAL]++;
+        // num_threads is the 18th field after the command (field 20 in proc(5))
+        int field = 1;
+        while (index < length && field < 18) {
+            if (buffer[index++] == ' ') field++;
+        }
+        int threads = 0;
+        while (index < length && buffer[index] >= '0' && buffer[index] <= '9') {
+            threads = threads * 10 + (buffer[index++] - '0');
+        }
+        counters[THREADS] += threads;
+    }
+
+    private static int getSlot(char state) {
+        switch (state) {
+            case 'R':
+                return RUNNING;
+            case 'S':
+                return SLEEPING;
+            case 'D':
+                return BLOCKED;
+            case 'T':
+            case 't':
+                return STOPPED;
+            case 'I':
+                return IDLE;
+            case 'Z':
+            case 'X':
+                return ZOMBIE;
+            default:
+                return -1;
+        }
+    }
+}
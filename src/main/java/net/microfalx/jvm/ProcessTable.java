@@ -0,0 +1,274 @@
+package net.microfalx.jvm;
+
+import com.esotericsoftware.kryo.util.IntMap;
+import net.microfalx.jvm.model.Process;
+import net.microfalx.jvm.model.Server;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.ToLongFunction;
+
+import static net.microfalx.jvm.LinuxUtils.CLOCK_TICKS;
+import static net.microfalx.jvm.LinuxUtils.PROC;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * A host level process table, similar to <code>top</code>.
+ * <p>
+ * The table keeps the CPU and I/O counters of every process between scrapes (keyed by PID in a primitive map),
+ * evicts the processes which exited and extracts the top processes by CPU, resident memory and read/write bytes
+ * in the last interval. The CPU usage, CPU times and read/written bytes of the reported processes are the values
+ * for the last interval and not since the process started.
+ * <p>
+ * The table is incremental: each scrape reads <code>/proc/[pid]/stat</code> into a reused buffer and only parses
+ * numbers; the command is decoded once, when the process is first seen. The same pass counts the processes by
+ * state (see {@link ProcessScanner}), so <code>/proc</code> is read only once per scrape. The (more expensive)
+ * <code>/proc/[pid]/io</code> is read only for processes which consumed CPU since the previous scrape, since a
+ * process which was not scheduled could not have issued I/O.
+ */
+public final class ProcessTable {
+
+    private static final int DEFAULT_SIZE = 10;
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Path proc;
+    private final int size;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final IntMap<Entry> entries = new IntMap<>(512);
+
+    private int generation;
+    private long prevTime;
+
+    public ProcessTable() {
+        this(PROC, DEFAULT_SIZE);
+    }
+
+    ProcessTable(Path proc, int size) {
+        requireNonNull(proc);
+        if (size <= 0) throw new IllegalArgumentException("The size of the table must be positive");
+        this.proc = proc;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of processes tracked by the table.
+     *
+     * @return a positive integer
+     */
+    public synchronized int getCount() {
+        return entries.size;
+    }
+
+    /**
+     * Scans the processes and updates the process counters and the top processes of a server.
+     *
+     * @param server the server
+     */
+    public synchronized void update(Server server) {
+        requireNonNull(server);
+        String[] pids = proc.toFile().list();
+        if (pids == null) return;
+        long time = System.nanoTime();
+        long duration = prevTime > 0 ? time - prevTime : 0;
+        prevTime = time;
+        generation++;
+        String directory = proc.toString() + File.separatorChar;
+        int[] counters = ProcessScanner.createCounters();
+        for (String pid : pids) {
+            if (pid.isEmpty() || !Character.isDigit(pid.charAt(0))) continue;
+            update(directory + pid + File.separatorChar, (int) LinuxUtils.parseLong(pid, 0), counters);
+        }
+        evict();
+        ProcessScanner.update(server, counters);
+        server.setTopCpuProcesses(getTop(entry -> entry.userDelta + entry.systemDelta, duration));
+        server.setTopMemoryProcesses(getTop(entry -> entry.rss, duration));
+        server.setTopReadProcesses(getTop(entry -> entry.readDelta, duration));
+        server.setTopWriteProcesses(getTop(entry -> entry.writeDelta, duration));
+    }
+
+    private void update(String directory, int pid, int[] counters) {
+        int length = read(directory + "stat");
+        if (length <= 0) return;
+        ProcessScanner.parse(buffer, length, counters);
+        int start = indexOf((byte) '(', 0, length);
+        int end = lastIndexOf((byte) ')', length);
+        if (start < 0 || end < start || end + 2 >= length) return;
+        Entry entry = entries.get(pid);
+        long startTime = getField(end, length, 20);
+        if (entry == null || entry.startTime != startTime) {
+            // a new process or the PID was reused
+            entry = new Entry(pid, new String(buffer, start + 1, end - start - 1, StandardCharsets.UTF_8), startTime);
+            entries.put(pid, entry);
+        }
+        entry.generation = generation;
+        entry.state = (char) buffer[end + 2];
+        long userTime = getField(end, length, 12);
+        long systemTime = getField(end, length, 13);
+        entry.rss = getField(end, length, 22) * LinuxUtils.getPageSize();
+        boolean first = entry.userTime < 0;
+        entry.userDelta = first ? 0 : Math.max(0, userTime - entry.userTime);
+        entry.systemDelta = first ? 0 : Math.max(0, systemTime - entry.systemTime);
+        entry.userTime = userTime;
+        entry.systemTime = systemTime;
+        boolean scheduled = first || entry.userDelta + entry.systemDelta > 0;
+        if (scheduled) {
+            updateIo(directory, entry);
+        } else {
+            entry.readDelta = 0;
+            entry.writeDelta = 0;
+        }
+    }
+
+    private void updateIo(String directory, Entry entry) {
+        int length = read(directory + "io");
+        if (length <= 0) return;
+        long readBytes = getKeyValue("read_bytes:", length);
+        long writeBytes = getKeyValue("write_bytes:", length);
+        entry.readDelta = entry.readBytes >= 0 ? Math.max(0, readBytes - entry.readBytes) : 0;
+        entry.writeDelta = entry.writeBytes >= 0 ? Math.max(0, writeBytes - entry.writeBytes) : 0;
+        entry.readBytes = readBytes;
+        entry.writeBytes = writeBytes;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().generation != generation) iterator.remove();
+        }
+    }
+
+    private Collection<Process> getTop(ToLongFunction<Entry> value, long duration) {
+        Entry[] top = new Entry[size];
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            long current = value.applyAsLong(entry);
+            if (current <= 0 || (count == size && current <= value.applyAsLong(top[count - 1]))) continue;
+            int index = count < size ? count++ : count - 1;
+            while (index > 0 && value.applyAsLong(top[index - 1]) < current) {
+                top[index] = top[index - 1];
+                index--;
+            }
+            top[index] = entry;
+        }
+        Collection<Process> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            processes.add(top[i].toProcess(duration));
+        }
+        return processes;
+    }
+
+    private int read(String path) {
+        try (FileInputStream inputStream = new FileInputStream(path)) {
+            int length = 0;
+            int count;
+            while (length < buffer.length && (count = inputStream.read(buffer, length, buffer.length - length)) > 0) {
+                length += count;
+            }
+            return length;
+        } catch (IOException e) {
+            // the process exited in the meantime or the file is not accessible
+            return 0;
+        }
+    }
+
+    private long getField(int end, int length, int field) {
+        // fields are counted after the command, the state being the first one
+        int index = end + 2;
+        int current = 1;
+        while (index < length && current < field) {
+            if (buffer[index++] == ' ') current++;
+        }
+        return parseNumber(index, length);
+    }
+
+    private long getKeyValue(String key, int length) {
+        int index = 0;
+        while (index < length) {
+            if (matches(key, index, length)) return parseNumber(skipSpaces(index + key.length(), length), length);
+            while (index < length && buffer[index] != '\n') index++;
+            index++;
+        }
+        return 0;
+    }
+
+    private boolean matches(String key, int index, int length) {
+        if (index + key.length() > length) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (buffer[index + i] != key.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int skipSpaces(int index, int length) {
+        while (index < length && buffer[index] == ' ') index++;
+        return index;
+    }
+
+    private long parseNumber(int index, int length) {
+        long value = 0;
+        while (index < length && buffer[index] >= '0' && buffer[index] <= '9') {
+            value = value * 10 + (buffer[index++] - '0');
+        }
+        return value;
+    }
+
+    private int indexOf(byte value, int start, int length) {
+        for (int i = start; i < length; i++) {
+            if (buffer[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(byte value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private static final class Entry {
+
+        private final int pid;
+        private final String name;
+        private final long startTime;
+
+        private int generation;
+        private char state;
+        private long rss;
+        private long userTime = -1;
+        private long systemTime = -1;
+        private long readBytes = -1;
+        private long writeBytes = -1;
+        private long userDelta;
+        private long systemDelta;
+        private long readDelta;
+        private long writeDelta;
+
+        private Entry(int pid, String name, long startTime) {
+            this.pid = pid;
+            this.name = name;
+            this.startTime = startTime;
+        }
+
+        private Process toProcess(long duration) {
+            Process process = new Process();
+            process.setPid(pid);
+            process.setName(name);
+            process.setState(String.valueOf(state));
+            process.setCpuUserTime(userDelta * 1000 / CLOCK_TICKS);
+            process.setCpuSystemTime(systemDelta * 1000 / CLOCK_TICKS);
+            process.setCpuUser(VirtualMachineUtils.getUsage(duration, process.getCpuUserTime()));
+            process.setCpuSystem(VirtualMachineUtils.getUsage(duration, process.getCpuSystemTime()));
+            process.setMemoryResident(rss);
+            process.setBytesRead(readDelta);
+            process.setBytesWritten(writeDelta);
+            return process;
+        }
+    }
+}
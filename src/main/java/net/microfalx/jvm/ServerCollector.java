@@ -7,26 +7,38 @@ import net.microfalx.lang.JvmUtils;
 import net.microfalx.metrics.Timer;
 import oshi.SystemInfo;
 import oshi.hardware.*;
-import oshi.software.os.OSFileStore;
 import oshi.software.os.OperatingSystem;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static net.microfalx.lang.StringUtils.toIdentifier;
 
 /**
- * Collects information about a Java VM (process).
+ * Collects information about the server (operating system) running the current process.
+ * <p>
+ * The values reported for the last interval (CPU, disks, processes, cgroup, pressure) are calculated against the
+ * previous collection of the same instance, so the same instance needs to be reused between collections; separate
+ * instances (the metrics scraper, {@link Server#get()}) do not affect each other.
  */
 public final class ServerCollector extends AbstractCollector<Server> {
 
     private VirtualMachineMBeanServer machineMBeanServer;
     private final SystemInfo systemInfo = new SystemInfo();
 
-    private static volatile long[][] prevTicks;
-    private static volatile long prevTime;
+    // neither keeps interval state; the file system collector is shared so a hung mount holds at most one thread
+    private static final FileSystemCollector fileSystemCollector = new FileSystemCollector();
+    private static final NetworkStackCollector networkStackCollector = new NetworkStackCollector();
+
+    private final CGroupCollector cgroupCollector = new CGroupCollector();
+    private final PressureCollector pressureCollector = PressureCollector.system();
+    private final ProcessTable processTable = new ProcessTable();
+    private final DiskStatsCollector diskStatsCollector = new DiskStatsCollector();
+
+    private volatile long[][] prevTicks;
+    private volatile long prevTime;
 
     @Override
     public Server execute() {
@@ -35,9 +47,13 @@ public final class ServerCollector extends AbstractCollector<Server> {
             server.setHostName(JvmUtils.getLocalHost().getCanonicalHostName());
             server.setId(toIdentifier(server.getHostName()));
             extractCpu(server);
+            extractCGroup(server);
+            extractPressure(server);
             extractMemory(server);
             extractNetwork(server);
             extractDisk(server);
+            extractBlockDevices(server);
+            extractProcesses(server);
             collectOs(server);
             extractMisc(server);
             return server;
@@ -45,9 +61,17 @@ public final class ServerCollector extends AbstractCollector<Server> {
     }
 
     private void extractMemory(Server server) {
+        if (LinuxUtils.isLinux()) {
+            List<String> memInfo = LinuxUtils.readLines(LinuxUtils.PROC.resolve("meminfo"));
+            if (!memInfo.isEmpty()) {
+                extractMemory(server, memInfo, LinuxUtils.readLines(LinuxUtils.PROC.resolve("vmstat")));
+                return;
+            }
+        }
         GlobalMemory memory = systemInfo.getHardware().getMemory();
         server.setMemoryTotal(memory.getTotal());
         server.setMemoryUsed(memory.getTotal() - memory.getAvailable());
+        server.setMemoryUsedWithCache(server.getMemoryUsed());
         server.setMemoryActuallyUsed(server.getMemoryUsed());
         VirtualMemory virtualMemory = memory.getVirtualMemory();
         server.setSwapTotal(virtualMemory.getSwapTotal());
@@ -56,6 +80,68 @@ public final class ServerCollector extends AbstractCollector<Server> {
         server.setSwapPageOut(virtualMemory.getSwapPagesOut());
     }
 
+    /**
+     * Extracts memory information from <code>/proc/meminfo</code> and <code>/proc/vmstat</code>.
+     * <p>
+     * The used memory is the memory which is not available (the same as on other platforms), the used memory with
+     * cache also includes the page cache and buffers, while the actually used memory excludes the memory which can be
+     * reclaimed by the kernel (page cache, buffers and reclaimable slab), similar to <code>free</code>.
+     *
+     * @param server  the server
+     * @param memInfo the lines of <code>/proc/meminfo</code>
+     * @param vmStat  the lines of <code>/proc/vmstat</code>
+     */
+    static void extractMemory(Server server, List<String> memInfo, List<String> vmStat) {
+        Map<String, Long> memory = LinuxUtils.parseKeyValues(memInfo);
+        long total = memory.getOrDefault("MemTotal", 0L);
+        long free = memory.getOrDefault("MemFree", 0L);
+        long buffers = memory.getOrDefault("Buffers", 0L);
+        long cached = memory.getOrDefault("Cached", 0L);
+        long slabReclaimable = memory.getOrDefault("SReclaimable", 0L);
+        server.setMemoryTotal(total);
+        server.setMemoryFree(free);
+        server.setMemoryAvailable(memory.getOrDefault("MemAvailable", free + buffers + cached));
+        server.setMemoryUsed(Math.max(0, total - server.getMemoryAvailable()));
+        server.setMemoryUsedWithCache(total - free);
+        server.setMemoryActuallyUsed(Math.max(0, total - free - buffers - cached - slabReclaimable));
+        server.setMemoryUsedPct(total == 0 ? 0 : 100 * (float) server.getMemoryActuallyUsed() / total);
+        server.setMemoryCached(cached);
+        server.setMemoryBuffers(buffers);
+        server.setMemoryShared(memory.getOrDefault("Shmem", 0L));
+        server.setMemoryDirty(memory.getOrDefault("Dirty", 0L));
+        server.setMemoryWriteback(memory.getOrDefault("Writeback", 0L));
+        server.setMemorySlabReclaimable(slabReclaimable);
+        long swapTotal = memory.getOrDefault("SwapTotal", 0L);
+        server.setSwapTotal(swapTotal);
+        server.setSwapUsed(swapTotal - memory.getOrDefault("SwapFree", 0L));
+        server.setSwapUsedPct(swapTotal == 0 ? 0 : 100 * (float) server.getSwapUsed() / swapTotal);
+
+        long pageScans = 0;
+        long pageSteals = 0;
+        Map<String, Long> stats = LinuxUtils.parseKeyValues(vmStat);
+        for (Map.Entry<String, Long> entry : stats.entrySet()) {
+            String name = entry.getKey();
+            // newer kernels also have pgscan_anon/pgscan_file, which duplicate the totals
+            if (isReclaimCounter(name, "pgscan_")) {
+                pageScans += entry.getValue();
+            } else if (isReclaimCounter(name, "pgsteal_")) {
+                pageSteals += entry.getValue();
+            }
+        }
+        server.setPageScans(pageScans);
+        server.setPageSteals(pageSteals);
+        server.setPageMajorFaults(stats.getOrDefault("pgmajfault", 0L));
+        server.setSwapPageIn(stats.getOrDefault("pswpin", 0L));
+        server.setSwapPageOut(stats.getOrDefault("pswpout", 0L));
+    }
+
+    private static boolean isReclaimCounter(String name, String prefix) {
+        if (!name.startsWith(prefix)) return false;
+        String source = name.substring(prefix.length());
+        return (source.startsWith("kswapd") || source.startsWith("direct") || source.startsWith("khugepaged"))
+               && !source.equals("direct_throttle");
+    }
+
     private void extractDisk(Server server) {
         long reads = 0;
         long readBytes = 0;
@@ -74,22 +160,19 @@ public final class ServerCollector extends AbstractCollector<Server> {
         server.setIoWrites(writes);
         server.setIoWriteBytes(writeBytes);
 
-        Collection<FileSystem> fileSystemInformations = new ArrayList<>();
-        oshi.software.os.FileSystem fileSystem = systemInfo.getOperatingSystem().getFileSystem();
-        List<OSFileStore> fileStores = fileSystem.getFileStores();
+        Collection<FileSystem> fileSystems = fileSystemCollector.execute();
         long diskTotal = 0;
         long diskUsed = 0;
         long totalNodes = 0;
         long freeNodes = 0;
-        for (OSFileStore fileStore : fileStores) {
-            diskTotal += fileStore.getTotalSpace();
-            diskUsed += fileStore.getTotalSpace() - fileStore.getUsableSpace();
-            totalNodes += fileStore.getTotalInodes();
-            freeNodes += fileStore.getFreeInodes();
-            fileSystemInformations.add(create(fileStore));
+        for (FileSystem fileSystem : fileSystems) {
+            diskTotal += fileSystem.getTotalSpace();
+            diskUsed += fileSystem.getTotalSpace() - fileSystem.getUsableSpace();
+            totalNodes += fileSystem.getTotalInodes();
+            freeNodes += fileSystem.getFreeInodes();
         }
-        server.setFileSystems(fileSystemInformations.stream()
-                .filter(net.microfalx.jvm.model.FileSystem::isDisk)
+        server.setFileSystems(fileSystems.stream()
+                .filter(FileSystem::isDisk)
                 .collect(Collectors.toList()));
         server.setDiskInodeCount(totalNodes);
         server.setDiskInodeCountUsed(totalNodes - freeNodes);
@@ -97,19 +180,10 @@ public final class ServerCollector extends AbstractCollector<Server> {
         server.setDiskUsed(diskUsed);
     }
 
-    private net.microfalx.jvm.model.FileSystem create(OSFileStore fileStore) {
-        net.microfalx.jvm.model.FileSystem disk = new net.microfalx.jvm.model.FileSystem();
-        disk.setId(fileStore.getUUID());
-        disk.setName(fileStore.getName());
-        disk.setDescription(fileStore.getDescription());
-        disk.setMount(fileStore.getMount());
-        disk.setType(net.microfalx.jvm.model.FileSystem.Type.fromString(fileStore.getType()));
-        disk.setTotalSpace(fileStore.getTotalSpace());
-        disk.setFreeSpace(fileStore.getFreeSpace());
-        disk.setUsableSpace(fileStore.getUsableSpace());
-        disk.setTotalInodes(fileStore.getTotalInodes());
-        disk.setFreeInodes(fileStore.getFreeInodes());
-        return disk;
+    private void extractBlockDevices(Server server) {
+        if (!LinuxUtils.isLinux()) return;
+        diskStatsCollector.setMetadata(isMetadata());
+        server.setBlockDevices(diskStatsCollector.execute());
     }
 
     private void extractNetwork(Server server) {
@@ -123,6 +197,12 @@ public final class ServerCollector extends AbstractCollector<Server> {
         }
         server.setNetworkReadBytes(readBytes);
         server.setNetworkWriteBytes(writeBytes);
+        if (LinuxUtils.isLinux()) server.setNetworkStack(networkStackCollector.execute());
+    }
+
+    private void extractProcesses(Server server) {
+        if (isMetadata() || !LinuxUtils.isLinux()) return;
+        processTable.update(server);
     }
 
     private void extractMisc(Server server) {
@@ -173,6 +253,18 @@ public final class ServerCollector extends AbstractCollector<Server> {
         prevTicks = ticks;
     }
 
+    private void extractCGroup(Server server) {
+        if (!LinuxUtils.isLinux()) return;
+        cgroupCollector.setMetadata(isMetadata());
+        server.setCgroup(cgroupCollector.execute());
+    }
+
+    private void extractPressure(Server server) {
+        if (!LinuxUtils.isLinux()) return;
+        pressureCollector.setMetadata(isMetadata());
+        server.setPressures(pressureCollector.execute());
+    }
+
     private float getTick(CentralProcessor.TickType type, long duration, long[][] ticks, long[][] prevTicks) {
         float percent = 0;
         for (int core = 0; core < prevTicks.length; core++) {
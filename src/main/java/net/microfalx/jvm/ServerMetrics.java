@@ -1,11 +1,24 @@
 package net.microfalx.jvm;
 
+import lombok.Getter;
+import net.microfalx.jvm.model.BlockDevice;
+import net.microfalx.jvm.model.CGroup;
+import net.microfalx.jvm.model.ExhaustionForecast;
+import net.microfalx.jvm.model.FileSystem;
+import net.microfalx.jvm.model.NetworkStack;
+import net.microfalx.jvm.model.Pressure;
 import net.microfalx.jvm.model.Server;
+import net.microfalx.jvm.model.SocketInventory;
+import net.microfalx.jvm.model.Statistics;
+import net.microfalx.lang.StringUtils;
 import net.microfalx.metrics.Batch;
 import net.microfalx.metrics.Metric;
 
-import java.util.DoubleSummaryStatistics;
-import java.util.LongSummaryStatistics;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A singleton class which collects JVM metrics and stores them in the store.
@@ -15,9 +28,10 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
     private static final ServerMetrics instance = new ServerMetrics();
     private final ServerCollector collector = new ServerCollector();
 
-    private final DoubleSummaryStatistics cpuStatistics = new DoubleSummaryStatistics();
-    private final DoubleSummaryStatistics loadStatistics = new DoubleSummaryStatistics();
-    private final LongSummaryStatistics memoryStatistics = new LongSummaryStatistics();
+    private final WindowedStatistics cpuStatistics = new WindowedStatistics();
+    private final WindowedStatistics loadStatistics = new WindowedStatistics();
+    private final WindowedStatistics memoryStatistics = new WindowedStatistics();
+    private final Map<String, ExhaustionEstimator> fileSystemEstimators = new ConcurrentHashMap<>();
 
     private volatile Server last;
 
@@ -41,30 +55,79 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
     }
 
     /**
-     * Returns the average used CPU since process startup.
+     * Returns the average used CPU during the last hour.
      *
      * @return the CPU, between 0 and 100
      */
     public float getAverageCpu() {
-        return (float) cpuStatistics.getAverage();
+        return (float) cpuStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
     }
 
     /**
-     * Returns the average system load since the process startup.
+     * Returns statistics about the used CPU during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getCpuStatistics(WindowedStatistics.Window window) {
+        return cpuStatistics.getStatistics(window);
+    }
+
+    /**
+     * Returns the average system load during the last hour.
      *
      * @return the load
      */
     public double getAverageLoad() {
-        return loadStatistics.getAverage();
+        return loadStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
     }
 
     /**
-     * Returns the average memory usage.
+     * Returns statistics about the system load during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getLoadStatistics(WindowedStatistics.Window window) {
+        return loadStatistics.getStatistics(window);
+    }
+
+    /**
+     * Returns the average memory usage during the last hour.
      *
      * @return a positive integer
      */
     public long getAverageMemory() {
-        return (long) memoryStatistics.getAverage();
+        return (long) memoryStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
+    }
+
+    /**
+     * Returns statistics about the memory usage (actually used) during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getMemoryStatistics(WindowedStatistics.Window window) {
+        return memoryStatistics.getStatistics(window);
+    }
+
+    /**
+     * Returns the prediction of when a file system runs out of space.
+     *
+     * @param mount the mount point of the file system
+     * @return a non-null instance
+     */
+    public ExhaustionForecast getFileSystemExhaustion(String mount) {
+        ExhaustionEstimator estimator = fileSystemEstimators.get(mount);
+        if (estimator == null) return new ExhaustionForecast();
+        long totalSpace = 0;
+        Collection<FileSystem> fileSystems = getLast().getFileSystems();
+        if (fileSystems != null) {
+            for (FileSystem fileSystem : fileSystems) {
+                if (fileSystem.getMount().equals(mount)) totalSpace = fileSystem.getTotalSpace();
+            }
+        }
+        return estimator.forecast(totalSpace);
     }
 
     @Override
@@ -78,8 +141,14 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
         collectMemory(server, batch);
         collectCpu(server, batch);
         collectLoad(server, batch);
+        collectCGroup(server, batch);
+        collectPressure(server, batch);
         collectIo(server, batch);
+        collectBlockDevices(server, batch);
+        collectNetwork(server, batch);
+        collectProcesses(server, batch);
         collectMisc(server, batch);
+        collectFileSystems(server, batch);
         updateStatistics(server);
         this.last = server;
     }
@@ -87,7 +156,17 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
     static void collectMemory(Server server, Batch batch) {
         batch.add(MEMORY_MAX, server.getMemoryTotal());
         batch.add(MEMORY_USED, server.getMemoryUsed());
+        batch.add(MEMORY_USED_WITH_CACHE, server.getMemoryUsedWithCache());
         batch.add(MEMORY_ACTUALLY_USED, server.getMemoryActuallyUsed());
+        batch.add(MEMORY_AVAILABLE, server.getMemoryAvailable());
+        batch.add(MEMORY_CACHED, server.getMemoryCached());
+        batch.add(MEMORY_BUFFERS, server.getMemoryBuffers());
+        batch.add(MEMORY_DIRTY, server.getMemoryDirty());
+        batch.add(MEMORY_WRITEBACK, server.getMemoryWriteback());
+        batch.add(MEMORY_SLAB_RECLAIMABLE, server.getMemorySlabReclaimable());
+        batch.add(PAGE_SCANS, server.getPageScans());
+        batch.add(PAGE_STEALS, server.getPageSteals());
+        batch.add(PAGE_MAJOR_FAULTS, server.getPageMajorFaults());
     }
 
     static void collectCpu(Server server, Batch batch) {
@@ -104,6 +183,56 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
         batch.add(LOAD_15, server.getLoad15());
     }
 
+    static void collectCGroup(Server server, Batch batch) {
+        CGroup cgroup = server.getCgroup();
+        if (cgroup == null || cgroup.getVersion() == 0) return;
+        batch.add(CGROUP_CPU_LIMIT, cgroup.getCpuLimit());
+        batch.add(CGROUP_CPU_USAGE, cgroup.getCpuUsage());
+        batch.add(CGROUP_CPU_THROTTLED, cgroup.getCpuThrottled());
+        batch.add(CGROUP_CPU_THROTTLED_PERIODS, cgroup.getThrottledPeriods());
+        batch.add(CGROUP_CPU_THROTTLED_TIME, cgroup.getThrottledTime());
+        for (Pressure pressure : cgroup.getPressures()) {
+            collectPressure(pressure, getCGroupPressureMetrics(pressure.getType()), batch);
+        }
+    }
+
+    static void collectPressure(Server server, Batch batch) {
+        for (Pressure pressure : server.getPressures()) {
+            collectPressure(pressure, getPressureMetrics(pressure.getType()), batch);
+        }
+    }
+
+    private static void collectPressure(Pressure pressure, PressureMetrics metrics, Batch batch) {
+        batch.add(metrics.getSomeAvg10(), pressure.getSomeAvg10());
+        batch.add(metrics.getSomeAvg60(), pressure.getSomeAvg60());
+        batch.add(metrics.getSomeTotal(), pressure.getSomeTotal());
+        batch.add(metrics.getFullAvg10(), pressure.getFullAvg10());
+        batch.add(metrics.getFullAvg60(), pressure.getFullAvg60());
+        batch.add(metrics.getFullTotal(), pressure.getFullTotal());
+    }
+
+    private static PressureMetrics getPressureMetrics(Pressure.Type type) {
+        switch (type) {
+            case CPU:
+                return PRESSURE_CPU;
+            case MEMORY:
+                return PRESSURE_MEMORY;
+            default:
+                return PRESSURE_IO;
+        }
+    }
+
+    private static PressureMetrics getCGroupPressureMetrics(Pressure.Type type) {
+        switch (type) {
+            case CPU:
+                return CGROUP_PRESSURE_CPU;
+            case MEMORY:
+                return CGROUP_PRESSURE_MEMORY;
+            default:
+                return CGROUP_PRESSURE_IO;
+        }
+    }
+
     static void collectIo(Server server, Batch batch) {
         batch.add(IO_READS, server.getIoReads());
         batch.add(IO_READ_BYTES, server.getIoReadBytes());
@@ -111,23 +240,110 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
         batch.add(IO_WRITE_BYTES, server.getIoWriteBytes());
     }
 
+    static void collectBlockDevices(Server server, Batch batch) {
+        Set<String> names = new HashSet<>();
+        for (BlockDevice device : server.getBlockDevices()) {
+            names.add(device.getName());
+            DiskMetrics metrics = diskMetrics.computeIfAbsent(device.getName(), DiskMetrics::new);
+            batch.add(metrics.getUtilization(), device.getUtilization());
+            batch.add(metrics.getQueueDepth(), device.getQueueDepth());
+            batch.add(metrics.getReadLatency(), device.getReadLatency());
+            batch.add(metrics.getWriteLatency(), device.getWriteLatency());
+            batch.add(metrics.getReadBytes(), device.getReadBytes());
+            batch.add(metrics.getWriteBytes(), device.getWriteBytes());
+        }
+        // devices come and go (hot-plug, container volumes), their metrics are created again if they return
+        diskMetrics.keySet().retainAll(names);
+    }
+
+    static void collectNetwork(Server server, Batch batch) {
+        NetworkStack stack = server.getNetworkStack();
+        if (stack == null) return;
+        batch.add(TCP_ACTIVE_OPENS, stack.getTcpActiveOpens());
+        batch.add(TCP_PASSIVE_OPENS, stack.getTcpPassiveOpens());
+        batch.add(TCP_RESETS, stack.getTcpEstablishedResets() + stack.getTcpOutResets());
+        batch.add(TCP_RETRANSMITS, stack.getTcpRetransmits());
+        batch.add(TCP_IN_ERRORS, stack.getTcpInErrors());
+        batch.add(TCP_LISTEN_OVERFLOWS, stack.getTcpListenOverflows());
+        batch.add(TCP_LISTEN_DROPS, stack.getTcpListenDrops());
+        batch.add(UDP_RECEIVE_ERRORS, stack.getUdpReceiveErrors());
+        batch.add(UDP_BUFFER_ERRORS, stack.getUdpBufferErrors());
+        batch.add(TCP_ESTABLISHED, stack.getTcpEstablished());
+        batch.add(TCP_TIME_WAIT, stack.getTcpTimeWait());
+        batch.add(TCP_ORPHAN, stack.getTcpOrphan());
+        batch.add(TCP_IN_USE, stack.getTcpInUse());
+        batch.add(UDP_IN_USE, stack.getUdpInUse());
+        batch.add(TCP_LISTEN, stack.getTcpCount(SocketInventory.State.LISTEN));
+        batch.add(TCP_SYN_SENT, stack.getTcpCount(SocketInventory.State.SYN_SENT));
+        batch.add(TCP_SYN_RECEIVED, stack.getTcpCount(SocketInventory.State.SYN_RECV) + stack.getTcpCount(SocketInventory.State.NEW_SYN_RECV));
+        batch.add(TCP_CLOSE_WAIT, stack.getTcpCount(SocketInventory.State.CLOSE_WAIT));
+        batch.add(TCP_FIN_WAIT, stack.getTcpCount(SocketInventory.State.FIN_WAIT1) + stack.getTcpCount(SocketInventory.State.FIN_WAIT2));
+        batch.add(TCP_LAST_ACK, stack.getTcpCount(SocketInventory.State.LAST_ACK));
+    }
+
+    static void collectProcesses(Server server, Batch batch) {
+        batch.add(PROCESS_TOTAL, server.getProcessTotal());
+        batch.add(PROCESS_RUNNING, server.getProcessRunning());
+        batch.add(PROCESS_SLEEPING, server.getProcessSleeping());
+        batch.add(PROCESS_BLOCKED, server.getProcessBlocked());
+        batch.add(PROCESS_STOPPED, server.getProcessStopped());
+        batch.add(PROCESS_IDLE, server.getProcessIdle());
+        batch.add(PROCESS_ZOMBIE, server.getProcessZombie());
+        batch.add(PROCESS_THREADS, server.getProcessThreads());
+    }
+
     static void collectMisc(Server server, Batch batch) {
         batch.add(INTERRUPTS, server.getInterrupts());
         batch.add(CONTEXT_SWITCHES, server.getContextSwitches());
     }
 
+    private void collectFileSystems(Server server, Batch batch) {
+        if (server.getFileSystems() == null) return;
+        Set<String> mounts = new HashSet<>();
+        for (FileSystem fileSystem : server.getFileSystems()) {
+            // only disks are tracked, temporary and virtual file systems are not expected to fill up over time
+            if (!fileSystem.isDisk() || fileSystem.getTotalSpace() <= 0) continue;
+            mounts.add(fileSystem.getMount());
+            ExhaustionEstimator estimator = fileSystemEstimators.computeIfAbsent(fileSystem.getMount(), k -> new ExhaustionEstimator());
+            // a stale file system repeats the last known values, which would flatten the trend
+            if (!fileSystem.isStale()) {
+                estimator.update(fileSystem.getTimestamp(), fileSystem.getTotalSpace() - fileSystem.getUsableSpace());
+            }
+            FileSystemMetrics metrics = fileSystemMetrics.computeIfAbsent(fileSystem.getMount(), FileSystemMetrics::new);
+            batch.add(metrics.getUsed(), fileSystem.getUsedPercent());
+            ExhaustionForecast forecast = estimator.forecast(fileSystem.getTotalSpace());
+            if (forecast.isExhausting()) batch.add(metrics.getExhaustion(), forecast.getTimeToExhaustion());
+        }
+        fileSystemEstimators.keySet().retainAll(mounts);
+        fileSystemMetrics.keySet().retainAll(mounts);
+    }
+
     private void updateStatistics(Server server) {
-        cpuStatistics.accept(server.getCpuTotal());
-        loadStatistics.accept(server.getLoad1());
-        memoryStatistics.accept(server.getMemoryActuallyUsed());
+        cpuStatistics.add(server.getCpuTotal());
+        loadStatistics.add(server.getLoad1());
+        memoryStatistics.add(server.getMemoryActuallyUsed());
     }
 
     private static final String METRIC_PREFIX = "server.";
 
+    private static final Map<String, DiskMetrics> diskMetrics = new ConcurrentHashMap<>();
+    private static final Map<String, FileSystemMetrics> fileSystemMetrics = new ConcurrentHashMap<>();
+
     public static final Metric MEMORY_MAX = Metric.get(METRIC_PREFIX + "memory.max").withGroup("Server / Memory").withDisplayName("Maximum");
     public static final Metric MEMORY_USED = Metric.get(METRIC_PREFIX + "memory.used").withGroup("Server / Memory").withDisplayName("Used");
+    public static final Metric MEMORY_USED_WITH_CACHE = Metric.get(METRIC_PREFIX + "memory.used.with_cache").withGroup("Server / Memory").withDisplayName("Used (with Cache)");
     public static final Metric MEMORY_ACTUALLY_USED = Metric.get(METRIC_PREFIX + "memory.actually.used").withGroup("Server / Memory").withDisplayName("Actually Used");
 
+    public static final Metric MEMORY_AVAILABLE = Metric.get(METRIC_PREFIX + "memory.available").withGroup("Server / Memory").withDisplayName("Available");
+    public static final Metric MEMORY_CACHED = Metric.get(METRIC_PREFIX + "memory.cached").withGroup("Server / Memory").withDisplayName("Cached");
+    public static final Metric MEMORY_BUFFERS = Metric.get(METRIC_PREFIX + "memory.buffers").withGroup("Server / Memory").withDisplayName("Buffers");
+    public static final Metric MEMORY_DIRTY = Metric.get(METRIC_PREFIX + "memory.dirty").withGroup("Server / Memory").withDisplayName("Dirty");
+    public static final Metric MEMORY_WRITEBACK = Metric.get(METRIC_PREFIX + "memory.writeback").withGroup("Server / Memory").withDisplayName("Writeback");
+    public static final Metric MEMORY_SLAB_RECLAIMABLE = Metric.get(METRIC_PREFIX + "memory.slab.reclaimable").withGroup("Server / Memory").withDisplayName("Slab Reclaimable");
+    public static final Metric PAGE_SCANS = Metric.get(METRIC_PREFIX + "memory.page.scans").withGroup("Server / Memory").withDisplayName("Page Scans").withType(Metric.Type.COUNTER);
+    public static final Metric PAGE_STEALS = Metric.get(METRIC_PREFIX + "memory.page.steals").withGroup("Server / Memory").withDisplayName("Page Steals").withType(Metric.Type.COUNTER);
+    public static final Metric PAGE_MAJOR_FAULTS = Metric.get(METRIC_PREFIX + "memory.page.major_faults").withGroup("Server / Memory").withDisplayName("Major Faults").withType(Metric.Type.COUNTER);
+
     public static final Metric CPU_TOTAL = Metric.get(METRIC_PREFIX + "cpu.total").withGroup("CPU").withDisplayName("Total");
     public static final Metric CPU_USER = Metric.get(METRIC_PREFIX + "cpu.user").withGroup("CPU").withDisplayName("User");
     public static final Metric CPU_SYSTEM = Metric.get(METRIC_PREFIX + "cpu.system").withGroup("CPU").withDisplayName("System");
@@ -138,11 +354,122 @@ public final class ServerMetrics extends AbstractMetrics<Server, ServerCollector
     public static final Metric LOAD_5 = Metric.get(METRIC_PREFIX + "load.5").withGroup("Load").withDisplayName("5 Minutes");
     public static final Metric LOAD_15 = Metric.get(METRIC_PREFIX + "load.15").withGroup("Load").withDisplayName("15 Minutes");
 
+    public static final Metric CGROUP_CPU_LIMIT = Metric.get(METRIC_PREFIX + "cgroup.cpu.limit").withGroup("Container").withDisplayName("CPU Limit");
+    public static final Metric CGROUP_CPU_USAGE = Metric.get(METRIC_PREFIX + "cgroup.cpu.usage").withGroup("Container").withDisplayName("CPU Usage");
+    public static final Metric CGROUP_CPU_THROTTLED = Metric.get(METRIC_PREFIX + "cgroup.cpu.throttled").withGroup("Container").withDisplayName("CPU Throttled");
+    public static final Metric CGROUP_CPU_THROTTLED_PERIODS = Metric.get(METRIC_PREFIX + "cgroup.cpu.throttled.periods").withGroup("Container").withDisplayName("Throttled Periods").withType(Metric.Type.COUNTER);
+    public static final Metric CGROUP_CPU_THROTTLED_TIME = Metric.get(METRIC_PREFIX + "cgroup.cpu.throttled.time").withGroup("Container").withDisplayName("Throttled Time").withType(Metric.Type.COUNTER);
+
+    public static final PressureMetrics PRESSURE_CPU = new PressureMetrics("", Pressure.Type.CPU);
+    public static final PressureMetrics PRESSURE_MEMORY = new PressureMetrics("", Pressure.Type.MEMORY);
+    public static final PressureMetrics PRESSURE_IO = new PressureMetrics("", Pressure.Type.IO);
+    public static final PressureMetrics CGROUP_PRESSURE_CPU = new PressureMetrics("cgroup.", Pressure.Type.CPU);
+    public static final PressureMetrics CGROUP_PRESSURE_MEMORY = new PressureMetrics("cgroup.", Pressure.Type.MEMORY);
+    public static final PressureMetrics CGROUP_PRESSURE_IO = new PressureMetrics("cgroup.", Pressure.Type.IO);
+
     public static final Metric IO_READS = Metric.get(METRIC_PREFIX + "io.reads").withGroup("I/O").withDisplayName("Reads").withType(Metric.Type.COUNTER);
     public static final Metric IO_READ_BYTES = Metric.get(METRIC_PREFIX + "io.read.bytes").withGroup("I/O").withDisplayName("Read Bytes").withType(Metric.Type.COUNTER);
     public static final Metric IO_WRITES = Metric.get(METRIC_PREFIX + "io.writes").withGroup("I/O").withDisplayName("Writes").withType(Metric.Type.COUNTER);
     public static final Metric IO_WRITE_BYTES = Metric.get(METRIC_PREFIX + "io.write.bytes").withGroup("I/O").withDisplayName("Write Bytes").withType(Metric.Type.COUNTER);
 
+    public static final Metric TCP_ACTIVE_OPENS = Metric.get(METRIC_PREFIX + "network.tcp.active_opens").withGroup("Network").withDisplayName("TCP Active Opens").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_PASSIVE_OPENS = Metric.get(METRIC_PREFIX + "network.tcp.passive_opens").withGroup("Network").withDisplayName("TCP Passive Opens").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_RESETS = Metric.get(METRIC_PREFIX + "network.tcp.resets").withGroup("Network").withDisplayName("TCP Resets").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_RETRANSMITS = Metric.get(METRIC_PREFIX + "network.tcp.retransmits").withGroup("Network").withDisplayName("TCP Retransmits").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_IN_ERRORS = Metric.get(METRIC_PREFIX + "network.tcp.in_errors").withGroup("Network").withDisplayName("TCP Errors").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_LISTEN_OVERFLOWS = Metric.get(METRIC_PREFIX + "network.tcp.listen.overflows").withGroup("Network").withDisplayName("TCP Listen Overflows").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_LISTEN_DROPS = Metric.get(METRIC_PREFIX + "network.tcp.listen.drops").withGroup("Network").withDisplayName("TCP Listen Drops").withType(Metric.Type.COUNTER);
+    public static final Metric UDP_RECEIVE_ERRORS = Metric.get(METRIC_PREFIX + "network.udp.receive_errors").withGroup("Network").withDisplayName("UDP Receive Errors").withType(Metric.Type.COUNTER);
+    public static final Metric UDP_BUFFER_ERRORS = Metric.get(METRIC_PREFIX + "network.udp.buffer_errors").withGroup("Network").withDisplayName("UDP Buffer Errors").withType(Metric.Type.COUNTER);
+    public static final Metric TCP_ESTABLISHED = Metric.get(METRIC_PREFIX + "network.tcp.established").withGroup("Network").withDisplayName("TCP Established");
+    public static final Metric TCP_TIME_WAIT = Metric.get(METRIC_PREFIX + "network.tcp.time_wait").withGroup("Network").withDisplayName("TCP Time Wait");
+    public static final Metric TCP_ORPHAN = Metric.get(METRIC_PREFIX + "network.tcp.orphan").withGroup("Network").withDisplayName("TCP Orphan");
+    public static final Metric TCP_IN_USE = Metric.get(METRIC_PREFIX + "network.tcp.in_use").withGroup("Network").withDisplayName("TCP In Use");
+    public static final Metric UDP_IN_USE = Metric.get(METRIC_PREFIX + "network.udp.in_use").withGroup("Network").withDisplayName("UDP In Use");
+    public static final Metric TCP_LISTEN = Metric.get(METRIC_PREFIX + "network.tcp.listen").withGroup("Network").withDisplayName("TCP Listen");
+    public static final Metric TCP_SYN_SENT = Metric.get(METRIC_PREFIX + "network.tcp.syn_sent").withGroup("Network").withDisplayName("TCP SYN Sent");
+    public static final Metric TCP_SYN_RECEIVED = Metric.get(METRIC_PREFIX + "network.tcp.syn_received").withGroup("Network").withDisplayName("TCP SYN Received");
+    public static final Metric TCP_CLOSE_WAIT = Metric.get(METRIC_PREFIX + "network.tcp.close_wait").withGroup("Network").withDisplayName("TCP Close Wait");
+    public static final Metric TCP_FIN_WAIT = Metric.get(METRIC_PREFIX + "network.tcp.fin_wait").withGroup("Network").withDisplayName("TCP FIN Wait");
+    public static final Metric TCP_LAST_ACK = Metric.get(METRIC_PREFIX + "network.tcp.last_ack").withGroup("Network").withDisplayName("TCP Last ACK");
+
+    public static final Metric PROCESS_TOTAL = Metric.get(METRIC_PREFIX + "process.total").withGroup("Process").withDisplayName("Total");
+    public static final Metric PROCESS_RUNNING = Metric.get(METRIC_PREFIX + "process.running").withGroup("Process").withDisplayName("Running");
+    public static final Metric PROCESS_SLEEPING = Metric.get(METRIC_PREFIX + "process.sleeping").withGroup("Process").withDisplayName("Sleeping");
+    public static final Metric PROCESS_BLOCKED = Metric.get(METRIC_PREFIX + "process.blocked").withGroup("Process").withDisplayName("Blocked");
+    public static final Metric PROCESS_STOPPED = Metric.get(METRIC_PREFIX + "process.stopped").withGroup("Process").withDisplayName("Stopped");
+    public static final Metric PROCESS_IDLE = Metric.get(METRIC_PREFIX + "process.idle").withGroup("Process").withDisplayName("Idle");
+    public static final Metric PROCESS_ZOMBIE = Metric.get(METRIC_PREFIX + "process.zombie").withGroup("Process").withDisplayName("Zombie");
+    public static final Metric PROCESS_THREADS = Metric.get(METRIC_PREFIX + "process.threads").withGroup("Process").withDisplayName("Threads");
+
     public static final Metric INTERRUPTS = Metric.get(METRIC_PREFIX + "interrupts").withGroup("Kernel").withDisplayName("Interrupts").withType(Metric.Type.COUNTER);
     public static final Metric CONTEXT_SWITCHES = Metric.get(METRIC_PREFIX + "context.switches").withGroup("Kernel").withDisplayName("Context Switches").withType(Metric.Type.COUNTER);
+
+    /**
+     * Holds the metrics published for the pressure stall information of a resource.
+     */
+    @Getter
+    public static final class PressureMetrics {
+
+        private final Metric someAvg10;
+        private final Metric someAvg60;
+        private final Metric someTotal;
+        private final Metric fullAvg10;
+        private final Metric fullAvg60;
+        private final Metric fullTotal;
+
+        private PressureMetrics(String scope, Pressure.Type type) {
+            String prefix = METRIC_PREFIX + scope + "pressure." + type.getFileName() + ".";
+            String group = scope.isEmpty() ? "Pressure" : "Container / Pressure";
+            someAvg10 = Metric.get(prefix + "some.avg10").withGroup(group).withDisplayName(type.getLabel() + " Some (10s)");
+            someAvg60 = Metric.get(prefix + "some.avg60").withGroup(group).withDisplayName(type.getLabel() + " Some (60s)");
+            someTotal = Metric.get(prefix + "some.total").withGroup(group).withDisplayName(type.getLabel() + " Some Stall").withType(Metric.Type.COUNTER);
+            fullAvg10 = Metric.get(prefix + "full.avg10").withGroup(group).withDisplayName(type.getLabel() + " Full (10s)");
+            fullAvg60 = Metric.get(prefix + "full.avg60").withGroup(group).withDisplayName(type.getLabel() + " Full (60s)");
+            fullTotal = Metric.get(prefix + "full.total").withGroup(group).withDisplayName(type.getLabel() + " Full Stall").withType(Metric.Type.COUNTER);
+        }
+    }
+
+    /**
+     * Holds the metrics published for a block device.
+     */
+    @Getter
+    public static final class DiskMetrics {
+
+        private final Metric utilization;
+        private final Metric queueDepth;
+        private final Metric readLatency;
+        private final Metric writeLatency;
+        private final Metric readBytes;
+        private final Metric writeBytes;
+
+        private DiskMetrics(String device) {
+            String prefix = METRIC_PREFIX + "disk." + device + ".";
+            String group = "Disk / " + device;
+            utilization = Metric.get(prefix + "utilization").withGroup(group).withDisplayName("Utilization");
+            queueDepth = Metric.get(prefix + "queue_depth").withGroup(group).withDisplayName("Queue Depth");
+            readLatency = Metric.get(prefix + "read.latency").withGroup(group).withDisplayName("Read Latency");
+            writeLatency = Metric.get(prefix + "write.latency").withGroup(group).withDisplayName("Write Latency");
+            readBytes = Metric.get(prefix + "read.bytes").withGroup(group).withDisplayName("Read Bytes").withType(Metric.Type.COUNTER);
+            writeBytes = Metric.get(prefix + "write.bytes").withGroup(group).withDisplayName("Write Bytes").withType(Metric.Type.COUNTER);
+        }
+    }
+
+    /**
+     * Holds the metrics published for a file system.
+     */
+    @Getter
+    public static final class FileSystemMetrics {
+
+        private final Metric used;
+        private final Metric exhaustion;
+
+        private FileSystemMetrics(String mount) {
+            String name = "/".equals(mount) ? "root" : StringUtils.toIdentifier(mount);
+            String prefix = METRIC_PREFIX + "fs." + name + ".";
+            String group = "File System / " + mount;
+            used = Metric.get(prefix + "used").withGroup(group).withDisplayName("Used (%)");
+            exhaustion = Metric.get(prefix + "exhaustion").withGroup(group).withDisplayName("Time to Exhaustion");
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package net.microfalx.jvm;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static java.lang.System.nanoTime;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Caches the last result of a collector for a short amount of time, so frequent callers (health checks, status
+ * pages) do not trigger a full collection each time.
+ * <p>
+ * A result is returned from the cache while it is younger than the maximum age. Otherwise, a single caller runs the
+ * collection (single-flight) while concurrent callers wait for it and receive the same result, instead of collecting
+ * in parallel. If the collection fails, the caller which ran it receives the exception and the next caller retries.
+ * <p>
+ * The collector is created on first use and reused for all collections of the cache. The collectors keep their
+ * interval state (CPU times, deltas) per instance, so the values of the cached result cover the time since the
+ * previous collection of this cache and other collectors of the same kind (the metrics scrapers) are not affected.
+ * <p>
+ * When the cache is created with a copier, each caller receives its own copy of the cached result and can modify it
+ * without affecting other callers. Otherwise, the same instance is returned to all callers and it must not be
+ * modified.
+ *
+ * @param <T> the type of the collected information
+ */
+public final class SnapshotCache<T> {
+
+    private static final Duration DEFAULT_MAXIMUM_AGE = Duration.ofSeconds(1);
+
+    private final Supplier<? extends AbstractCollector<T>> collectorFactory;
+    private final UnaryOperator<T> copier;
+    private final Object lock = new Object();
+
+    private volatile long maximumAge = DEFAULT_MAXIMUM_AGE.toNanos();
+    private volatile Snapshot<T> snapshot;
+    private AbstractCollector<T> collector;
+
+    public SnapshotCache(Supplier<? extends AbstractCollector<T>> collectorFactory) {
+        this(collectorFactory, UnaryOperator.identity());
+    }
+
+    public SnapshotCache(Supplier<? extends AbstractCollector<T>> collectorFactory, UnaryOperator<T> copier) {
+        requireNonNull(collectorFactory);
+        requireNonNull(copier);
+        this.collectorFactory = collectorFactory;
+        this.copier = copier;
+    }
+
+    /**
+     * Returns the maximum age of a cached result.
+     *
+     * @return a non-null instance
+     */
+    public Duration getMaximumAge() {
+        return Duration.ofNanos(maximumAge);
+    }
+
+    /**
+     * Changes the maximum age of a cached result.
+     *
+     * @param maximumAge the maximum age, zero to collect on every call (still single-flight)
+     * @return self
+     */
+    public SnapshotCache<T> setMaximumAge(Duration maximumAge) {
+        requireNonNull(maximumAge);
+        if (maximumAge.isNegative()) throw new IllegalArgumentException("The maximum age cannot be negative");
+        this.maximumAge = maximumAge.toNanos();
+        return this;
+    }
+
+    /**
+     * Returns the last result, if it is recent enough, or collects a new one.
+     * <p>
+     * If the cache has a copier, the result is a copy owned by the caller.
+     *
+     * @return a non-null instance
+     */
+    public T get() {
+        return copier.apply(getCached());
+    }
+
+    private T getCached() {
+        long startTime = nanoTime();
+        Snapshot<T> current = snapshot;
+        if (current != null && isFresh(current, startTime)) return current.value;
+        synchronized (lock) {
+            // a result collected while waiting for the lock is fresh enough for this call too
+            current = snapshot;
+            if (current != null && (current.time - startTime >= 0 || isFresh(current, nanoTime()))) return current.value;
+            if (collector == null) collector = collectorFactory.get();
+            T value = collector.execute();
+            snapshot = new Snapshot<>(value, nanoTime());
+            return value;
+        }
+    }
+
+    /**
+     * Discards the cached result.
+     */
+    public void clear() {
+        snapshot = null;
+    }
+
+    private boolean isFresh(Snapshot<T> snapshot, long time) {
+        return time - snapshot.time <= maximumAge;
+    }
+
+    private static class Snapshot<T> {
+
+        private final T value;
+        private final long time;
+
+        private Snapshot(T value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
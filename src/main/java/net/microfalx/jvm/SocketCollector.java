@@ -0,0 +1,188 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.SocketInventory;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static net.microfalx.jvm.LinuxUtils.*;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Collects an inventory of the TCP connections owned by the current process.
+ * <p>
+ * The socket inodes are extracted from the links in <code>/proc/self/fd</code> and matched against the entries in
+ * <code>/proc/self/net/tcp</code> and <code>/proc/self/net/tcp6</code>; connections which belong to other processes
+ * are ignored. Listening sockets are counted by state but they are not reported as endpoints.
+ * <p>
+ * The number of endpoints is bounded ({@link #getMaximumEndpoints()}), so a process which talks with a large number
+ * of peers does not produce an unbounded inventory.
+ */
+public final class SocketCollector extends AbstractCollector<SocketInventory> {
+
+    private static final int DEFAULT_MAXIMUM_ENDPOINTS = 50;
+    private static final String SOCKET_PREFIX = "socket:[";
+
+    private final Path proc;
+    private volatile int maximumEndpoints = DEFAULT_MAXIMUM_ENDPOINTS;
+
+    public SocketCollector() {
+        this(PROC);
+    }
+
+    SocketCollector(Path proc) {
+        requireNonNull(proc);
+        this.proc = proc;
+    }
+
+    /**
+     * Returns the maximum number of remote endpoints reported.
+     *
+     * @return a positive integer
+     */
+    public int getMaximumEndpoints() {
+        return maximumEndpoints;
+    }
+
+    /**
+     * Changes the maximum number of remote endpoints reported.
+     *
+     * @param maximumEndpoints the maximum number of endpoints
+     * @return self
+     */
+    public SocketCollector setMaximumEndpoints(int maximumEndpoints) {
+        if (maximumEndpoints <= 0) throw new IllegalArgumentException("Maximum endpoints must be positive, got " + maximumEndpoints);
+        this.maximumEndpoints = maximumEndpoints;
+        return this;
+    }
+
+    @Override
+    public SocketInventory execute() {
+        return execute(readLinks(proc.resolve("self").resolve("fd")));
+    }
+
+    /**
+     * Collects the inventory based on an existing listing of the file descriptors of the current process, so the
+     * descriptors are listed only once per collection when they are also needed by other collectors.
+     *
+     * @param fileDescriptors the targets of the links in <code>/proc/self/fd</code>
+     * @return a non-null instance
+     */
+    public SocketInventory execute(Collection<String> fileDescriptors) {
+        requireNonNull(fileDescriptors);
+        SocketInventory inventory = new SocketInventory();
+        Path self = proc.resolve("self");
+        Set<Long> inodes = getSocketInodes(fileDescriptors);
+        if (inodes.isEmpty()) return inventory;
+        Map<String, SocketInventory.Endpoint> endpoints = new HashMap<>();
+        parse(readLines(self.resolve("net").resolve("tcp")), inodes, inventory, endpoints);
+        parse(readLines(self.resolve("net").resolve("tcp6")), inodes, inventory, endpoints);
+        bound(inventory, endpoints.values());
+        return inventory;
+    }
+
+    private Set<Long> getSocketInodes(Collection<String> fileDescriptors) {
+        Set<Long> inodes = new HashSet<>();
+        for (String target : fileDescriptors) {
+            if (target.startsWith(SOCKET_PREFIX) && target.endsWith("]")) {
+                long inode = parseLong(target.substring(SOCKET_PREFIX.length(), target.length() - 1), -1);
+                if (inode > 0) inodes.add(inode);
+            }
+        }
+        return inodes;
+    }
+
+    private void parse(List<String> lines, Set<Long> inodes, SocketInventory inventory, Map<String, SocketInventory.Endpoint> endpoints) {
+        // sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ...
+        for (int i = 1; i < lines.size(); i++) {
+            String[] parts = lines.get(i).trim().split("\\s+");
+            if (parts.length < 10) continue;
+            if (!inodes.contains(parseLong(parts[9], -1))) continue;
+            SocketInventory.State state = SocketInventory.State.fromCode((int) parseHex(parts[3]));
+            if (state == null) continue;
+            int separator = parts[4].indexOf(':');
+            if (separator < 0) continue;
+            long sendQueue = parseHex(parts[4].substring(0, separator));
+            long receiveQueue = parseHex(parts[4].substring(separator + 1));
+            inventory.setTotal(inventory.getTotal() + 1);
+            inventory.setSendQueue(inventory.getSendQueue() + sendQueue);
+            inventory.setReceiveQueue(inventory.getReceiveQueue() + receiveQueue);
+            inventory.getStates().merge(state, 1, Integer::sum);
+            if (state == SocketInventory.State.LISTEN) continue;
+            String remote = parts[2];
+            SocketInventory.Endpoint endpoint = endpoints.get(remote);
+            if (endpoint == null) {
+                int portSeparator = remote.indexOf(':');
+                if (portSeparator < 0) continue;
+                endpoint = new SocketInventory.Endpoint(decodeAddress(remote.substring(0, portSeparator)),
+                        (int) parseHex(remote.substring(portSeparator + 1)));
+                endpoints.put(remote, endpoint);
+            }
+            endpoint.setConnections(endpoint.getConnections() + 1);
+            if (state == SocketInventory.State.ESTABLISHED) endpoint.setEstablished(endpoint.getEstablished() + 1);
+            if (state == SocketInventory.State.CLOSE_WAIT) endpoint.setCloseWait(endpoint.getCloseWait() + 1);
+            endpoint.setSendQueue(endpoint.getSendQueue() + sendQueue);
+            endpoint.setReceiveQueue(endpoint.getReceiveQueue() + receiveQueue);
+        }
+    }
+
+    private void bound(SocketInventory inventory, Collection<SocketInventory.Endpoint> endpoints) {
+        List<SocketInventory.Endpoint> sortedEndpoints = new ArrayList<>(endpoints);
+        sortedEndpoints.sort(Comparator.comparingInt(SocketInventory.Endpoint::getConnections).reversed());
+        int maximumEndpoints = this.maximumEndpoints;
+        if (sortedEndpoints.size() > maximumEndpoints) {
+            List<SocketInventory.Endpoint> others = sortedEndpoints.subList(maximumEndpoints, sortedEndpoints.size());
+            inventory.setOtherEndpoints(others.size());
+            inventory.setOtherConnections(others.stream().mapToInt(SocketInventory.Endpoint::getConnections).sum());
+            sortedEndpoints = new ArrayList<>(sortedEndpoints.subList(0, maximumEndpoints));
+        }
+        inventory.setEndpoints(sortedEndpoints);
+    }
+
+    /**
+     * Decodes an address from <code>/proc/net/tcp[6]</code>, stored as 32-bit words in host (little endian) order.
+     *
+     * @param value the address, as hex
+     * @return the address in textual form
+     */
+    static String decodeAddress(String value) {
+        if (value.length() == 8) {
+            long word = parseHex(value);
+            return (word & 0xFF) + "." + ((word >> 8) & 0xFF) + "." + ((word >> 16) & 0xFF) + "." + ((word >> 24) & 0xFF);
+        } else if (value.length() == 32) {
+            byte[] bytes = new byte[16];
+            for (int i = 0; i < 4; i++) {
+                long word = parseHex(value.substring(i * 8, i * 8 + 8));
+                for (int j = 0; j < 4; j++) {
+                    bytes[i * 4 + j] = (byte) ((word >> (8 * j)) & 0xFF);
+                }
+            }
+            if (isMappedIPv4(bytes)) {
+                return (bytes[12] & 0xFF) + "." + (bytes[13] & 0xFF) + "." + (bytes[14] & 0xFF) + "." + (bytes[15] & 0xFF);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 16; i += 2) {
+                if (i > 0) builder.append(':');
+                builder.append(Integer.toHexString(((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF)));
+            }
+            return builder.toString();
+        } else {
+            return value;
+        }
+    }
+
+    private static boolean isMappedIPv4(byte[] bytes) {
+        for (int i = 0; i < 10; i++) {
+            if (bytes[i] != 0) return false;
+        }
+        return bytes[10] == (byte) 0xFF && bytes[11] == (byte) 0xFF;
+    }
+
+    private static long parseHex(String value) {
+        try {
+            return Long.parseLong(value, 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ThreadInformation;
+import net.microfalx.jvm.model.ThreadReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.System.currentTimeMillis;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Detects deadlocked threads and threads stuck at the same code location.
+ * <p>
+ * Each update looks for deadlocks (monitors and ownable synchronizers) and compares the top frame of every thread
+ * with the one seen in the previous update. A thread which stays in the same frame and state, without being blocked
+ * or waiting in the meantime, for longer than the threshold (for example a request thread in the same socket read
+ * for a minute) is reported as stuck. Only the top frame is sampled for all threads (a {@link ThreadSampler.Sample},
+ * which can be shared with other collectors); full stacks are retrieved only for the deadlocked and stuck threads.
+ * <p>
+ * Only runnable and blocked threads are considered, since idle threads wait in the same frame by design. Frames known
+ * to be idle while runnable (accepting connections, waiting for I/O events, the JVM reference handler waiting for
+ * pending references, file system watchers) are ignored too.
+ */
+public final class StuckThreadDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StuckThreadDetector.class);
+
+    private static final Duration DEFAULT_THRESHOLD = Duration.ofSeconds(60);
+    private static final String[] DEFAULT_IGNORED_FRAMES = {"sun.nio.ch.Net.accept", "sun.nio.ch.Net.poll",
+            "sun.nio.ch.EPoll.wait", "sun.nio.ch.KQueue.poll", "sun.nio.ch.WEPoll.wait", "sun.nio.ch.WindowsSelectorImpl",
+            "java.net.PlainSocketImpl.socketAccept", "java.net.ServerSocket.accept", "sun.nio.ch.ServerSocketChannelImpl.accept",
+            "java.lang.ProcessHandleImpl.waitForProcessExit", "jdk.internal.misc.Signal",
+            "java.lang.ref.Reference.waitForReferencePendingList", "sun.nio.fs.LinuxWatchService.poll",
+            "sun.nio.fs.WindowsNativeDispatcher.GetQueuedCompletionStatus", "sun.nio.ch.Iocp.getQueuedCompletionStatus"};
+
+    private final ThreadMXBean threadMXBean;
+    private final ThreadSampler threadSampler;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Collection<String> ignoredFrames = new CopyOnWriteArrayList<>(DEFAULT_IGNORED_FRAMES);
+
+    private volatile Duration threshold = DEFAULT_THRESHOLD;
+    private volatile ThreadReport lastReport = new ThreadReport();
+    private Set<Long> reported = Collections.emptySet();
+    private int generation;
+
+    public StuckThreadDetector() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    StuckThreadDetector(ThreadMXBean threadMXBean) {
+        requireNonNull(threadMXBean);
+        this.threadMXBean = threadMXBean;
+        this.threadSampler = new ThreadSampler(threadMXBean);
+    }
+
+    /**
+     * Returns the amount of time a thread needs to stay in the same frame to be considered stuck.
+     *
+     * @return a non-null instance
+     */
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Changes the amount of time a thread needs to stay in the same frame to be considered stuck.
+     *
+     * @param threshold the threshold
+     * @return self
+     */
+    public StuckThreadDetector setThreshold(Duration threshold) {
+        requireNonNull(threshold);
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Registers a frame (a prefix of <code>class.method</code>) where runnable threads are expected to stay for
+     * a long time and which should not be reported.
+     *
+     * @param frame the frame prefix
+     * @return self
+     */
+    public StuckThreadDetector addIgnoredFrame(String frame) {
+        requireNonNull(frame);
+        ignoredFrames.add(frame);
+        return this;
+    }
+
+    /**
+     * Returns the report created by the last update.
+     *
+     * @return a non-null instance
+     */
+    public ThreadReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Looks for deadlocked and stuck threads.
+     *
+     * @return a non-null instance
+     */
+    public ThreadReport update() {
+        return update(threadSampler.sample());
+    }
+
+    /**
+     * Looks for deadlocked threads and for stuck threads in a sample.
+     *
+     * @param sample the threads
+     * @return a non-null instance
+     */
+    public synchronized ThreadReport update(ThreadSampler.Sample sample) {
+        requireNonNull(sample);
+        long time = currentTimeMillis();
+        generation++;
+        long thresholdMillis = threshold.toMillis();
+        Set<Long> stuckIds = new LinkedHashSet<>();
+        Map<Long, Long> stuckTimes = new HashMap<>();
+        for (int i = 0; i < sample.size(); i++) {
+            ThreadInfo threadInfo = sample.getThreadInfo(i);
+            Entry entry = entries.get(threadInfo.getThreadId());
+            StackTraceElement frame = threadInfo.getStackTrace().length > 0 ? threadInfo.getStackTrace()[0] : null;
+            long activity = threadInfo.getBlockedCount() + threadInfo.getWaitedCount();
+            if (entry == null || !entry.isSame(threadInfo.getThreadState(), frame, activity)) {
+                entry = new Entry(threadInfo.getThreadState(), frame, activity, time);
+                entries.put(threadInfo.getThreadId(), entry);
+            }
+            entry.generation = generation;
+            long stuckTime = time - entry.since;
+            if (isCandidate(threadInfo.getThreadState(), frame) && stuckTime >= thresholdMillis) {
+                stuckIds.add(threadInfo.getThreadId());
+                stuckTimes.put(threadInfo.getThreadId(), stuckTime);
+            }
+        }
+        entries.values().removeIf(entry -> entry.generation != generation);
+        ThreadReport report = new ThreadReport();
+        report.setTimestamp(time);
+        long[] deadlockedIds = findDeadlockedThreads();
+        if (deadlockedIds.length > 0) {
+            report.setDeadlockedThreads(getThreads(deadlockedIds, Collections.emptyMap()));
+            stuckIds.removeAll(toSet(deadlockedIds));
+        }
+        if (!stuckIds.isEmpty()) {
+            report.setStuckThreads(getThreads(stuckIds.stream().mapToLong(Long::longValue).toArray(), stuckTimes));
+        }
+        log(report);
+        lastReport = report;
+        return report;
+    }
+
+    private boolean isCandidate(Thread.State state, StackTraceElement frame) {
+        if (frame == null || !(state == Thread.State.RUNNABLE || state == Thread.State.BLOCKED)) return false;
+        String name = frame.getClassName() + "." + frame.getMethodName();
+        for (String ignoredFrame : ignoredFrames) {
+            if (name.startsWith(ignoredFrame)) return false;
+        }
+        return true;
+    }
+
+    private long[] findDeadlockedThreads() {
+        long[] ids = threadMXBean.isSynchronizerUsageSupported() ? threadMXBean.findDeadlockedThreads()
+                : threadMXBean.findMonitorDeadlockedThreads();
+        return ids != null ? ids : new long[0];
+    }
+
+    private Collection<ThreadInformation> getThreads(long[] ids, Map<Long, Long> stuckTimes) {
+        Collection<ThreadInformation> threads = new ArrayList<>();
+        for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(ids, threadMXBean.isObjectMonitorUsageSupported(),
+                threadMXBean.isSynchronizerUsageSupported())) {
+            if (threadInfo == null) continue;
+            ThreadInformation threadInformation = VirtualMachineUtils.createThreadInformation(threadInfo);
+            threadInformation.setStuckTime(stuckTimes.getOrDefault(threadInfo.getThreadId(), 0L));
+            threads.add(threadInformation);
+        }
+        return threads;
+    }
+
+    private void log(ThreadReport report) {
+        Set<Long> current = new HashSet<>();
+        for (ThreadInformation thread : report.getDeadlockedThreads()) {
+            current.add(thread.getId());
+            if (!reported.contains(thread.getId())) {
+                LOGGER.warn("Thread '{}' is deadlocked on '{}' owned by '{}'", thread.getName(), thread.getLockName(), thread.getLockOwnerName());
+            }
+        }
+        for (ThreadInformation thread : report.getStuckThreads()) {
+            current.add(thread.getId());
+            if (!reported.contains(thread.getId())) {
+                LOGGER.warn("Thread '{}' is stuck for {}ms at '{}'", thread.getName(), thread.getStuckTime(),
+                        thread.getStackTrace().isEmpty() ? "Unknown" : thread.getStackTrace().get(0));
+            }
+        }
+        reported = current;
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private static final class Entry {
+
+        private final Thread.State state;
+        private final StackTraceElement frame;
+        private final long activity;
+        private final long since;
+        private int generation;
+
+        private Entry(Thread.State state, StackTraceElement frame, long activity, long since) {
+            this.state = state;
+            this.frame = frame;
+            this.activity = activity;
+            this.since = since;
+        }
+
+        private boolean isSame(Thread.State state, StackTraceElement frame, long activity) {
+            return this.state == state && Objects.equals(this.frame, frame) && this.activity == activity;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package net.microfalx.jvm;
+
+import lombok.ToString;
+import net.microfalx.jvm.model.CompactThreadDump;
+import net.microfalx.jvm.model.ThreadDump;
+import net.microfalx.jvm.model.ThreadDumpDictionary;
+import net.microfalx.jvm.model.ThreadInformation;
+
+import java.util.*;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Holds the differences between two thread dumps.
+ * <p>
+ * Threads are matched by identifier and each thread of the current dump is reported as created, changed (a different
+ * state) or unchanged (the same state); the threads of the previous dump which are missing from the current dump are
+ * reported as terminated. Unchanged threads with an identical (non-empty) stack are also reported as stuck candidates.
+ * The difference in the number of threads of each pool (threads which share the same name once the sequence number
+ * is removed) is reported for the pools which changed.
+ * <p>
+ * The comparison is linear in the size of the dumps. When both dumps are compact and share the same dictionary,
+ * stacks are compared by their identifier, without being decoded. A compact dump must still be decodable: a dump
+ * whose stacks were pruned from the dictionary is rejected. The diff keeps only the positions of the threads
+ * in the dumps; a thread of a compact dump is decoded when it is accessed, so a diff which is only checked for
+ * changes (or counted) does not decode any stack.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class ThreadDumpDiff {
+
+    private final Snapshot previous;
+    private final Snapshot current;
+    private final IndexList createdThreads = new IndexList();
+    private final IndexList terminatedThreads = new IndexList();
+    private final IndexList changedThreads = new IndexList();
+    private final IndexList unchangedThreads = new IndexList();
+    private final IndexList identicalStackThreads = new IndexList();
+    private final Map<Long, Thread.State> previousStates = new HashMap<>();
+    @ToString.Include
+    private final Map<String, Integer> poolDeltas = new HashMap<>();
+
+    /**
+     * Compares two thread dumps.
+     *
+     * @param previous the previous dump
+     * @param current  the current dump
+     * @return a non-null instance
+     */
+    public static ThreadDumpDiff compare(ThreadDump previous, ThreadDump current) {
+        requireNonNull(previous);
+        requireNonNull(current);
+        return new ThreadDumpDiff(new ThreadDumpSnapshot(previous), new ThreadDumpSnapshot(current));
+    }
+
+    /**
+     * Compares two compact thread dumps.
+     *
+     * @param previous the previous dump
+     * @param current  the current dump
+     * @return a non-null instance
+     * @throws IllegalArgumentException if the stacks of a dump were pruned from its dictionary
+     */
+    public static ThreadDumpDiff compare(CompactThreadDump previous, CompactThreadDump current) {
+        requireNonNull(previous);
+        requireNonNull(current);
+        checkDecodable("previous", previous);
+        checkDecodable("current", current);
+        return new ThreadDumpDiff(new CompactSnapshot(previous), new CompactSnapshot(current));
+    }
+
+    private static void checkDecodable(String name, CompactThreadDump threadDump) {
+        if (!threadDump.isDecodable()) {
+            throw new IllegalArgumentException("The " + name + " dump cannot be compared, its stacks were pruned from "
+                    + "the dictionary (the dictionary retains fewer epochs than the distance between the dumps)");
+        }
+    }
+
+    private ThreadDumpDiff(Snapshot previous, Snapshot current) {
+        this.previous = previous;
+        this.current = current;
+        Map<Long, Integer> previousIndexes = new HashMap<>(previous.size() * 2);
+        for (int i = 0; i < previous.size(); i++) {
+            previousIndexes.put(previous.getId(i), i);
+            poolDeltas.merge(VirtualMachineUtils.getThreadGroupName(previous.getName(i)), -1, Integer::sum);
+        }
+        boolean[] matched = new boolean[previous.size()];
+        for (int i = 0; i < current.size(); i++) {
+            poolDeltas.merge(VirtualMachineUtils.getThreadGroupName(current.getName(i)), 1, Integer::sum);
+            Integer previousIndex = previousIndexes.get(current.getId(i));
+            if (previousIndex == null) {
+                createdThreads.add(i);
+                continue;
+            }
+            matched[previousIndex] = true;
+            if (previous.getState(previousIndex) != current.getState(i)) {
+                previousStates.put(current.getId(i), previous.getState(previousIndex));
+                changedThreads.add(i);
+            } else {
+                unchangedThreads.add(i);
+                if (current.isSameStack(i, previous, previousIndex)) identicalStackThreads.add(i);
+            }
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (!matched[i]) terminatedThreads.add(i);
+        }
+        poolDeltas.values().removeIf(delta -> delta == 0);
+    }
+
+    /**
+     * Returns the threads of the current dump which are not present in the previous dump.
+     *
+     * @return a non-null instance, decoded on access
+     */
+    @ToString.Include
+    public List<ThreadInformation> getCreatedThreads() {
+        return new ThreadList(current, createdThreads);
+    }
+
+    /**
+     * Returns the threads of the previous dump which are not present in the current dump.
+     *
+     * @return a non-null instance, decoded on access
+     */
+    @ToString.Include
+    public List<ThreadInformation> getTerminatedThreads() {
+        return new ThreadList(previous, terminatedThreads);
+    }
+
+    /**
+     * Returns the threads of the current dump which changed the state.
+     *
+     * @return a non-null instance, decoded on access
+     */
+    @ToString.Include
+    public List<ThreadInformation> getChangedThreads() {
+        return new ThreadList(current, changedThreads);
+    }
+
+    /**
+     * Returns the threads of the current dump which kept the state.
+     *
+     * @return a non-null instance, decoded on access
+     */
+    public List<ThreadInformation> getUnchangedThreads() {
+        return new ThreadList(current, unchangedThreads);
+    }
+
+    /**
+     * Returns the threads of the current dump which kept the state and the (non-empty) stack.
+     *
+     * @return a non-null instance, decoded on access
+     */
+    @ToString.Include
+    public List<ThreadInformation> getIdenticalStackThreads() {
+        return new ThreadList(current, identicalStackThreads);
+    }
+
+    /**
+     * Returns the change in the number of threads of each pool, for the pools which changed.
+     *
+     * @return a non-null instance
+     */
+    public Map<String, Integer> getPoolDeltas() {
+        return Collections.unmodifiableMap(poolDeltas);
+    }
+
+    /**
+     * Returns the state of a changed thread in the previous dump.
+     *
+     * @param id the thread identifier
+     * @return the state, null if the thread did not change the state
+     */
+    public Thread.State getPreviousState(long id) {
+        return previousStates.get(id);
+    }
+
+    /**
+     * Returns whether the dumps have the same threads in the same states.
+     *
+     * @return {@code true} if nothing changed, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return createdThreads.size == 0 && terminatedThreads.size == 0 && changedThreads.size == 0;
+    }
+
+    /**
+     * A growable list of thread positions.
+     */
+    private static final class IndexList {
+
+        private int[] indexes = new int[8];
+        private int size;
+
+        private void add(int index) {
+            if (size == indexes.length) indexes = Arrays.copyOf(indexes, size * 2);
+            indexes[size++] = index;
+        }
+    }
+
+    /**
+     * A read-only view over some threads of a dump, which decodes a thread when it is accessed.
+     */
+    private static final class ThreadList extends AbstractList<ThreadInformation> implements RandomAccess {
+
+        private final Snapshot snapshot;
+        private final IndexList indexes;
+
+        private ThreadList(Snapshot snapshot, IndexList indexes) {
+            this.snapshot = snapshot;
+            this.indexes = indexes;
+        }
+
+        @Override
+        public ThreadInformation get(int index) {
+            Objects.checkIndex(index, indexes.size);
+            return snapshot.getThread(indexes.indexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return indexes.size;
+        }
+    }
+
+    private interface Snapshot {
+
+        int size();
+
+        long getId(int index);
+
+        String getName(int index);
+
+        Thread.State getState(int index);
+
+        ThreadInformation getThread(int index);
+
+        boolean isSameStack(int index, Snapshot other, int otherIndex);
+    }
+
+    private static final class ThreadDumpSnapshot implements Snapshot {
+
+        private final List<ThreadInformation> threads;
+
+        private ThreadDumpSnapshot(ThreadDump threadDump) {
+            this.threads = new ArrayList<>(threadDump.getThreads());
+        }
+
+        @Override
+        public int size() {
+            return threads.size();
+        }
+
+        @Override
+        public long getId(int index) {
+            return threads.get(index).getId();
+        }
+
+        @Override
+        public String getName(int index) {
+            return threads.get(index).getName();
+        }
+
+        @Override
+        public Thread.State getState(int index) {
+            return threads.get(index).getState();
+        }
+
+        @Override
+        public ThreadInformation getThread(int index) {
+            return threads.get(index);
+        }
+
+        @Override
+        public boolean isSameStack(int index, Snapshot other, int otherIndex) {
+            List<StackTraceElement> stackTrace = threads.get(index).getStackTrace();
+            return !stackTrace.isEmpty() && stackTrace.equals(other.getThread(otherIndex).getStackTrace());
+        }
+    }
+
+    private static final class CompactSnapshot implements Snapshot {
+
+        private final CompactThreadDump threadDump;
+
+        private CompactSnapshot(CompactThreadDump threadDump) {
+            this.threadDump = threadDump;
+        }
+
+        @Override
+        public int size() {
+            return threadDump.getThreadCount();
+        }
+
+        @Override
+        public long getId(int index) {
+            return threadDump.getId(index);
+        }
+
+        @Override
+        public String getName(int index) {
+            return threadDump.getName(index);
+        }
+
+        @Override
+        public Thread.State getState(int index) {
+            return threadDump.getState(index);
+        }
+
+        @Override
+        public ThreadInformation getThread(int index) {
+            return threadDump.getThread(index);
+        }
+
+        @Override
+        public boolean isSameStack(int index, Snapshot other, int otherIndex) {
+            int stack = threadDump.getStack(index);
+            if (stack == ThreadDumpDictionary.EMPTY_STACK) return false;
+            CompactThreadDump otherThreadDump = ((CompactSnapshot) other).threadDump;
+            if (threadDump.getDictionary() == otherThreadDump.getDictionary()) {
+                return stack == otherThreadDump.getStack(otherIndex);
+            } else {
+                return threadDump.getDictionary().decode(stack).equals(otherThreadDump.getDictionary().decode(otherThreadDump.getStack(otherIndex)));
+            }
+        }
+    }
+}
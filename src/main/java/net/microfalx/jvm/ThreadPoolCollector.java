@@ -0,0 +1,140 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ThreadPoolInformation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Aggregates the Java threads into pools, based on the thread name without the sequence number.
+ * <p>
+ * For each pool, the collector reports the number of threads, the distribution by state, the CPU time and the bytes
+ * allocated (when supported by the JVM) and the blocked/waited counters (when thread contention monitoring is
+ * enabled). The threads and the blocked/waited counters come from a {@link ThreadSampler.Sample}, which can be
+ * shared with other collectors. The CPU time and the bytes allocated by each thread are kept between collections
+ * (keyed by thread identifier) to report the values for the last interval, so the same instance needs to be reused
+ * between collections.
+ * <p>
+ * Only the pools are reported; the per-thread information is used only to calculate the pool values, since it would
+ * be too high cardinality to store.
+ */
+public final class ThreadPoolCollector extends AbstractCollector<Collection<ThreadPoolInformation>> {
+
+    private final ThreadMXBean threadMXBean;
+    private final ThreadSampler threadSampler;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private int generation;
+    private long prevTime;
+
+    public ThreadPoolCollector() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    public ThreadPoolCollector(ThreadMXBean threadMXBean) {
+        requireNonNull(threadMXBean);
+        this.threadMXBean = threadMXBean;
+        this.threadSampler = new ThreadSampler(threadMXBean);
+    }
+
+    @Override
+    public Collection<ThreadPoolInformation> execute() {
+        return execute(threadSampler.sample());
+    }
+
+    /**
+     * Aggregates the threads of a sample into pools.
+     * <p>
+     * The sample is expected to come from the same sampler on every call, so the blocked/waited counters cover
+     * the interval since the previous collection.
+     *
+     * @param sample the threads
+     * @return a non-null instance
+     */
+    public synchronized Collection<ThreadPoolInformation> execute(ThreadSampler.Sample sample) {
+        requireNonNull(sample);
+        long time = System.nanoTime();
+        long duration = prevTime > 0 ? time - prevTime : 0;
+        prevTime = time;
+        generation++;
+        long[] ids = sample.getIds();
+        long[] cpuTimes = getCpuTimes(ids);
+        long[] allocatedBytes = getAllocatedBytes(ids);
+        Map<String, ThreadPoolInformation> pools = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            ThreadInfo threadInfo = sample.getThreadInfo(i);
+            Entry entry = update(threadInfo.getThreadId(), cpuTimes[i], allocatedBytes[i]);
+            String name = VirtualMachineUtils.getThreadGroupName(threadInfo.getThreadName());
+            ThreadPoolInformation pool = pools.computeIfAbsent(name, ThreadPoolInformation::new);
+            pool.setThreads(pool.getThreads() + 1);
+            pool.getStates().merge(threadInfo.getThreadState(), 1, Integer::sum);
+            pool.setCpuTime(pool.getCpuTime() + entry.cpuDelta);
+            pool.setAllocatedBytes(pool.getAllocatedBytes() + entry.allocatedDelta);
+            pool.setBlockedTime(pool.getBlockedTime() + sample.getBlockedTime(i));
+            pool.setBlockedCount(pool.getBlockedCount() + sample.getBlockedCount(i));
+            pool.setWaitedTime(pool.getWaitedTime() + sample.getWaitedTime(i));
+            pool.setWaitedCount(pool.getWaitedCount() + sample.getWaitedCount(i));
+        }
+        entries.values().removeIf(entry -> entry.generation != generation);
+        List<ThreadPoolInformation> result = new ArrayList<>(pools.values());
+        for (ThreadPoolInformation pool : result) {
+            if (duration <= 0) continue;
+            pool.setCpu(100 * (float) pool.getCpuTime() / duration);
+            pool.setAllocationRate((float) pool.getAllocatedBytes() * 1_000_000_000 / duration);
+        }
+        result.sort(Comparator.comparingInt(ThreadPoolInformation::getThreads).reversed());
+        return result;
+    }
+
+    private Entry update(long id, long cpuTime, long allocatedBytes) {
+        Entry entry = entries.get(id);
+        boolean first = entry == null;
+        if (first) {
+            entry = new Entry();
+            entries.put(id, entry);
+        }
+        entry.generation = generation;
+        entry.cpuDelta = first || cpuTime < 0 ? 0 : Math.max(0, cpuTime - entry.cpuTime);
+        entry.allocatedDelta = first || allocatedBytes < 0 ? 0 : Math.max(0, allocatedBytes - entry.allocatedBytes);
+        entry.cpuTime = cpuTime;
+        entry.allocatedBytes = allocatedBytes;
+        return entry;
+    }
+
+    private long[] getCpuTimes(long[] ids) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean && threadMXBean.isThreadCpuTimeEnabled()) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadCpuTime(ids);
+        } else {
+            return unsupported(ids);
+        }
+    }
+
+    private long[] getAllocatedBytes(long[] ids) {
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean internalThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (internalThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return internalThreadMXBean.getThreadAllocatedBytes(ids);
+            }
+        }
+        return unsupported(ids);
+    }
+
+    private static long[] unsupported(long[] ids) {
+        long[] values = new long[ids.length];
+        Arrays.fill(values, -1);
+        return values;
+    }
+
+    private static final class Entry {
+
+        private int generation;
+        private long cpuTime;
+        private long allocatedBytes;
+        private long cpuDelta;
+        private long allocatedDelta;
+    }
+}
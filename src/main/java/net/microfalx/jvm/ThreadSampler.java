@@ -0,0 +1,194 @@
+package net.microfalx.jvm;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Takes a sample of the Java threads (state, lock information and the top frame) once per collection, shared by
+ * all the collectors which need thread information ({@link ThreadPoolCollector}, {@link LockContentionProfiler},
+ * {@link StuckThreadDetector}, {@link NativeThreadCollector}), so the threads are inspected only once.
+ * <p>
+ * The sample also carries the changes of the blocked and waited counters of each thread since the previous sample.
+ * The counters are kept between samples (keyed by thread identifier), so the same instance needs to be reused
+ * between collections.
+ */
+public final class ThreadSampler {
+
+    private static final int STACK_DEPTH = 1;
+
+    private final ThreadMXBean threadMXBean;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private int generation;
+
+    public ThreadSampler() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+
+    public ThreadSampler(ThreadMXBean threadMXBean) {
+        requireNonNull(threadMXBean);
+        this.threadMXBean = threadMXBean;
+    }
+
+    /**
+     * Samples the threads.
+     *
+     * @return a non-null instance
+     */
+    public synchronized Sample sample() {
+        generation++;
+        ThreadInfo[] allThreadInfos = threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), STACK_DEPTH);
+        int count = 0;
+        for (ThreadInfo threadInfo : allThreadInfos) {
+            if (threadInfo != null) allThreadInfos[count++] = threadInfo;
+        }
+        Sample sample = new Sample(count);
+        for (int i = 0; i < count; i++) {
+            ThreadInfo threadInfo = allThreadInfos[i];
+            sample.threadInfos[i] = threadInfo;
+            sample.ids[i] = threadInfo.getThreadId();
+            Entry entry = entries.get(threadInfo.getThreadId());
+            if (entry != null) {
+                sample.blockedTimes[i] = delta(entry.blockedTime, threadInfo.getBlockedTime());
+                sample.blockedCounts[i] = delta(entry.blockedCount, threadInfo.getBlockedCount());
+                sample.waitedTimes[i] = delta(entry.waitedTime, threadInfo.getWaitedTime());
+                sample.waitedCounts[i] = delta(entry.waitedCount, threadInfo.getWaitedCount());
+            } else {
+                entry = new Entry();
+                entries.put(threadInfo.getThreadId(), entry);
+            }
+            entry.generation = generation;
+            entry.blockedTime = threadInfo.getBlockedTime();
+            entry.blockedCount = threadInfo.getBlockedCount();
+            entry.waitedTime = threadInfo.getWaitedTime();
+            entry.waitedCount = threadInfo.getWaitedCount();
+        }
+        entries.values().removeIf(entry -> entry.generation != generation);
+        return sample;
+    }
+
+    private static long delta(long prevValue, long value) {
+        // times are -1 when thread contention monitoring is disabled
+        return prevValue < 0 || value < 0 ? 0 : Math.max(0, value - prevValue);
+    }
+
+    /**
+     * Holds the threads sampled by a collection, with the changes of the blocked and waited counters since the
+     * previous sample (zero the first time a thread is seen).
+     */
+    public static final class Sample {
+
+        private final ThreadInfo[] threadInfos;
+        private final long[] ids;
+        private final long[] blockedTimes;
+        private final long[] blockedCounts;
+        private final long[] waitedTimes;
+        private final long[] waitedCounts;
+
+        private Sample(int count) {
+            this.threadInfos = new ThreadInfo[count];
+            this.ids = new long[count];
+            this.blockedTimes = new long[count];
+            this.blockedCounts = new long[count];
+            this.waitedTimes = new long[count];
+            this.waitedCounts = new long[count];
+        }
+
+        /**
+         * Returns the number of threads.
+         *
+         * @return a positive integer
+         */
+        public int size() {
+            return threadInfos.length;
+        }
+
+        /**
+         * Returns the thread identifiers.
+         *
+         * @return a non-null instance
+         */
+        public long[] getIds() {
+            return ids;
+        }
+
+        /**
+         * Returns the information about a thread, with the top frame only.
+         *
+         * @param index the index of the thread
+         * @return a non-null instance
+         */
+        public ThreadInfo getThreadInfo(int index) {
+            return threadInfos[index];
+        }
+
+        /**
+         * Returns the time a thread was blocked on monitors since the previous sample.
+         *
+         * @param index the index of the thread
+         * @return the time in milliseconds
+         */
+        public long getBlockedTime(int index) {
+            return blockedTimes[index];
+        }
+
+        /**
+         * Returns how many times a thread was blocked on monitors since the previous sample.
+         *
+         * @param index the index of the thread
+         * @return a positive integer
+         */
+        public long getBlockedCount(int index) {
+            return blockedCounts[index];
+        }
+
+        /**
+         * Returns the time a thread waited since the previous sample.
+         *
+         * @param index the index of the thread
+         * @return the time in milliseconds
+         */
+        public long getWaitedTime(int index) {
+            return waitedTimes[index];
+        }
+
+        /**
+         * Returns how many times a thread waited since the previous sample.
+         *
+         * @param index the index of the thread
+         * @return a positive integer
+         */
+        public long getWaitedCount(int index) {
+            return waitedCounts[index];
+        }
+
+        /**
+         * Returns the names of the threads.
+         *
+         * @return a non-null instance
+         */
+        public Collection<String> getThreadNames() {
+            Collection<String> names = new ArrayList<>(threadInfos.length);
+            for (ThreadInfo threadInfo : threadInfos) {
+                names.add(threadInfo.getThreadName());
+            }
+            return names;
+        }
+    }
+
+    private static final class Entry {
+
+        private int generation;
+        private long blockedTime;
+        private long blockedCount;
+        private long waitedTime;
+        private long waitedCount;
+    }
+}
@@ -11,82 +11,245 @@ import oshi.software.os.OSProcess;
 import oshi.software.os.OperatingSystem;
 
 import java.lang.management.*;
+import java.time.Duration;
 import java.util.*;
 
 import static net.microfalx.lang.ArgumentUtils.requireNonNull;
 
 /**
  * Collects information about a Java VM (process).
+ * <p>
+ * The values reported for the last interval (CPU, thread and lock deltas, native threads) are calculated against
+ * the previous collection of the same instance, so the same instance needs to be reused between collections;
+ * separate instances (the metrics scraper, {@link VirtualMachine#get()}) do not affect each other.
  */
 public final class VirtualMachineCollector extends AbstractCollector<VirtualMachine> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VirtualMachineCollector.class);
 
     private static final String OPERATING_SYSTEM_NAME = "java.lang:type=OperatingSystem";
+    private static final long SYSTEM_MEMORY_INTERVAL = Duration.ofMinutes(1).toMillis();
+
+    // the counters are cumulative and the tracker listens to the GC notifications of the JVM, so it is shared
+    private static final GarbageCollectionTracker garbageCollectionTracker = new GarbageCollectionTracker();
 
     private final VirtualMachineMBeanServer machineMBeanServer;
     private final SystemInfo systemInfo = new SystemInfo();
-
-    private static volatile CpuTime prevCpuTime;
+    private final SocketCollector socketCollector = new SocketCollector();
+    private final FileDescriptorTracker fileDescriptorTracker = new FileDescriptorTracker();
+    private final ThreadSampler threadSampler = new ThreadSampler();
+    private final NativeThreadCollector nativeThreadCollector = new NativeThreadCollector();
+    private final ThreadPoolCollector threadPoolCollector = new ThreadPoolCollector();
+    private final LockContentionProfiler lockContentionProfiler = new LockContentionProfiler();
+    private final StuckThreadDetector stuckThreadDetector = new StuckThreadDetector();
+
+    private volatile CpuTime prevCpuTime;
+    private volatile SocketInventory sockets;
+    private final long[] systemMemory = new long[4];
+    private long systemMemoryTime;
+
+    private List<MemoryPoolMXBean> memoryPoolMXBeans;
+    private List<GarbageCollectorMXBean> garbageCollectorMXBeans;
+    private List<BufferPoolMXBean> bufferPoolMXBeans;
+    private String[][] garbageCollectorPoolNames;
 
     public VirtualMachineCollector(VirtualMachineMBeanServer machineMBeanServer) {
         requireNonNull(machineMBeanServer);
         this.machineMBeanServer = machineMBeanServer;
     }
 
+    /**
+     * Returns the lock contention profiler used by this collector for the current JVM.
+     *
+     * @return a non-null instance
+     */
+    public LockContentionProfiler getLockContentionProfiler() {
+        return lockContentionProfiler;
+    }
+
+    /**
+     * Returns the detector for deadlocked and stuck threads used by this collector for the current JVM.
+     *
+     * @return a non-null instance
+     */
+    public StuckThreadDetector getStuckThreadDetector() {
+        return stuckThreadDetector;
+    }
+
     public VirtualMachine execute() {
-        VirtualMachine vm = new VirtualMachine();
+        return execute(new VirtualMachine());
+    }
+
+    /**
+     * Collects the information into an existing instance, usually returned by a previous collection.
+     * <p>
+     * The memory pools, garbage collectors and buffer pools of the instance are updated in place when they match
+     * the pools of the JVM, the other parts (process, threads, runtime) are replaced. The caller owns the instance
+     * and must not read it while the collection is in progress; to publish a snapshot to other threads while the
+     * next one is collected, alternate between (at least) two instances.
+     *
+     * @param vm the instance to fill
+     * @return the same instance
+     */
+    public VirtualMachine execute(VirtualMachine vm) {
+        requireNonNull(vm);
         try (Timer ignored = VirtualMachineUtils.METRICS.startTimer("Collect VM")) {
             vm.setLocal(machineMBeanServer.isLocal());
+            Collection<String> fileDescriptors = listFileDescriptors();
+            ThreadSampler.Sample threadSample = sampleThreads();
             collectPid(vm);
-            collectProcess(vm);
+            collectProcess(vm, fileDescriptors);
             collectMemoryStats(vm);
             collectGarbageCollection(vm);
             collectBufferPools(vm);
             collectRuntimeInformation(vm);
-            collectThreadInformation(vm);
-            if (!isMetadata()) collectThreadDumps(vm);
+            collectThreadInformation(vm, threadSample);
+            if (!isMetadata()) collectThreadDumps(vm, threadSample);
+            if (!isMetadata()) collectSockets(vm, fileDescriptors);
+            if (!isMetadata()) collectNativeThreads(vm, threadSample);
         }
         return vm;
     }
 
     public void collectBufferPools(VirtualMachine virtualMachine) {
-        Collection<BufferPoolMXBean> bufferPoolMXBeans = machineMBeanServer.getPlatformMXBeans(BufferPoolMXBean.class);
-        Collection<BufferPool> bufferPools = new ArrayList<>();
-        for (BufferPoolMXBean bufferPoolMXBean : bufferPoolMXBeans) {
+        List<BufferPoolMXBean> bufferPoolMXBeans = getBufferPoolMXBeans();
+        List<BufferPool> bufferPools = reuse(virtualMachine.getBufferPools(), bufferPoolMXBeans.size());
+        for (int i = 0; i < bufferPoolMXBeans.size(); i++) {
+            BufferPoolMXBean bufferPoolMXBean = bufferPoolMXBeans.get(i);
             BufferPool.Type type = guessBufferPoolType(bufferPoolMXBean);
-            bufferPools.add(new BufferPool(type, (int) bufferPoolMXBean.getCount(), bufferPoolMXBean.getTotalCapacity(), bufferPoolMXBean.getMemoryUsed()));
+            if (i < bufferPools.size()) {
+                BufferPool bufferPool = bufferPools.get(i);
+                bufferPool.setType(type);
+                bufferPool.setCount((int) bufferPoolMXBean.getCount());
+                bufferPool.setMaximum(bufferPoolMXBean.getTotalCapacity());
+                bufferPool.setUsed(bufferPoolMXBean.getMemoryUsed());
+            } else {
+                bufferPools.add(new BufferPool(type, (int) bufferPoolMXBean.getCount(), bufferPoolMXBean.getTotalCapacity(), bufferPoolMXBean.getMemoryUsed()));
+            }
         }
         virtualMachine.setBufferPools(bufferPools);
     }
 
     public void collectGarbageCollection(VirtualMachine virtualMachine) {
-        Collection<GarbageCollection> stats = new ArrayList<>();
-        Collection<GarbageCollectorMXBean> garbageCollectorMXBeans = machineMBeanServer.getPlatformMXBeans(GarbageCollectorMXBean.class);
-        for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans) {
+        List<GarbageCollectorMXBean> garbageCollectorMXBeans = getGarbageCollectorMXBeans();
+        List<GarbageCollection> stats = reuse(virtualMachine.getGarbageCollections(), garbageCollectorMXBeans.size());
+        for (int i = 0; i < garbageCollectorMXBeans.size(); i++) {
+            GarbageCollectorMXBean garbageCollectorMXBean = garbageCollectorMXBeans.get(i);
             GarbageCollection.Type type = guessGarbageCollectorType(garbageCollectorMXBean);
-            stats.add(new GarbageCollection(type, (int) garbageCollectorMXBean.getCollectionCount(), (int) garbageCollectorMXBean.getCollectionTime()));
+            if (i < stats.size()) {
+                GarbageCollection garbageCollection = stats.get(i);
+                garbageCollection.setType(type);
+                garbageCollection.setCount((int) garbageCollectorMXBean.getCollectionCount());
+                garbageCollection.setDuration(garbageCollectorMXBean.getCollectionTime());
+            } else {
+                stats.add(new GarbageCollection(type, garbageCollectorMXBean.getCollectionTime(), (int) garbageCollectorMXBean.getCollectionCount()));
+            }
         }
         virtualMachine.setGarbageCollections(stats);
+        if (machineMBeanServer.isLocal()) {
+            garbageCollectionTracker.start();
+            virtualMachine.setAllocatedMemory(garbageCollectionTracker.getAllocatedBytes());
+            virtualMachine.setPromotedMemory(garbageCollectionTracker.getPromotedBytes());
+            virtualMachine.setSurvivorOverflows(garbageCollectionTracker.getSurvivorOverflows());
+        }
     }
 
-    private void collectMemoryStats(VirtualMachine virtualMachine) {
-        Collection<MemoryPoolMXBean> memoryPoolMXBeans = machineMBeanServer.getPlatformMXBeans(MemoryPoolMXBean.class);
-        Collection<MemoryPool> memoryPools = new ArrayList<>();
-        for (MemoryPoolMXBean memoryPoolMXBean : memoryPoolMXBeans) {
+    void collectMemoryStats(VirtualMachine virtualMachine) {
+        List<MemoryPoolMXBean> memoryPoolMXBeans = getMemoryPoolMXBeans();
+        List<MemoryPool> memoryPools = reuse(virtualMachine.getMemoryPools(), memoryPoolMXBeans.size());
+        for (int i = 0; i < memoryPoolMXBeans.size(); i++) {
+            MemoryPoolMXBean memoryPoolMXBean = memoryPoolMXBeans.get(i);
             MemoryUsage memoryUsage = memoryPoolMXBean.getUsage();
             MemoryPool.Type memoryType = guessMemoryType(memoryPoolMXBean);
-            MemoryPool memoryPool = new MemoryPool(memoryType, memoryUsage.getMax(), memoryUsage.getCommitted(), memoryUsage.getUsed(), memoryUsage.getCommitted());
-            memoryPools.add(memoryPool);
+            long collectionUsed = -1;
+            // the usage after a collection is reported as zero until a collector which manages the pool runs
+            if (isCollected(memoryPoolMXBean.getName())) {
+                MemoryUsage collectionUsage = memoryPoolMXBean.getCollectionUsage();
+                if (collectionUsage != null) collectionUsed = collectionUsage.getUsed();
+            }
+            if (i < memoryPools.size()) {
+                MemoryPool memoryPool = memoryPools.get(i);
+                memoryPool.setType(memoryType);
+                memoryPool.setMaximum(memoryUsage.getMax());
+                memoryPool.setCapacity(memoryUsage.getCommitted());
+                memoryPool.setUsed(memoryUsage.getUsed());
+                memoryPool.setCommitted(memoryUsage.getCommitted());
+                memoryPool.setCollectionUsed(collectionUsed);
+                memoryPool.setTimestamp(System.currentTimeMillis());
+            } else {
+                memoryPools.add(new MemoryPool(memoryType, memoryUsage.getMax(), memoryUsage.getCommitted(), memoryUsage.getUsed(),
+                        memoryUsage.getCommitted(), collectionUsed));
+            }
         }
         virtualMachine.setMemoryPools(memoryPools);
     }
 
+    /**
+     * Returns whether a memory pool is managed by a collector which ran at least once.
+     */
+    private boolean isCollected(String memoryPoolName) {
+        List<GarbageCollectorMXBean> garbageCollectorMXBeans = getGarbageCollectorMXBeans();
+        for (int i = 0; i < garbageCollectorMXBeans.size(); i++) {
+            GarbageCollectorMXBean garbageCollectorMXBean = garbageCollectorMXBeans.get(i);
+            if (garbageCollectorMXBean.getCollectionCount() <= 0) continue;
+            for (String name : getMemoryPoolNames(garbageCollectorMXBean, i)) {
+                if (name.equals(memoryPoolName)) return true;
+            }
+        }
+        return false;
+    }
+
+    private String[] getMemoryPoolNames(GarbageCollectorMXBean garbageCollectorMXBean, int index) {
+        // the pools managed by a collector do not change, but the bean returns a copy on every call
+        if (!machineMBeanServer.isLocal()) return garbageCollectorMXBean.getMemoryPoolNames();
+        if (garbageCollectorPoolNames == null) {
+            String[][] poolNames = new String[getGarbageCollectorMXBeans().size()][];
+            for (int i = 0; i < poolNames.length; i++) {
+                poolNames[i] = getGarbageCollectorMXBeans().get(i).getMemoryPoolNames();
+            }
+            garbageCollectorPoolNames = poolNames;
+        }
+        return garbageCollectorPoolNames[index];
+    }
+
+    /**
+     * Returns the list to fill with the values of the current collection: the previous list, if it has the same
+     * size (the same pools), or a new empty list.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> reuse(Collection<T> previous, int size) {
+        if (previous instanceof ArrayList && previous.size() == size) return (List<T>) previous;
+        return new ArrayList<>(size);
+    }
+
+    private List<MemoryPoolMXBean> getMemoryPoolMXBeans() {
+        // the pools of the local JVM do not change, the beans of a remote JVM are bound to the current connection
+        if (memoryPoolMXBeans != null) return memoryPoolMXBeans;
+        List<MemoryPoolMXBean> beans = new ArrayList<>(machineMBeanServer.getPlatformMXBeans(MemoryPoolMXBean.class));
+        if (machineMBeanServer.isLocal()) memoryPoolMXBeans = beans;
+        return beans;
+    }
+
+    private List<GarbageCollectorMXBean> getGarbageCollectorMXBeans() {
+        if (garbageCollectorMXBeans != null) return garbageCollectorMXBeans;
+        List<GarbageCollectorMXBean> beans = new ArrayList<>(machineMBeanServer.getPlatformMXBeans(GarbageCollectorMXBean.class));
+        if (machineMBeanServer.isLocal()) garbageCollectorMXBeans = beans;
+        return beans;
+    }
+
+    private List<BufferPoolMXBean> getBufferPoolMXBeans() {
+        if (bufferPoolMXBeans != null) return bufferPoolMXBeans;
+        List<BufferPoolMXBean> beans = new ArrayList<>(machineMBeanServer.getPlatformMXBeans(BufferPoolMXBean.class));
+        if (machineMBeanServer.isLocal()) bufferPoolMXBeans = beans;
+        return beans;
+    }
+
     private void collectRuntimeInformation(VirtualMachine virtualMachine) {
         OperatingSystemMXBean operatingSystemMXBean = machineMBeanServer.getPlatformMXBean(OperatingSystemMXBean.class);
         RuntimeMXBean runtimeMXBean = machineMBeanServer.getPlatformMXBean(RuntimeMXBean.class);
 
-        RuntimeInformation runtimeInformation = new RuntimeInformation();
+        RuntimeInformation runtimeInformation = virtualMachine.getRuntimeInformation();
+        if (runtimeInformation == null) runtimeInformation = new RuntimeInformation();
         runtimeInformation.setOsName(operatingSystemMXBean.getName());
         runtimeInformation.setOsVersion(operatingSystemMXBean.getVersion());
         runtimeInformation.setStartTime(runtimeMXBean.getStartTime());
@@ -97,7 +260,16 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
         Process process = virtualMachine.getProcess();
         process.setCpuTotal((float) internalOperatingSystemMXBean.getProcessCpuLoad() * 100);
 
-        try {
+        if (machineMBeanServer.isLocal()) {
+            // the attributes are available directly, without the (expensive) lookup through the MBean server
+            runtimeInformation.setCommittedVirtualMemorySize(internalOperatingSystemMXBean.getCommittedVirtualMemorySize());
+            updateSystemMemory(internalOperatingSystemMXBean);
+            runtimeInformation.setFreePhysicalMemorySize(systemMemory[0]);
+            runtimeInformation.setFreeSwapSpaceSize(systemMemory[1]);
+            runtimeInformation.setTotalPhysicalMemorySize(systemMemory[2]);
+            runtimeInformation.setTotalSwapSpaceSize(systemMemory[3]);
+            runtimeInformation.setProcessCpuTime(internalOperatingSystemMXBean.getProcessCpuTime());
+        } else try {
             runtimeInformation.setCommittedVirtualMemorySize(machineMBeanServer.getLongAttr(OPERATING_SYSTEM_NAME, "CommittedVirtualMemorySize", 0L));
             runtimeInformation.setFreePhysicalMemorySize(machineMBeanServer.getLongAttr(OPERATING_SYSTEM_NAME, "FreePhysicalMemorySize", 0L));
             runtimeInformation.setFreeSwapSpaceSize(machineMBeanServer.getLongAttr(OPERATING_SYSTEM_NAME, "FreeSwapSpaceSize", 0L));
@@ -110,18 +282,79 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
         virtualMachine.setRuntimeInformation(runtimeInformation);
     }
 
-    private void collectThreadInformation(VirtualMachine virtualMachine) {
+    private void updateSystemMemory(com.sun.management.OperatingSystemMXBean operatingSystemMXBean) {
+        // the memory of the system is reported on every scrape by the server metrics and, inside a container, each
+        // value is read from the cgroup files, so the values are refreshed on a slower cadence
+        long time = System.currentTimeMillis();
+        if (systemMemoryTime > 0 && time - systemMemoryTime < SYSTEM_MEMORY_INTERVAL) return;
+        systemMemoryTime = time;
+        systemMemory[0] = operatingSystemMXBean.getFreePhysicalMemorySize();
+        systemMemory[1] = operatingSystemMXBean.getFreeSwapSpaceSize();
+        systemMemory[2] = operatingSystemMXBean.getTotalPhysicalMemorySize();
+        systemMemory[3] = operatingSystemMXBean.getTotalSwapSpaceSize();
+    }
+
+    private ThreadSampler.Sample sampleThreads() {
+        if (isMetadata() || !machineMBeanServer.isLocal()) return null;
+        return threadSampler.sample();
+    }
+
+    private void collectThreadInformation(VirtualMachine virtualMachine, ThreadSampler.Sample threadSample) {
         ThreadMXBean threadMXBean = machineMBeanServer.getPlatformMXBean(ThreadMXBean.class);
         ThreadInformation threadInformation = new ThreadInformation();
         threadInformation.setDaemon(threadMXBean.getDaemonThreadCount());
         threadInformation.setNonDaemon(threadMXBean.getThreadCount() - threadMXBean.getDaemonThreadCount());
+        if (threadSample != null) {
+            threadInformation.setPools(threadPoolCollector.execute(threadSample));
+            lockContentionProfiler.update(threadInformation, threadSample);
+        }
         virtualMachine.setThreadInformation(threadInformation);
     }
 
-    private void collectThreadDumps(VirtualMachine virtualMachine) {
-        if (!machineMBeanServer.isLocal()) return;
+    private void collectThreadDumps(VirtualMachine virtualMachine, ThreadSampler.Sample threadSample) {
+        if (threadSample == null) return;
         ThreadDump threadDump = new ThreadDump();
         virtualMachine.setThreadDump(threadDump);
+        virtualMachine.setThreadReport(stuckThreadDetector.update(threadSample));
+    }
+
+    private boolean isFileDescriptorsTracked() {
+        return !isMetadata() && machineMBeanServer.isLocal() && LinuxUtils.isLinux();
+    }
+
+    private Collection<String> listFileDescriptors() {
+        // one readlink per descriptor, so the descriptors are listed only when they are classified
+        if (!isFileDescriptorsTracked() || !fileDescriptorTracker.isClassificationDue()) return null;
+        return LinuxUtils.readLinks(LinuxUtils.PROC.resolve("self").resolve("fd"));
+    }
+
+    private void collectSockets(VirtualMachine virtualMachine, Collection<String> fileDescriptors) {
+        // the sockets are matched against the descriptors, so the inventory follows the cadence of the listing
+        if (fileDescriptors != null) sockets = socketCollector.execute(fileDescriptors);
+        if (sockets != null) virtualMachine.setSockets(sockets);
+    }
+
+    private void collectNativeThreads(VirtualMachine virtualMachine, ThreadSampler.Sample threadSample) {
+        if (threadSample == null || !LinuxUtils.isLinux()) return;
+        Collection<NativeThreadGroup> groups = nativeThreadCollector.execute(threadSample);
+        virtualMachine.setNativeThreadGroups(groups);
+        Process process = virtualMachine.getProcess();
+        if (process == null) return;
+        for (NativeThreadGroup group : groups) {
+            switch (group.getCategory()) {
+                case GC:
+                    process.setCpuGc(process.getCpuGc() + group.getCpu());
+                    break;
+                case COMPILER:
+                    process.setCpuCompiler(process.getCpuCompiler() + group.getCpu());
+                    break;
+                case VM:
+                    process.setCpuVm(process.getCpuVm() + group.getCpu());
+                    break;
+                default:
+                    process.setCpuApplication(process.getCpuApplication() + group.getCpu());
+            }
+        }
     }
 
     private void collectPid(VirtualMachine virtualMachine) {
@@ -141,7 +374,7 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
         }
     }
 
-    private void collectProcess(VirtualMachine virtualMachine) {
+    private void collectProcess(VirtualMachine virtualMachine, Collection<String> fileDescriptors) {
         if (!machineMBeanServer.isLocal()) return;
         Process process = new Process();
         process.setPid((int) ProcessHandle.current().pid());
@@ -161,7 +394,7 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
 
             process.setMemoryVirtual(osProcess.getVirtualSize());
             process.setMemoryResident(osProcess.getResidentMemory());
-            process.setFileDescriptors((int) osProcess.getOpenFiles());
+            process.setFileDescriptors(fileDescriptors != null ? fileDescriptors.size() : (int) osProcess.getOpenFiles());
             process.setThreads(osProcess.getThreadCount());
             process.setStartupTime(osProcess.getStartTime());
             process.setUptime(osProcess.getUpTime());
@@ -170,11 +403,19 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
             process.setMinorFaults(osProcess.getMinorFaults());
             process.setMajorFaults(osProcess.getMajorFaults());
         }
+        if (fileDescriptors != null) {
+            fileDescriptorTracker.update(process, fileDescriptors);
+        } else if (isFileDescriptorsTracked()) {
+            fileDescriptorTracker.update(process);
+        }
         virtualMachine.setProcess(process);
     }
 
     private MemoryPool.Type guessMemoryType(MemoryPoolMXBean memoryPoolMXBean) {
-        String name = memoryPoolMXBean.getName();
+        return guessMemoryType(memoryPoolMXBean.getName());
+    }
+
+    static MemoryPool.Type guessMemoryType(String name) {
         if (edenMemoryPools.contains(name)) {
             return MemoryPool.Type.EDEN;
         } else if (tenureMemoryPools.contains(name)) {
@@ -197,7 +438,10 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
     }
 
     private GarbageCollection.Type guessGarbageCollectorType(GarbageCollectorMXBean garbageCollectorMXBean) {
-        String name = garbageCollectorMXBean.getName();
+        return guessGarbageCollectorType(garbageCollectorMXBean.getName());
+    }
+
+    static GarbageCollection.Type guessGarbageCollectorType(String name) {
         if (edenGCNames.contains(name)) {
             return GarbageCollection.Type.EDEN;
         } else if (tenuredGCNames.contains(name)) {
@@ -272,12 +516,14 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
         tenuredGCNames.add("ZGC Major Pauses");
         tenuredGCNames.add("global");
 
+        survivorPools.add("Survivor Space");
         survivorPools.add("PS Survivor Space");
         survivorPools.add("Par Survivor Space");
         survivorPools.add("G1 Survivor Space");
         survivorPools.add("nursery-survivor");
         survivorPools.add("balanced-survivor");
 
+        edenMemoryPools.add("Eden Space");
         edenMemoryPools.add("PS Eden Space");
         edenMemoryPools.add("Par Eden Space");
         edenMemoryPools.add("G1 Eden Space");
@@ -285,6 +531,7 @@ public final class VirtualMachineCollector extends AbstractCollector<VirtualMach
         edenMemoryPools.add("nursery-allocate");
         edenMemoryPools.add("balanced-eden");
 
+        tenureMemoryPools.add("Tenured Gen");
         tenureMemoryPools.add("PS Old Gen");
         tenureMemoryPools.add("CMS Old Gen");
         tenureMemoryPools.add("G1 Old Gen");
@@ -1,16 +1,24 @@
 package net.microfalx.jvm;
 
+import lombok.Getter;
+import net.microfalx.jvm.model.ExhaustionForecast;
 import net.microfalx.jvm.model.GarbageCollection;
+import net.microfalx.jvm.model.MemoryPool;
+import net.microfalx.jvm.model.NativeThreadGroup;
 import net.microfalx.jvm.model.Process;
+import net.microfalx.jvm.model.SocketInventory;
+import net.microfalx.jvm.model.Statistics;
 import net.microfalx.jvm.model.ThreadInformation;
+import net.microfalx.jvm.model.ThreadPoolInformation;
 import net.microfalx.jvm.model.VirtualMachine;
+import net.microfalx.lang.StringUtils;
 import net.microfalx.metrics.Batch;
 import net.microfalx.metrics.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.DoubleSummaryStatistics;
-import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A singleton class which collects JVM metrics and stores them in the store.
@@ -23,9 +31,23 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     private final VirtualMachineCollector collector = new VirtualMachineCollector(VirtualMachineMBeanServer.local());
 
     private volatile VirtualMachine last = new VirtualMachine();
-    private final DoubleSummaryStatistics cpuStatistics = new DoubleSummaryStatistics();
-    private final LongSummaryStatistics heapStatistics = new LongSummaryStatistics();
-    private final LongSummaryStatistics nonHeapStatistics = new LongSummaryStatistics();
+    private volatile boolean reuseSnapshots;
+    private final VirtualMachine[] snapshots = new VirtualMachine[2];
+    private int snapshotIndex;
+    private final WindowedStatistics cpuStatistics = new WindowedStatistics();
+    private final WindowedStatistics heapStatistics = new WindowedStatistics();
+    private final WindowedStatistics nonHeapStatistics = new WindowedStatistics();
+    private final ExhaustionEstimator liveSetEstimator = new ExhaustionEstimator();
+    private final LoadAverage cpuLoadAverage = new LoadAverage();
+    private final LoadAverage heapLoadAverage = new LoadAverage();
+    private final LoadAverage gcLoadAverage = new LoadAverage();
+    private final LoadAverage threadLoadAverage = new LoadAverage();
+    private final LoadAverage allocationLoadAverage = new LoadAverage();
+    private long prevTimestamp = -1;
+    private long prevGcDuration;
+    private long prevAllocatedMemory;
+    private long prevLiveSetGcCount = -1;
+    private long prevLiveSet = -1;
 
     /**
      * Returns the global instance.
@@ -37,12 +59,22 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     }
 
     /**
-     * Returns the average used CPU since startup.
+     * Returns the average used CPU during the last hour.
      *
      * @return the CPU, between 0 and 100
      */
     public float getAverageCpu() {
-        return (float) cpuStatistics.getAverage();
+        return (float) cpuStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
+    }
+
+    /**
+     * Returns statistics about the used CPU during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getCpuStatistics(WindowedStatistics.Window window) {
+        return cpuStatistics.getStatistics(window);
     }
 
     /**
@@ -55,7 +87,7 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     }
 
     /**
-     * Returns the average memory usage.
+     * Returns the average memory usage during the last hour.
      *
      * @return the value in bytes
      */
@@ -73,12 +105,22 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     }
 
     /**
-     * Returns the average HEAP usage.
+     * Returns the average HEAP usage during the last hour.
      *
      * @return the value in bytes
      */
     public long getHeapMemoryAverage() {
-        return (long) heapStatistics.getAverage();
+        return (long) heapStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
+    }
+
+    /**
+     * Returns statistics about the HEAP usage during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getHeapMemoryStatistics(WindowedStatistics.Window window) {
+        return heapStatistics.getStatistics(window);
     }
 
     /**
@@ -91,12 +133,106 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     }
 
     /**
-     * Returns the average NON_HEAP usage.
+     * Returns the average NON_HEAP usage during the last hour.
      *
      * @return the value in bytes
      */
     public long getNonHeapMemoryAverage() {
-        return (long) nonHeapStatistics.getAverage();
+        return (long) nonHeapStatistics.getAverage(WindowedStatistics.Window.ONE_HOUR);
+    }
+
+    /**
+     * Returns statistics about the NON_HEAP usage during a recent window.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getNonHeapMemoryStatistics(WindowedStatistics.Window window) {
+        return nonHeapStatistics.getStatistics(window);
+    }
+
+    /**
+     * Returns the 1, 5 and 15 minutes moving averages of the used CPU (between 0 and 100).
+     *
+     * @return a non-null instance
+     */
+    public LoadAverage getCpuLoadAverage() {
+        return cpuLoadAverage;
+    }
+
+    /**
+     * Returns the 1, 5 and 15 minutes moving averages of the HEAP usage (in bytes).
+     *
+     * @return a non-null instance
+     */
+    public LoadAverage getHeapLoadAverage() {
+        return heapLoadAverage;
+    }
+
+    /**
+     * Returns the 1, 5 and 15 minutes moving averages of the time spent in garbage collection (between 0 and 100).
+     *
+     * @return a non-null instance
+     */
+    public LoadAverage getGcLoadAverage() {
+        return gcLoadAverage;
+    }
+
+    /**
+     * Returns the 1, 5 and 15 minutes moving averages of the number of threads.
+     *
+     * @return a non-null instance
+     */
+    public LoadAverage getThreadLoadAverage() {
+        return threadLoadAverage;
+    }
+
+    /**
+     * Returns the 1, 5 and 15 minutes moving averages of the allocation rate (in bytes per second).
+     *
+     * @return a non-null instance
+     */
+    public LoadAverage getAllocationLoadAverage() {
+        return allocationLoadAverage;
+    }
+
+    /**
+     * Returns the prediction of when the live set (tenured memory used after a collection) reaches the maximum
+     * size of the tenured memory pool.
+     *
+     * @return a non-null instance
+     */
+    public ExhaustionForecast getHeapExhaustion() {
+        return liveSetEstimator.forecast(getTenuredMemoryMaximum(last));
+    }
+
+    /**
+     * Returns whether the scrapes fill reusable snapshots instead of creating new ones.
+     *
+     * @return {@code true} if snapshots are reused, {@code false} otherwise
+     */
+    public boolean isReuseSnapshots() {
+        return reuseSnapshots;
+    }
+
+    /**
+     * Changes whether the scrapes fill reusable snapshots instead of creating new ones.
+     * <p>
+     * When enabled, two snapshots are filled alternately (see {@link VirtualMachineCollector#execute(VirtualMachine)}),
+     * which avoids recreating the memory, garbage collector and buffer pools on every scrape. The instance returned
+     * by {@link #getLast()} stays unchanged during the next scrape and is overwritten by the one after it, so callers
+     * which keep it longer than a scrape interval must copy the values they need.
+     * <p>
+     * The scrape is not allocation free: the memory pool beans return new usage objects, the process (read with
+     * OSHI), thread and socket information and the batch (kept by the store) are still created on every scrape, and
+     * the {@link ServerMetrics server scrape} does not reuse snapshots.
+     *
+     * @param reuseSnapshots {@code true} to reuse snapshots, {@code false} otherwise
+     * @return self
+     */
+    public VirtualMachineMetrics setReuseSnapshots(boolean reuseSnapshots) {
+        this.reuseSnapshots = reuseSnapshots;
+        return this;
     }
 
     /**
@@ -116,12 +252,17 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
 
     @Override
     protected void collectMetrics(Batch batch) {
-        VirtualMachine virtualMachine = collector.execute();
+        VirtualMachine virtualMachine = reuseSnapshots ? collector.execute(nextSnapshot()) : collector.execute();
         collectMemory(virtualMachine, batch);
         collectCpu(virtualMachine, batch);
         collectGc(virtualMachine, batch);
         collectThread(virtualMachine, batch);
         collectIo(virtualMachine, batch);
+        collectSockets(virtualMachine, batch);
+        collectFileDescriptors(virtualMachine, batch);
+        collectRunQueue(virtualMachine, batch);
+        collectExhaustion(virtualMachine, batch);
+        batch.add(MEMORY_HEAP_PRESSURE, HeapPressureMonitor.get().getLevel().ordinal());
         updateStatistics(virtualMachine);
         this.last = virtualMachine;
     }
@@ -135,6 +276,54 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
         batch.add(MEMORY_EDEN_MAX, vm.getEdenMemoryPool().getMaximum());
         batch.add(MEMORY_TENURED_MAX, vm.getTenuredMemoryPool().getMaximum());
         batch.add(MEMORY_TENURED_USED, vm.getTenuredMemoryPool().getUsed());
+        MemoryPool tenured = vm.getTenuredMemoryPool();
+        if (tenured.getCollectionUsed() >= 0) batch.add(MEMORY_TENURED_LIVE, tenured.getCollectionUsed());
+    }
+
+    private VirtualMachine nextSnapshot() {
+        snapshotIndex = (snapshotIndex + 1) % snapshots.length;
+        if (snapshots[snapshotIndex] == null) snapshots[snapshotIndex] = new VirtualMachine();
+        return snapshots[snapshotIndex];
+    }
+
+    private void collectExhaustion(VirtualMachine vm, Batch batch) {
+        if (!updateLiveSet(vm)) return;
+        ExhaustionForecast forecast = liveSetEstimator.forecast(getTenuredMemoryMaximum(vm));
+        if (forecast.isExhausting()) batch.add(MEMORY_TENURED_EXHAUSTION, forecast.getTimeToExhaustion());
+    }
+
+    /**
+     * Registers the live set with the estimator, once per collection.
+     * <p>
+     * The live set changes only after a collection; a sample per scrape would weight idle periods and the zero
+     * reported before the first collection would look like growth.
+     *
+     * @param vm the snapshot
+     * @return {@code true} if a live set is available, {@code false} otherwise
+     */
+    boolean updateLiveSet(VirtualMachine vm) {
+        long liveSet = vm.getTenuredMemoryPool().getCollectionUsed();
+        if (liveSet <= 0) return false;
+        long gcCount = getGarbageCollectionCount(vm);
+        if (gcCount != prevLiveSetGcCount || liveSet != prevLiveSet) {
+            liveSetEstimator.update(System.currentTimeMillis(), liveSet);
+            prevLiveSetGcCount = gcCount;
+            prevLiveSet = liveSet;
+        }
+        return true;
+    }
+
+    private static long getGarbageCollectionCount(VirtualMachine vm) {
+        long count = 0;
+        for (GarbageCollection garbageCollection : vm.getGarbageCollections()) {
+            count += garbageCollection.getCount();
+        }
+        return count;
+    }
+
+    private static long getTenuredMemoryMaximum(VirtualMachine vm) {
+        long maximum = vm.getTenuredMemoryPool().getMaximum();
+        return maximum > 0 ? maximum : vm.getHeapTotalMemory();
     }
 
     private static void collectCpu(VirtualMachine vm, Batch batch) {
@@ -143,6 +332,10 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
         batch.add(CPU_USER, process.getCpuUser());
         batch.add(CPU_SYSTEM, process.getCpuSystem());
         batch.add(CPU_IO_WAIT, process.getCpuIoWait());
+        batch.add(CPU_APPLICATION, process.getCpuApplication());
+        batch.add(CPU_GC, process.getCpuGc());
+        batch.add(CPU_COMPILER, process.getCpuCompiler());
+        batch.add(CPU_VM, process.getCpuVm());
     }
 
     private static void collectThread(VirtualMachine vm, Batch batch) {
@@ -150,6 +343,29 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
         batch.add(THREAD, vm.getProcess().getThreads());
         batch.add(THREAD_DAEMON, threadInformation.getDaemon());
         batch.add(THREAD_NON_DAEMON, threadInformation.getNonDaemon());
+        batch.add(THREAD_BLOCKED_COUNT, threadInformation.getBlockedCount());
+        batch.add(THREAD_BLOCKED_TIME, threadInformation.getBlockedTime());
+        batch.add(THREAD_WAITED_COUNT, threadInformation.getWaitedCount());
+        batch.add(THREAD_WAITED_TIME, threadInformation.getWaitedTime());
+        if (vm.getThreadReport() != null) {
+            batch.add(THREAD_DEADLOCKED, vm.getThreadReport().getDeadlockedThreads().size());
+            batch.add(THREAD_STUCK, vm.getThreadReport().getStuckThreads().size());
+        }
+        int count = 0;
+        for (ThreadPoolInformation pool : threadInformation.getPools()) {
+            // pools are sorted by size, only the largest pools are published to bound the number of metrics
+            if (count++ >= MAX_THREAD_POOL_METRICS) break;
+            ThreadPoolMetrics metrics = threadPoolMetrics.computeIfAbsent(pool.getName(), ThreadPoolMetrics::new);
+            batch.add(metrics.getThreads(), pool.getThreads());
+            batch.add(metrics.getBusy(), pool.getBusy());
+            batch.add(metrics.getRunnable(), pool.getCount(Thread.State.RUNNABLE));
+            batch.add(metrics.getBlocked(), pool.getCount(Thread.State.BLOCKED));
+            batch.add(metrics.getWaiting(), pool.getCount(Thread.State.WAITING) + pool.getCount(Thread.State.TIMED_WAITING));
+            batch.add(metrics.getCpu(), pool.getCpu());
+            batch.add(metrics.getAllocationRate(), pool.getAllocationRate());
+            batch.add(metrics.getBlockedTime(), pool.getBlockedTime());
+            batch.add(metrics.getWaitedTime(), pool.getWaitedTime());
+        }
     }
 
     private static void collectGc(VirtualMachine vm, Batch batch) {
@@ -159,6 +375,9 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
         GarbageCollection tenured = vm.getGarbageCollection(GarbageCollection.Type.TENURED);
         batch.add(GC_TENURED_COUNT, tenured.getCount());
         batch.add(GC_TENURED_DURATION, tenured.getDuration());
+        batch.add(GC_ALLOCATED, vm.getAllocatedMemory());
+        batch.add(GC_PROMOTED, vm.getPromotedMemory());
+        batch.add(GC_SURVIVOR_OVERFLOWS, vm.getSurvivorOverflows());
     }
 
     private static void collectIo(VirtualMachine vm, Batch batch) {
@@ -167,14 +386,82 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
         batch.add(IO_WRITE_BYTES, process.getBytesWritten());
     }
 
+    private static void collectSockets(VirtualMachine vm, Batch batch) {
+        SocketInventory sockets = vm.getSockets();
+        if (sockets == null) return;
+        batch.add(SOCKET_TOTAL, sockets.getTotal());
+        batch.add(SOCKET_ESTABLISHED, sockets.getCount(SocketInventory.State.ESTABLISHED));
+        batch.add(SOCKET_CLOSE_WAIT, sockets.getCount(SocketInventory.State.CLOSE_WAIT));
+        batch.add(SOCKET_TIME_WAIT, sockets.getCount(SocketInventory.State.TIME_WAIT));
+        batch.add(SOCKET_LISTEN, sockets.getCount(SocketInventory.State.LISTEN));
+        batch.add(SOCKET_SEND_QUEUE, sockets.getSendQueue());
+        batch.add(SOCKET_RECEIVE_QUEUE, sockets.getReceiveQueue());
+    }
+
+    private static void collectFileDescriptors(VirtualMachine vm, Batch batch) {
+        Process process = vm.getProcess();
+        batch.add(FD_OPEN, process.getFileDescriptors());
+        batch.add(FD_LIMIT, process.getFileDescriptorsSoftLimit());
+        batch.add(FD_USED, process.getFileDescriptorsPercent());
+        batch.add(FD_GROWTH, process.getFileDescriptorsGrowth());
+        batch.add(FD_SOCKET, process.getFileDescriptors(Process.FileDescriptorType.SOCKET));
+        batch.add(FD_PIPE, process.getFileDescriptors(Process.FileDescriptorType.PIPE));
+        batch.add(FD_FILE, process.getFileDescriptors(Process.FileDescriptorType.FILE));
+    }
+
+    private static void collectRunQueue(VirtualMachine vm, Batch batch) {
+        if (vm.getNativeThreadGroups().isEmpty()) return;
+        NativeThreadGroup application = new NativeThreadGroup("Application", false);
+        NativeThreadGroup internal = new NativeThreadGroup("Internal", true);
+        int count = 0;
+        for (NativeThreadGroup group : vm.getNativeThreadGroups()) {
+            NativeThreadGroup total = group.isInternal() ? internal : application;
+            total.setCpuTime(total.getCpuTime() + group.getCpuTime());
+            total.setWaitTime(total.getWaitTime() + group.getWaitTime());
+            // groups are sorted by CPU, only the busiest groups are published to bound the number of metrics
+            if (count++ >= MAX_THREAD_GROUP_METRICS) continue;
+            ThreadGroupMetrics metrics = threadGroupMetrics.computeIfAbsent(group.getName(), ThreadGroupMetrics::new);
+            batch.add(metrics.getRunQueueWait(), group.getRunQueueWait());
+        }
+        batch.add(THREAD_RUN_QUEUE_WAIT_APPLICATION, application.getRunQueueWait());
+        batch.add(THREAD_RUN_QUEUE_WAIT_INTERNAL, internal.getRunQueueWait());
+    }
+
     private void updateStatistics(VirtualMachine vm) {
         Process process = vm.getProcess();
-        cpuStatistics.accept(process.getCpuTotal());
-        heapStatistics.accept(vm.getHeapUsedMemory());
-        nonHeapStatistics.accept(vm.getNonHeapUsedMemory());
+        cpuStatistics.add(process.getCpuTotal());
+        heapStatistics.add(vm.getHeapUsedMemory());
+        nonHeapStatistics.add(vm.getNonHeapUsedMemory());
+        updateLoadAverages(vm, System.currentTimeMillis());
+    }
+
+    void updateLoadAverages(VirtualMachine vm, long timestamp) {
+        long gcDuration = 0;
+        for (GarbageCollection garbageCollection : vm.getGarbageCollections()) {
+            gcDuration += garbageCollection.getDuration();
+        }
+        cpuLoadAverage.update(timestamp, vm.getProcess().getCpuTotal());
+        heapLoadAverage.update(timestamp, vm.getHeapUsedMemory());
+        ThreadInformation threadInformation = vm.getThreadInformation();
+        threadLoadAverage.update(timestamp, threadInformation.getDaemon() + threadInformation.getNonDaemon());
+        long elapsed = timestamp - prevTimestamp;
+        if (prevTimestamp > 0 && elapsed > 0) {
+            long gcTime = Math.max(0, gcDuration - prevGcDuration);
+            gcLoadAverage.update(timestamp, Math.min(100, 100d * gcTime / elapsed));
+            long allocated = Math.max(0, vm.getAllocatedMemory() - prevAllocatedMemory);
+            allocationLoadAverage.update(timestamp, 1000d * allocated / elapsed);
+        }
+        prevTimestamp = timestamp;
+        prevGcDuration = gcDuration;
+        prevAllocatedMemory = vm.getAllocatedMemory();
     }
 
     private static final String METRIC_PREFIX = "jvm.";
+    private static final int MAX_THREAD_GROUP_METRICS = 10;
+    private static final int MAX_THREAD_POOL_METRICS = 20;
+
+    private static final Map<String, ThreadGroupMetrics> threadGroupMetrics = new ConcurrentHashMap<>();
+    private static final Map<String, ThreadPoolMetrics> threadPoolMetrics = new ConcurrentHashMap<>();
 
     public static final Metric MEMORY_HEAP_MAX = Metric.get(METRIC_PREFIX + "memory.heap.max").withGroup("Heap").withDisplayName("Maximum");
     public static final Metric MEMORY_HEAP_USED = Metric.get(METRIC_PREFIX + "memory.heap.used").withGroup("Heap").withDisplayName("Used");
@@ -184,22 +471,100 @@ public final class VirtualMachineMetrics extends AbstractMetrics<VirtualMachine,
     public static final Metric MEMORY_EDEN_USED = Metric.get(METRIC_PREFIX + "memory.eden.used").withGroup("Eden").withDisplayName("Used");
     public static final Metric MEMORY_TENURED_MAX = Metric.get(METRIC_PREFIX + "memory.tenured.max").withGroup("Tenured").withDisplayName("Maximum");
     public static final Metric MEMORY_TENURED_USED = Metric.get(METRIC_PREFIX + "memory.tenured.used").withGroup("Tenured").withDisplayName("Used");
+    public static final Metric MEMORY_TENURED_LIVE = Metric.get(METRIC_PREFIX + "memory.tenured.live").withGroup("Tenured").withDisplayName("Live Set After GC");
+    public static final Metric MEMORY_TENURED_EXHAUSTION = Metric.get(METRIC_PREFIX + "memory.tenured.exhaustion").withGroup("Tenured").withDisplayName("Time to Exhaustion");
+    public static final Metric MEMORY_HEAP_PRESSURE = Metric.get(METRIC_PREFIX + "memory.heap.pressure").withGroup("Tenured").withDisplayName("Heap Pressure");
 
     public static final Metric CPU_TOTAL = Metric.get(METRIC_PREFIX + "cpu.total").withGroup("CPU").withDisplayName("Total");
     public static final Metric CPU_USER = Metric.get(METRIC_PREFIX + "cpu.user").withGroup("CPU").withDisplayName("User");
     public static final Metric CPU_SYSTEM = Metric.get(METRIC_PREFIX + "cpu.system").withGroup("CPU").withDisplayName("System");
     public static final Metric CPU_IO_WAIT = Metric.get(METRIC_PREFIX + "cpu.io_wait").withGroup("CPU").withDisplayName("I/O Wait");
+    public static final Metric CPU_APPLICATION = Metric.get(METRIC_PREFIX + "cpu.application").withGroup("CPU").withDisplayName("Application");
+    public static final Metric CPU_GC = Metric.get(METRIC_PREFIX + "cpu.gc").withGroup("CPU").withDisplayName("GC");
+    public static final Metric CPU_COMPILER = Metric.get(METRIC_PREFIX + "cpu.compiler").withGroup("CPU").withDisplayName("JIT Compiler");
+    public static final Metric CPU_VM = Metric.get(METRIC_PREFIX + "cpu.vm").withGroup("CPU").withDisplayName("VM");
 
     public static final Metric GC_EDEN_COUNT = Metric.get(METRIC_PREFIX + "gc.eden.count").withGroup("GC").withDisplayName("Eden Count").withType(Metric.Type.COUNTER);
     public static final Metric GC_EDEN_DURATION = Metric.get(METRIC_PREFIX + "gc.eden.duration").withGroup("GC").withDisplayName("Eden Duration").withType(Metric.Type.COUNTER);
     public static final Metric GC_TENURED_COUNT = Metric.get(METRIC_PREFIX + "gc.tenured.count").withGroup("GC").withDisplayName("Tenured Count").withType(Metric.Type.COUNTER);
     public static final Metric GC_TENURED_DURATION = Metric.get(METRIC_PREFIX + "gc.tenured.duration").withGroup("GC").withDisplayName("Tenured Duration").withType(Metric.Type.COUNTER);
+    public static final Metric GC_ALLOCATED = Metric.get(METRIC_PREFIX + "gc.allocated").withGroup("GC").withDisplayName("Allocated").withType(Metric.Type.COUNTER);
+    public static final Metric GC_PROMOTED = Metric.get(METRIC_PREFIX + "gc.promoted").withGroup("GC").withDisplayName("Promoted").withType(Metric.Type.COUNTER);
+    public static final Metric GC_SURVIVOR_OVERFLOWS = Metric.get(METRIC_PREFIX + "gc.survivor_overflows").withGroup("GC").withDisplayName("Survivor Overflows").withType(Metric.Type.COUNTER);
 
     public static final Metric IO_READ_BYTES = Metric.get(METRIC_PREFIX + "io.read.bytes").withGroup("I/O").withDisplayName("Read Bytes").withType(Metric.Type.COUNTER);
     public static final Metric IO_WRITE_BYTES = Metric.get(METRIC_PREFIX + "io.write.bytes").withGroup("I/O").withDisplayName("Write Bytes").withType(Metric.Type.COUNTER);
 
+    public static final Metric SOCKET_TOTAL = Metric.get(METRIC_PREFIX + "socket.total").withGroup("Network").withDisplayName("Sockets");
+    public static final Metric SOCKET_ESTABLISHED = Metric.get(METRIC_PREFIX + "socket.established").withGroup("Network").withDisplayName("Established");
+    public static final Metric SOCKET_CLOSE_WAIT = Metric.get(METRIC_PREFIX + "socket.close_wait").withGroup("Network").withDisplayName("Close Wait");
+    public static final Metric SOCKET_TIME_WAIT = Metric.get(METRIC_PREFIX + "socket.time_wait").withGroup("Network").withDisplayName("Time Wait");
+    public static final Metric SOCKET_LISTEN = Metric.get(METRIC_PREFIX + "socket.listen").withGroup("Network").withDisplayName("Listen");
+    public static final Metric SOCKET_SEND_QUEUE = Metric.get(METRIC_PREFIX + "socket.send_queue").withGroup("Network").withDisplayName("Send Queue");
+    public static final Metric SOCKET_RECEIVE_QUEUE = Metric.get(METRIC_PREFIX + "socket.receive_queue").withGroup("Network").withDisplayName("Receive Queue");
+
+    public static final Metric FD_OPEN = Metric.get(METRIC_PREFIX + "fd.open").withGroup("File Descriptors").withDisplayName("Open");
+    public static final Metric FD_LIMIT = Metric.get(METRIC_PREFIX + "fd.limit").withGroup("File Descriptors").withDisplayName("Limit");
+    public static final Metric FD_USED = Metric.get(METRIC_PREFIX + "fd.used").withGroup("File Descriptors").withDisplayName("Used (%)");
+    public static final Metric FD_GROWTH = Metric.get(METRIC_PREFIX + "fd.growth").withGroup("File Descriptors").withDisplayName("Growth (per minute)");
+    public static final Metric FD_SOCKET = Metric.get(METRIC_PREFIX + "fd.socket").withGroup("File Descriptors").withDisplayName("Sockets");
+    public static final Metric FD_PIPE = Metric.get(METRIC_PREFIX + "fd.pipe").withGroup("File Descriptors").withDisplayName("Pipes");
+    public static final Metric FD_FILE = Metric.get(METRIC_PREFIX + "fd.file").withGroup("File Descriptors").withDisplayName("Files");
+
     public static final Metric THREAD = Metric.get(METRIC_PREFIX + "thread").withGroup("Thread").withDisplayName("OS");
     public static final Metric THREAD_DAEMON = Metric.get(METRIC_PREFIX + "thread.daemon").withGroup("Thread").withDisplayName("Daemon");
     public static final Metric THREAD_NON_DAEMON = Metric.get(METRIC_PREFIX + "thread.non_daemon").withGroup("Thread").withDisplayName("Non Daemon");
+    public static final Metric THREAD_BLOCKED_COUNT = Metric.get(METRIC_PREFIX + "thread.blocked.count").withGroup("Thread").withDisplayName("Blocked Count");
+    public static final Metric THREAD_BLOCKED_TIME = Metric.get(METRIC_PREFIX + "thread.blocked.time").withGroup("Thread").withDisplayName("Blocked Time");
+    public static final Metric THREAD_WAITED_COUNT = Metric.get(METRIC_PREFIX + "thread.waited.count").withGroup("Thread").withDisplayName("Waited Count");
+    public static final Metric THREAD_WAITED_TIME = Metric.get(METRIC_PREFIX + "thread.waited.time").withGroup("Thread").withDisplayName("Waited Time");
+    public static final Metric THREAD_DEADLOCKED = Metric.get(METRIC_PREFIX + "thread.deadlocked").withGroup("Thread").withDisplayName("Deadlocked");
+    public static final Metric THREAD_STUCK = Metric.get(METRIC_PREFIX + "thread.stuck").withGroup("Thread").withDisplayName("Stuck");
+    public static final Metric THREAD_RUN_QUEUE_WAIT_APPLICATION = Metric.get(METRIC_PREFIX + "thread.run_queue_wait.application").withGroup("Thread").withDisplayName("Run-Queue Wait (Application)");
+    public static final Metric THREAD_RUN_QUEUE_WAIT_INTERNAL = Metric.get(METRIC_PREFIX + "thread.run_queue_wait.internal").withGroup("Thread").withDisplayName("Run-Queue Wait (JVM)");
+
+    /**
+     * Holds the metrics for a group of threads.
+     */
+    @Getter
+    public static final class ThreadGroupMetrics {
+
+        private final Metric runQueueWait;
+
+        private ThreadGroupMetrics(String name) {
+            String prefix = METRIC_PREFIX + "thread.group." + StringUtils.toIdentifier(name) + ".";
+            runQueueWait = Metric.get(prefix + "run_queue_wait").withGroup("Thread / " + name).withDisplayName("Run-Queue Wait");
+        }
+    }
+
+    /**
+     * Holds the metrics for a pool of threads.
+     */
+    @Getter
+    public static final class ThreadPoolMetrics {
+
+        private final Metric threads;
+        private final Metric busy;
+        private final Metric runnable;
+        private final Metric blocked;
+        private final Metric waiting;
+        private final Metric cpu;
+        private final Metric allocationRate;
+        private final Metric blockedTime;
+        private final Metric waitedTime;
 
+        private ThreadPoolMetrics(String name) {
+            String prefix = METRIC_PREFIX + "thread.pool." + StringUtils.toIdentifier(name) + ".";
+            String group = "Thread Pool / " + name;
+            threads = Metric.get(prefix + "threads").withGroup(group).withDisplayName("Threads");
+            busy = Metric.get(prefix + "busy").withGroup(group).withDisplayName("Busy");
+            runnable = Metric.get(prefix + "runnable").withGroup(group).withDisplayName("Runnable");
+            blocked = Metric.get(prefix + "blocked").withGroup(group).withDisplayName("Blocked");
+            waiting = Metric.get(prefix + "waiting").withGroup(group).withDisplayName("Waiting");
+            cpu = Metric.get(prefix + "cpu").withGroup(group).withDisplayName("CPU");
+            allocationRate = Metric.get(prefix + "allocation_rate").withGroup(group).withDisplayName("Allocation Rate");
+            blockedTime = Metric.get(prefix + "blocked_time").withGroup(group).withDisplayName("Blocked Time");
+            waitedTime = Metric.get(prefix + "waited_time").withGroup(group).withDisplayName("Waited Time");
+        }
+    }
 }
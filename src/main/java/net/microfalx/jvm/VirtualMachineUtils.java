@@ -1,9 +1,19 @@
 package net.microfalx.jvm;
 
+import net.microfalx.jvm.model.ThreadDump;
+import net.microfalx.jvm.model.ThreadInformation;
+import net.microfalx.lang.StringUtils;
 import net.microfalx.lang.TimeUtils;
 import net.microfalx.metrics.Metrics;
 import oshi.software.common.os.linux.LinuxFileSystem;
 
+import java.io.*;
+import java.lang.management.ThreadInfo;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
 public class VirtualMachineUtils {
 
     protected final static Metrics METRICS = Metrics.ROOT.withGroup("VM");
@@ -31,6 +41,83 @@ public class VirtualMachineUtils {
         return duration > 0 ? (float) (100 * (double) usage / duration) : 0;
     }
 
+    /**
+     * Returns the name of the group of a thread, by removing the sequence number from the thread name
+     * (<code>pool-1-thread-12</code> becomes <code>pool-1-thread</code>, <code>GC Thread#3</code> becomes
+     * <code>GC Thread</code>).
+     *
+     * @param name the thread name
+     * @return the group name
+     */
+    public static String getThreadGroupName(String name) {
+        if (name == null) return StringUtils.NA_STRING;
+        String groupName = THREAD_SEQUENCE.matcher(name).replaceFirst("");
+        return groupName.isEmpty() ? name : groupName;
+    }
+
+    /**
+     * Creates the information about a thread from the thread information provided by the JVM.
+     *
+     * @param threadInfo the thread information
+     * @return a non-null instance
+     */
+    public static ThreadInformation createThreadInformation(ThreadInfo threadInfo) {
+        requireNonNull(threadInfo);
+        ThreadInformation threadInformation = new ThreadInformation();
+        threadInformation.setId(threadInfo.getThreadId());
+        threadInformation.setName(threadInfo.getThreadName());
+        threadInformation.setState(threadInfo.getThreadState());
+        threadInformation.setBlockedCount(threadInfo.getBlockedCount());
+        threadInformation.setBlockedTime(threadInfo.getBlockedTime());
+        threadInformation.setWaitedCount(threadInfo.getWaitedCount());
+        threadInformation.setWaitedTime(threadInfo.getWaitedTime());
+        threadInformation.setLockName(threadInfo.getLockName());
+        threadInformation.setLockOwnerId(threadInfo.getLockOwnerId());
+        threadInformation.setLockOwnerName(threadInfo.getLockOwnerName());
+        threadInformation.setStackTrace(Arrays.asList(threadInfo.getStackTrace()));
+        return threadInformation;
+    }
+
+    /**
+     * Creates a thread dump from the thread information provided by the JVM.
+     *
+     * @param threadInfos the thread information
+     * @return a non-null instance
+     */
+    public static ThreadDump createThreadDump(ThreadInfo[] threadInfos) {
+        requireNonNull(threadInfos);
+        ThreadDump threadDump = new ThreadDump();
+        for (ThreadInfo threadInfo : threadInfos) {
+            if (threadInfo != null) threadDump.addThread(createThreadInformation(threadInfo));
+        }
+        return threadDump;
+    }
+
+    /**
+     * Creates a deep copy of a model, by serializing and deserializing it.
+     *
+     * @param value the value to copy
+     * @param <T>   the type of the value
+     * @return a non-null instance, which shares no mutable state with the original
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> T copy(T value) {
+        requireNonNull(value);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(buffer)) {
+                output.writeObject(value);
+            }
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+                return (T) input.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new VirtualMachineException("Failed to copy " + value.getClass().getName(), e);
+        }
+    }
+
+    private static final Pattern THREAD_SEQUENCE = Pattern.compile("[\\s#_.:-]*\\d+$");
+
     static {
         System.setProperty(LinuxFileSystem.OSHI_LINUX_FS_PATH_EXCLUDES, "/var/lib/kubelet/**,/run/docker/**,/run/k3s/**");
     }
@@ -0,0 +1,199 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Statistics;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static java.lang.System.currentTimeMillis;
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * Keeps the recent values of a metric and calculates statistics (minimum, maximum, average and percentiles) over
+ * the last minute, 5 minutes or hour.
+ * <p>
+ * The values are stored in a fixed size ring buffer (timestamps and values), so the memory does not grow with the
+ * uptime; once the buffer is full, the oldest values are overwritten. The default capacity covers one hour at a
+ * sample per second, a smaller interval shortens the longest window accordingly.
+ * <p>
+ * The sum and the number of values of each window are maintained while values are added (and leave the window),
+ * so the {@link #getAverage(Window) average} is available without touching the values. The full
+ * {@link #getStatistics(Window) statistics} need the values sorted (for percentiles), so they are calculated only
+ * on request.
+ * <p>
+ * Values can be added and statistics calculated concurrently. The values of a window are copied under the lock and
+ * the statistics are calculated outside of it, so readers hold up the scraping only for the copy.
+ */
+public final class WindowedStatistics {
+
+    static final int DEFAULT_CAPACITY = 3600;
+
+    private static final Window[] WINDOWS = Window.values();
+
+    private final long[] timestamps;
+    private final double[] values;
+    private final double[] sums = new double[WINDOWS.length];
+    private final int[] counts = new int[WINDOWS.length];
+    private int next;
+    private int size;
+
+    public WindowedStatistics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WindowedStatistics(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive, got " + capacity);
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Registers a new value, observed now.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        add(currentTimeMillis(), value);
+    }
+
+    /**
+     * Registers a new value.
+     *
+     * @param timestamp the timestamp (in milliseconds) of the value
+     * @param value     the value
+     */
+    public synchronized void add(long timestamp, double value) {
+        if (size == values.length) {
+            // the oldest value is overwritten, it leaves the windows which still include it
+            for (int window = 0; window < WINDOWS.length; window++) {
+                if (counts[window] == size) remove(window, next);
+            }
+        }
+        timestamps[next] = timestamp;
+        values[next] = value;
+        next = (next + 1) % values.length;
+        if (size < values.length) size++;
+        for (int window = 0; window < WINDOWS.length; window++) {
+            sums[window] += value;
+            counts[window]++;
+            expire(window, timestamp);
+        }
+    }
+
+    /**
+     * Returns the average over a window which ends now.
+     *
+     * @param window the window
+     * @return the average, 0 if there are no values
+     */
+    public double getAverage(Window window) {
+        return getAverage(window, currentTimeMillis());
+    }
+
+    /**
+     * Returns the average over a window.
+     * <p>
+     * The average is based on the running sum of the window, so the end of the window cannot be before the last
+     * value added; for an arbitrary window use {@link #getStatistics(Window, long)}.
+     *
+     * @param window the window
+     * @param now    the end of the window, in milliseconds
+     * @return the average, 0 if there are no values
+     */
+    public synchronized double getAverage(Window window, long now) {
+        requireNonNull(window);
+        int index = window.ordinal();
+        expire(index, now);
+        return counts[index] == 0 ? 0 : sums[index] / counts[index];
+    }
+
+    /**
+     * Returns the statistics over a window which ends now.
+     *
+     * @param window the window
+     * @return a non-null instance
+     */
+    public Statistics getStatistics(Window window) {
+        return getStatistics(window, currentTimeMillis());
+    }
+
+    /**
+     * Returns the statistics over a window.
+     *
+     * @param window the window
+     * @param now    the end of the window, in milliseconds
+     * @return a non-null instance
+     */
+    public Statistics getStatistics(Window window, long now) {
+        requireNonNull(window);
+        Statistics statistics = new Statistics(window.getDuration());
+        double[] windowValues = copy(now - window.getDuration().toMillis(), now);
+        if (windowValues.length == 0) return statistics;
+        Arrays.sort(windowValues);
+        double sum = 0;
+        for (double value : windowValues) {
+            sum += value;
+        }
+        statistics.setCount(windowValues.length);
+        statistics.setMinimum(windowValues[0]);
+        statistics.setMaximum(windowValues[windowValues.length - 1]);
+        statistics.setAverage(sum / windowValues.length);
+        statistics.setP50(percentile(windowValues, 50));
+        statistics.setP95(percentile(windowValues, 95));
+        statistics.setP99(percentile(windowValues, 99));
+        return statistics;
+    }
+
+    private synchronized double[] copy(long from, long to) {
+        double[] windowValues = new double[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (next - 1 - i + values.length) % values.length;
+            long timestamp = timestamps[index];
+            // values are added in time order, older values are outside the window too
+            if (timestamp < from) break;
+            if (timestamp <= to) windowValues[count++] = values[index];
+        }
+        return count == size ? windowValues : Arrays.copyOf(windowValues, count);
+    }
+
+    private void expire(int window, long now) {
+        long from = now - WINDOWS[window].getDuration().toMillis();
+        while (counts[window] > 0) {
+            int oldest = (next - counts[window] + values.length) % values.length;
+            if (timestamps[oldest] >= from) break;
+            remove(window, oldest);
+        }
+    }
+
+    private void remove(int window, int index) {
+        counts[window]--;
+        // start over from zero when the window is empty, so rounding errors do not accumulate
+        sums[window] = counts[window] == 0 ? 0 : sums[window] - values[index];
+    }
+
+    private static double percentile(double[] sortedValues, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100d * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * An enum for the supported windows.
+     */
+    public enum Window {
+
+        ONE_MINUTE(Duration.ofMinutes(1)),
+        FIVE_MINUTES(Duration.ofMinutes(5)),
+        ONE_HOUR(Duration.ofHours(1));
+
+        private final Duration duration;
+
+        Window(Duration duration) {
+            this.duration = duration;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+import net.microfalx.lang.Nameable;
+
+import java.io.Serializable;
+
+/**
+ * Holds I/O statistics for a block device, similar to <code>iostat -x</code>.
+ * <p>
+ * The counters (operations, bytes, times) are cumulative since boot, the utilization, queue depth and latencies
+ * are calculated for the last interval. All times are in milliseconds.
+ */
+@Data
+public class BlockDevice implements Nameable, Serializable {
+
+    private static final long serialVersionUID = 8427790148937442212L;
+
+    private String name;
+
+    private long reads;
+    private long readBytes;
+    private long readTime;
+    private long writes;
+    private long writeBytes;
+    private long writeTime;
+    private long inFlight;
+    private long ioTime;
+    private long weightedIoTime;
+
+    private float utilization;
+    private float queueDepth;
+    private float readLatency;
+    private float writeLatency;
+
+    protected BlockDevice() {
+    }
+
+    public BlockDevice(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,59 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Holds information about the control group (container) the process runs in.
+ * <p>
+ * All CPU times are in microseconds.
+ */
+@Data
+public class CGroup implements Serializable {
+
+    private static final long serialVersionUID = 3040865123478412378L;
+
+    private int version;
+    private String path;
+
+    private long cpuQuota = -1;
+    private long cpuPeriod;
+    private int cpuSet;
+    private float cpuLimit;
+
+    private long cpuUsageTime;
+    private float cpuUsage;
+
+    private long periods;
+    private long throttledPeriods;
+    private long throttledTime;
+    private float cpuThrottled;
+    private long cpuThrottledTime;
+
+    private Collection<Pressure> pressures = Collections.emptyList();
+
+    /**
+     * Returns whether the control group has a CPU quota (CFS bandwidth control).
+     *
+     * @return {@code true} if limited by quota, {@code false} otherwise
+     */
+    public boolean isCpuLimited() {
+        return cpuQuota > 0 && cpuPeriod > 0;
+    }
+
+    /**
+     * Returns the pressure stall information of the control group for a resource.
+     *
+     * @param type the type of resource
+     * @return a non-null instance
+     */
+    public Pressure getPressure(Pressure.Type type) {
+        for (Pressure pressure : pressures) {
+            if (pressure.getType() == type) return pressure;
+        }
+        return new Pressure(type);
+    }
+}
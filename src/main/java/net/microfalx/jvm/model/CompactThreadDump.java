@@ -0,0 +1,234 @@
+package net.microfalx.jvm.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import static net.microfalx.lang.ArgumentUtils.requireNonNull;
+
+/**
+ * A compact representation of a {@link ThreadDump}.
+ * <p>
+ * Thread attributes are stored in parallel arrays and each stack is a single identifier in a
+ * {@link ThreadDumpDictionary}, so a dump of a few hundred threads takes a few kilobytes, no matter how deep the
+ * stacks are. Successive dumps should share the same dictionary; when serialized together (in the same stream),
+ * the dictionary is written once, with the first dump, and every following dump carries only the frames and stacks
+ * registered in the dictionary since the previous dump was written.
+ * <p>
+ * Each dump belongs to an epoch of the dictionary and can be decoded as long as the dictionary retains the epoch;
+ * an {@link IllegalStateException} is thrown for stacks of a dump which was pruned from the dictionary.
+ */
+public final class CompactThreadDump implements Serializable {
+
+    private static final long serialVersionUID = 3411904785606689812L;
+
+    private static final Thread.State[] THREAD_STATES = Thread.State.values();
+
+    private final ThreadDumpDictionary dictionary;
+    private final int epoch;
+    private final long timestamp;
+    private final int daemonThread;
+    private final int nonDaemonThread;
+
+    private final long[] ids;
+    private final String[] names;
+    private final byte[] states;
+    private final int[] stacks;
+    private final String[] lockNames;
+    private final long[] lockOwnerIds;
+    private final String[] lockOwnerNames;
+    private final long[] blockedCounts;
+    private final long[] blockedTimes;
+    private final long[] waitedCounts;
+    private final long[] waitedTimes;
+
+    /**
+     * Encodes a thread dump.
+     *
+     * @param threadDump the thread dump
+     * @param dictionary the dictionary, usually shared with previous dumps
+     * @return a non-null instance
+     */
+    public static CompactThreadDump encode(ThreadDump threadDump, ThreadDumpDictionary dictionary) {
+        requireNonNull(threadDump);
+        requireNonNull(dictionary);
+        return new CompactThreadDump(threadDump, dictionary);
+    }
+
+    private CompactThreadDump(ThreadDump threadDump, ThreadDumpDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.epoch = dictionary.nextEpoch();
+        this.timestamp = threadDump.getTimestamp();
+        this.daemonThread = threadDump.getDaemonThread();
+        this.nonDaemonThread = threadDump.getNonDaemonThread();
+        int count = threadDump.getThreads().size();
+        ids = new long[count];
+        names = new String[count];
+        states = new byte[count];
+        stacks = new int[count];
+        lockNames = new String[count];
+        lockOwnerIds = new long[count];
+        lockOwnerNames = new String[count];
+        blockedCounts = new long[count];
+        blockedTimes = new long[count];
+        waitedCounts = new long[count];
+        waitedTimes = new long[count];
+        int index = 0;
+        for (ThreadInformation thread : threadDump.getThreads()) {
+            ids[index] = thread.getId();
+            names[index] = dictionary.intern(thread.getName());
+            states[index] = (byte) (thread.getState() != null ? thread.getState().ordinal() : -1);
+            stacks[index] = dictionary.encode(thread.getStackTrace());
+            lockNames[index] = dictionary.intern(thread.getLockName());
+            lockOwnerIds[index] = thread.getLockOwnerId();
+            lockOwnerNames[index] = dictionary.intern(thread.getLockOwnerName());
+            blockedCounts[index] = thread.getBlockedCount();
+            blockedTimes[index] = thread.getBlockedTime();
+            waitedCounts[index] = thread.getWaitedCount();
+            waitedTimes[index] = thread.getWaitedTime();
+            index++;
+        }
+    }
+
+    /**
+     * Returns the dictionary used to encode the stacks.
+     *
+     * @return a non-null instance
+     */
+    public ThreadDumpDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the epoch of the dictionary in which the dump was encoded.
+     *
+     * @return a positive integer
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns whether the stacks of the dump are still available in the dictionary.
+     *
+     * @return {@code true} if the dump can be decoded, {@code false} otherwise
+     */
+    public boolean isDecodable() {
+        return dictionary.isRetained(epoch);
+    }
+
+    /**
+     * Returns the timestamp of the dump.
+     *
+     * @return millis since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the number of threads in the dump.
+     *
+     * @return a positive integer
+     */
+    public int getThreadCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the identifier of the stack of a thread in the dictionary.
+     *
+     * @param index the index of the thread
+     * @return the stack identifier
+     */
+    public int getStack(int index) {
+        checkDecodable();
+        return stacks[index];
+    }
+
+    /**
+     * Returns the identifier of a thread.
+     *
+     * @param index the index of the thread
+     * @return the thread identifier
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the name of a thread.
+     *
+     * @param index the index of the thread
+     * @return the thread name
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the state of a thread.
+     *
+     * @param index the index of the thread
+     * @return the thread state, null if not known
+     */
+    public Thread.State getState(int index) {
+        return states[index] >= 0 ? THREAD_STATES[states[index]] : null;
+    }
+
+    /**
+     * Decodes a thread.
+     *
+     * @param index the index of the thread
+     * @return a non-null instance
+     */
+    public ThreadInformation getThread(int index) {
+        ThreadInformation thread = new ThreadInformation();
+        thread.setId(ids[index]);
+        thread.setName(names[index]);
+        thread.setState(getState(index));
+        thread.setStackTrace(dictionary.decode(getStack(index)));
+        thread.setLockName(lockNames[index]);
+        thread.setLockOwnerId(lockOwnerIds[index]);
+        thread.setLockOwnerName(lockOwnerNames[index]);
+        thread.setBlockedCount(blockedCounts[index]);
+        thread.setBlockedTime(blockedTimes[index]);
+        thread.setWaitedCount(waitedCounts[index]);
+        thread.setWaitedTime(waitedTimes[index]);
+        return thread;
+    }
+
+    /**
+     * Decodes the thread dump.
+     *
+     * @return a non-null instance
+     */
+    public ThreadDump decode() {
+        ThreadDump threadDump = new ThreadDump();
+        threadDump.setTimestamp(timestamp);
+        threadDump.setDaemonThread(daemonThread);
+        threadDump.setNonDaemonThread(nonDaemonThread);
+        for (int i = 0; i < ids.length; i++) {
+            threadDump.addThread(getThread(i));
+        }
+        return threadDump;
+    }
+
+    private void checkDecodable() {
+        if (!isDecodable()) {
+            throw new IllegalStateException("The stacks of epoch " + epoch + " were pruned from the dictionary, oldest epoch "
+                    + dictionary.getOldestEpoch());
+        }
+    }
+
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        dictionary.writeChanges(outputStream);
+    }
+
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        dictionary.readChanges(inputStream);
+    }
+}
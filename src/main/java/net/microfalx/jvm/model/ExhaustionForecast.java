@@ -0,0 +1,38 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Holds a prediction of when a resource (heap live set, file system space) reaches its limit, based on the
+ * trend observed recently.
+ * <p>
+ * The times are in milliseconds, relative to the moment of the prediction; <code>-1</code> means the resource
+ * is not expected to be exhausted (no growth or the growth is not statistically significant).
+ */
+@Data
+public class ExhaustionForecast implements Serializable {
+
+    private static final long serialVersionUID = -2941062745153022907L;
+
+    private long timestamp = System.currentTimeMillis();
+    private long value;
+    private long limit;
+    private double slope; // units per second
+    private double rSquare;
+    private long samples;
+
+    private long timeToExhaustion = -1;
+    private long minimumTimeToExhaustion = -1;
+    private long maximumTimeToExhaustion = -1;
+
+    /**
+     * Returns whether the resource is expected to be exhausted.
+     *
+     * @return {@code true} if there is a significant growth trend, {@code false} otherwise
+     */
+    public boolean isExhausting() {
+        return timeToExhaustion >= 0;
+    }
+}
@@ -27,6 +27,7 @@ public class FileSystem implements Identifiable<String>, Nameable, Timestampable
     private long totalSpace;
     private long freeInodes;
     private long totalInodes;
+    private boolean stale;
 
     @Override
     public Temporal getCreatedAt() {
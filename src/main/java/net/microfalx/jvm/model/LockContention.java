@@ -0,0 +1,36 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Holds the contention observed on a monitor (a lock identity) at a given code location, in the last interval.
+ * <p>
+ * The blocked time (milliseconds) is available only when thread contention monitoring is enabled; the number of
+ * times threads were blocked and the number of threads observed blocked when sampled are always available.
+ */
+@Data
+public class LockContention implements Serializable {
+
+    private static final long serialVersionUID = -2169713934838577470L;
+
+    private String lockName;
+    private String lockClass;
+    private String frame;
+    private String ownerName;
+
+    private int samples;
+    private int maximumWaiters;
+    private long blockedCount;
+    private long blockedTime;
+
+    protected LockContention() {
+    }
+
+    public LockContention(String lockName, String lockClass, String frame) {
+        this.lockName = lockName;
+        this.lockClass = lockClass;
+        this.frame = frame;
+    }
+}
@@ -8,7 +8,6 @@ import lombok.ToString;
 import java.io.Serializable;
 
 @Data
-@AllArgsConstructor
 public class MemoryPool implements Serializable {
 
     private static final long serialVersionUID = -5134622121249987615L;
@@ -19,16 +18,43 @@ public class MemoryPool implements Serializable {
     private long capacity;
     private long used;
     private long committed;
+    private long collectionUsed = -1;
 
     protected MemoryPool() {
     }
 
-    private final long timestamp = System.currentTimeMillis();
+    public MemoryPool(Type type, long maximum, long capacity, long used, long committed) {
+        this(type, maximum, capacity, used, committed, -1);
+    }
+
+    public MemoryPool(Type type, long maximum, long capacity, long used, long committed, long collectionUsed) {
+        this.type = type;
+        this.maximum = maximum;
+        this.capacity = capacity;
+        this.used = used;
+        this.committed = committed;
+        this.collectionUsed = collectionUsed;
+    }
+
+    private long timestamp = System.currentTimeMillis();
 
     public float getUsedPercent() {
         return maximum == 0 ? 0 : 100 * (float) used / (float) maximum;
     }
 
+    /**
+     * Returns the memory used right after the last garbage collection of this pool (the live set).
+     *
+     * @return the value in bytes, -1 if the pool is not collected or it was not collected yet
+     */
+    public long getCollectionUsed() {
+        return collectionUsed;
+    }
+
+    public float getCollectionUsedPercent() {
+        return maximum == 0 || collectionUsed < 0 ? 0 : 100 * (float) collectionUsed / (float) maximum;
+    }
+
     public long getMaximum() {
         return maximum > 0 ? maximum : capacity;
     }
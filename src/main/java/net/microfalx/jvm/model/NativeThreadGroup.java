@@ -0,0 +1,83 @@
+package net.microfalx.jvm.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
+import net.microfalx.lang.Nameable;
+
+import java.io.Serializable;
+
+/**
+ * Holds scheduler statistics for a group of native threads of the JVM process, grouped by their normalized name
+ * (<code>GC Thread#0</code> and <code>GC Thread#1</code> belong to the <code>GC Thread</code> group).
+ * <p>
+ * The scheduler times are in nanoseconds, the user and system CPU times are in milliseconds; all of them are
+ * calculated for the last interval, for the threads alive at the end of the interval.
+ */
+@Data
+public class NativeThreadGroup implements Nameable, Serializable {
+
+    private static final long serialVersionUID = 6095338317211946373L;
+
+    private String name;
+    private boolean internal;
+    private Category category = Category.APPLICATION;
+    private int threads;
+
+    private long userTime;
+    private long systemTime;
+    private float cpu;
+
+    private long cpuTime;
+    private long waitTime;
+    private long timeslices;
+
+    protected NativeThreadGroup() {
+    }
+
+    public NativeThreadGroup(String name, boolean internal) {
+        this.name = name;
+        this.internal = internal;
+    }
+
+    public NativeThreadGroup(String name, boolean internal, Category category) {
+        this(name, internal);
+        this.category = category;
+    }
+
+    /**
+     * Returns the percentage of time the threads were runnable but waited for a CPU (on the run-queue).
+     *
+     * @return a value between 0 and 100
+     */
+    public float getRunQueueWait() {
+        long runnableTime = cpuTime + waitTime;
+        return runnableTime == 0 ? 0 : 100 * (float) waitTime / (float) runnableTime;
+    }
+
+    /**
+     * Returns the average time spent on the run-queue before a thread received a CPU.
+     *
+     * @return the average scheduling delay in nanoseconds
+     */
+    public long getSchedulingDelay() {
+        return timeslices == 0 ? 0 : waitTime / timeslices;
+    }
+
+    /**
+     * The category of threads, used to attribute CPU to the application or to the JVM itself.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public enum Category {
+
+        APPLICATION("Application"),
+        GC("GC"),
+        COMPILER("JIT Compiler"),
+        VM("VM");
+
+        private final String label;
+    }
+}
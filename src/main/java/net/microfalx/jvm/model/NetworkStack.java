@@ -0,0 +1,66 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds health information about the TCP/UDP network stack of the host.
+ * <p>
+ * The counters (opens, resets, retransmits, errors, overflows) are cumulative since boot, the socket counts
+ * are the current values. The TCP sockets of the host (all processes) are also counted by state.
+ */
+@Data
+public class NetworkStack implements Serializable {
+
+    private static final long serialVersionUID = 4615207788730167291L;
+
+    private long tcpActiveOpens;
+    private long tcpPassiveOpens;
+    private long tcpAttemptFails;
+    private long tcpEstablishedResets;
+    private long tcpOutResets;
+    private long tcpInSegments;
+    private long tcpOutSegments;
+    private long tcpRetransmits;
+    private long tcpInErrors;
+    private long tcpListenOverflows;
+    private long tcpListenDrops;
+    private long tcpTimeouts;
+
+    private long udpInDatagrams;
+    private long udpOutDatagrams;
+    private long udpNoPorts;
+    private long udpReceiveErrors;
+    private long udpBufferErrors;
+
+    private int socketsUsed;
+    private int tcpEstablished;
+    private int tcpInUse;
+    private int tcpOrphan;
+    private int tcpTimeWait;
+    private int tcpAllocated;
+    private int udpInUse;
+    private Map<SocketInventory.State, Integer> tcpStates = new EnumMap<>(SocketInventory.State.class);
+
+    /**
+     * Returns the number of TCP sockets (IPv4 and IPv6) of the host in a given state.
+     *
+     * @param state the state
+     * @return a positive integer
+     */
+    public int getTcpCount(SocketInventory.State state) {
+        return tcpStates.getOrDefault(state, 0);
+    }
+
+    /**
+     * Returns the percentage of TCP segments retransmitted, since boot.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getTcpRetransmitsPercent() {
+        return tcpOutSegments == 0 ? 0 : 100 * (float) tcpRetransmits / (float) tcpOutSegments;
+    }
+}
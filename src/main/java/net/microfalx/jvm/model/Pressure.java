@@ -0,0 +1,54 @@
+package net.microfalx.jvm.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Holds the Pressure Stall Information (PSI) for a resource.
+ * <p>
+ * The averages are percentages of wall time in which some (or all) tasks were stalled on the resource, the totals
+ * are cumulative stall times in microseconds and the stall times are the stall accumulated in the last interval.
+ */
+@Data
+public class Pressure implements Serializable {
+
+    private static final long serialVersionUID = -1630478811240934385L;
+
+    private Type type;
+
+    private float someAvg10;
+    private float someAvg60;
+    private float someAvg300;
+    private long someTotal;
+    private long someStallTime;
+
+    private float fullAvg10;
+    private float fullAvg60;
+    private float fullAvg300;
+    private long fullTotal;
+    private long fullStallTime;
+
+    protected Pressure() {
+    }
+
+    public Pressure(Type type) {
+        this.type = type;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public enum Type {
+
+        CPU("cpu", "CPU"),
+        MEMORY("memory", "Memory"),
+        IO("io", "I/O");
+
+        private final String fileName;
+        private final String label;
+    }
+}
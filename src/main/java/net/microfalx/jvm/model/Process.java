@@ -3,6 +3,8 @@ package net.microfalx.jvm.model;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Data
 public class Process implements Serializable {
@@ -10,10 +12,15 @@ public class Process implements Serializable {
     private static final long serialVersionUID = -2581339792400294491L;
 
     private int pid;
+    private String name;
     private float cpuTotal;
     private float cpuSystem;
     private float cpuUser;
     private float cpuIoWait;
+    private float cpuApplication;
+    private float cpuGc;
+    private float cpuCompiler;
+    private float cpuVm;
     private long cpuUserTime;
     private long cpuSystemTime;
     private long cpuIoWaitTime;
@@ -22,6 +29,11 @@ public class Process implements Serializable {
     private long memoryShared;
     private int threads;
     private int fileDescriptors;
+    private long fileDescriptorsSoftLimit = -1;
+    private long fileDescriptorsHardLimit = -1;
+    private Map<FileDescriptorType, Integer> fileDescriptorTypes = new EnumMap<>(FileDescriptorType.class);
+    private float fileDescriptorsGrowth;
+    private boolean fileDescriptorsLeaking;
     private long minorFaults;
     private long majorFaults;
     private long pageFaults;
@@ -40,4 +52,34 @@ public class Process implements Serializable {
         return getCpuUserTime() + getCpuSystemTime() + getCpuIoWaitTime();
     }
 
+    /**
+     * Returns the percentage of file descriptors used out of the soft limit.
+     *
+     * @return a value between 0 and 100, 0 if the limit is not known or unlimited
+     */
+    public float getFileDescriptorsPercent() {
+        return fileDescriptorsSoftLimit <= 0 ? 0 : 100 * (float) fileDescriptors / (float) fileDescriptorsSoftLimit;
+    }
+
+    /**
+     * Returns the number of open file descriptors of a given type.
+     *
+     * @param type the type
+     * @return a positive integer
+     */
+    public int getFileDescriptors(FileDescriptorType type) {
+        return fileDescriptorTypes.getOrDefault(type, 0);
+    }
+
+    public enum FileDescriptorType {
+
+        FILE,
+        SOCKET,
+        PIPE,
+        EVENTFD,
+        ANON_INODE,
+        DEVICE,
+        OTHER
+    }
+
 }
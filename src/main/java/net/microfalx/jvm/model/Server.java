@@ -2,6 +2,8 @@ package net.microfalx.jvm.model;
 
 import lombok.Data;
 import net.microfalx.jvm.ServerCollector;
+import net.microfalx.jvm.SnapshotCache;
+import net.microfalx.jvm.VirtualMachineUtils;
 import net.microfalx.lang.Identifiable;
 import net.microfalx.lang.StringUtils;
 import net.microfalx.lang.TimeUtils;
@@ -10,6 +12,7 @@ import net.microfalx.lang.Timestampable;
 import java.io.Serializable;
 import java.time.temporal.Temporal;
 import java.util.Collection;
+import java.util.Collections;
 
 import static java.lang.System.currentTimeMillis;
 
@@ -42,8 +45,20 @@ public class Server implements Identifiable<String>, Serializable, Timestampable
     private long interrupts;
     private long memoryTotal;
     private long memoryUsed;
+    private long memoryUsedWithCache;
     private float memoryUsedPct;
     private long memoryActuallyUsed;
+    private long memoryFree;
+    private long memoryAvailable;
+    private long memoryCached;
+    private long memoryBuffers;
+    private long memoryShared;
+    private long memoryDirty;
+    private long memoryWriteback;
+    private long memorySlabReclaimable;
+    private long pageScans;
+    private long pageSteals;
+    private long pageMajorFaults;
     private long memoryContainerTotal;
     private long memoryContainerUsed;
     private float memoryContainerUsedPct;
@@ -70,10 +85,24 @@ public class Server implements Identifiable<String>, Serializable, Timestampable
     private int processIdle;
     private int processZombie;
     private int processSleeping;
+    private int processBlocked;
     private int processThreads;
     private long uptime;
 
     private Collection<FileSystem> fileSystems;
+    private Collection<BlockDevice> blockDevices = Collections.emptyList();
+    private CGroup cgroup;
+    private NetworkStack networkStack;
+    private Collection<Pressure> pressures = Collections.emptyList();
+
+    private Collection<Process> topCpuProcesses = Collections.emptyList();
+    private Collection<Process> topMemoryProcesses = Collections.emptyList();
+    private Collection<Process> topReadProcesses = Collections.emptyList();
+    private Collection<Process> topWriteProcesses = Collections.emptyList();
+
+    private static final SnapshotCache<Server> snapshot = new SnapshotCache<>(ServerCollector::new, VirtualMachineUtils::copy);
+    private static final SnapshotCache<Server> metadataSnapshot = new SnapshotCache<>(() -> (ServerCollector) new ServerCollector()
+            .setMetadata(true), VirtualMachineUtils::copy);
 
     /**
      * Returns information about the current server.
@@ -86,14 +115,29 @@ public class Server implements Identifiable<String>, Serializable, Timestampable
 
     /**
      * Returns information about the current server.
+     * <p>
+     * The information is collected at most once a second; concurrent callers share the same collection and all
+     * callers within a second receive the same collection. Each caller receives its own copy, which can be modified
+     * without affecting other callers.
      *
      * @param metadata {@code true} to collect only metadata, {@code metadata} to collect full stats
      * @return a non-null instance
      */
     public static Server get(boolean metadata) {
-        ServerCollector collector = (ServerCollector) new ServerCollector()
-                .setMetadata(metadata);
-        return collector.execute();
+        return metadata ? metadataSnapshot.get() : snapshot.get();
+    }
+
+    /**
+     * Returns the system wide pressure stall information for a resource.
+     *
+     * @param type the type of resource
+     * @return a non-null instance
+     */
+    public Pressure getPressure(Pressure.Type type) {
+        for (Pressure pressure : pressures) {
+            if (pressure.getType() == type) return pressure;
+        }
+        return new Pressure(type);
     }
 
     @Override
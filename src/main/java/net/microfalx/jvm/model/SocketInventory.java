@@ -0,0 +1,103 @@
+package net.microfalx.jvm.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds an inventory of the TCP connections (IPv4 and IPv6) owned by a process.
+ * <p>
+ * Connections are counted by state and grouped by remote endpoint. The number of endpoints is bounded, the endpoints
+ * with the fewest connections are folded into {@link #getOtherEndpoints()} and {@link #getOtherConnections()}.
+ * The queues are the bytes waiting in the kernel buffers at the time of the collection.
+ */
+@Data
+public class SocketInventory implements Serializable {
+
+    private static final long serialVersionUID = -3905614285617263027L;
+
+    private int total;
+    private long sendQueue;
+    private long receiveQueue;
+    private Map<State, Integer> states = new EnumMap<>(State.class);
+    private Collection<Endpoint> endpoints = Collections.emptyList();
+    private int otherEndpoints;
+    private int otherConnections;
+
+    /**
+     * Returns the number of connections in a given state.
+     *
+     * @param state the state
+     * @return a positive integer
+     */
+    public int getCount(State state) {
+        return states.getOrDefault(state, 0);
+    }
+
+    /**
+     * Holds the connections to a remote endpoint (all local sockets connected to the same address and port).
+     */
+    @Data
+    public static class Endpoint implements Serializable {
+
+        private static final long serialVersionUID = 5286441903357624417L;
+
+        private String address;
+        private int port;
+        private int connections;
+        private int established;
+        private int closeWait;
+        private long sendQueue;
+        private long receiveQueue;
+
+        protected Endpoint() {
+        }
+
+        public Endpoint(String address, int port) {
+            this.address = address;
+            this.port = port;
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public enum State {
+
+        ESTABLISHED(0x01, "Established"),
+        SYN_SENT(0x02, "SYN Sent"),
+        SYN_RECV(0x03, "SYN Received"),
+        FIN_WAIT1(0x04, "FIN Wait 1"),
+        FIN_WAIT2(0x05, "FIN Wait 2"),
+        TIME_WAIT(0x06, "Time Wait"),
+        CLOSE(0x07, "Close"),
+        CLOSE_WAIT(0x08, "Close Wait"),
+        LAST_ACK(0x09, "Last ACK"),
+        LISTEN(0x0A, "Listen"),
+        CLOSING(0x0B, "Closing"),
+        NEW_SYN_RECV(0x0C, "New SYN Received");
+
+        private final int code;
+        private final String label;
+
+        /**
+         * Returns the state based on the kernel code (<code>st</code> column in <code>/proc/net/tcp</code>).
+         *
+         * @param code the code
+         * @return the state, null if unknown
+         */
+        public static State fromCode(int code) {
+            for (State state : values()) {
+                if (state.code == code) return state;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Holds statistics about the values of a metric observed during a time window.
+ */
+@Data
+public class Statistics implements Serializable {
+
+    private static final long serialVersionUID = 2383409437525104716L;
+
+    private final Duration window;
+
+    private int count;
+    private double minimum;
+    private double maximum;
+    private double average;
+    private double p50;
+    private double p95;
+    private double p99;
+
+    public Statistics(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * Returns whether there were values observed during the window.
+     *
+     * @return {@code true} if no values were observed, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+}
@@ -11,6 +11,7 @@ public class ThreadDump implements Serializable {
 
     private static final long serialVersionUID = -6503079159406114879L;
 
+    private long timestamp = System.currentTimeMillis();
     private final Collection<ThreadInformation> threads = new ArrayList<>();
     private transient Map<Long, ThreadInformation> threadsById;
 
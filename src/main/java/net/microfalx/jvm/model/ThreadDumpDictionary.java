@@ -0,0 +1,424 @@
+package net.microfalx.jvm.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A dictionary of stack frames and stacks shared by {@link CompactThreadDump compact thread dumps}.
+ * <p>
+ * Each distinct frame is stored once and receives an identifier. Stacks are stored in a trie, starting from the
+ * outermost frame (<code>Thread.run</code>), so threads which share the beginning of their stacks (all the threads
+ * of a pool, for example) share the nodes; a stack is identified by the identifier of its last (innermost) node.
+ * Names (thread names, lock names) are interned, so the same string is stored once.
+ * <p>
+ * The dictionary is meant to be reused across successive dumps: once the application reached a steady state, a new
+ * dump adds few (if any) frames and nodes. Each encoded dump starts a new epoch and the frames and nodes remember
+ * the last epoch which used them. To keep the dictionary bounded, the frames and nodes not used by the last
+ * {@link #getRetainedEpochs() retained epochs} are pruned (periodically, every <code>retained epochs</code>
+ * dumps) and their identifiers are reused; dumps encoded before the {@link #getOldestEpoch() oldest epoch} can no
+ * longer be decoded.
+ * <p>
+ * The dictionary can be serialized with the dumps: when several dumps are written to the same stream, the dictionary
+ * is written in full once and each dump writes only the frames and nodes added (or reused) since the previous write
+ * to that stream. A deserialized dictionary is meant for decoding the dumps read with it.
+ */
+public final class ThreadDumpDictionary implements Serializable {
+
+    private static final long serialVersionUID = -7741506837633466170L;
+
+    /**
+     * The identifier of an empty stack.
+     */
+    public static final int EMPTY_STACK = -1;
+
+    private static final int DEFAULT_RETAINED_EPOCHS = 256;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int FREE = -2;
+
+    private final int retainedEpochs;
+    private transient int epoch;
+    private transient int oldestEpoch;
+    private transient int version;
+
+    private transient List<StackTraceElement> frames;
+    private transient Map<StackTraceElement, Integer> frameIds;
+    private transient int[] frameEpochs;
+    private transient int[] frameVersions;
+    private transient int frameCount;
+    private transient IntStack freeFrames;
+
+    private transient int[] nodeParents;
+    private transient int[] nodeFrames;
+    private transient int[] nodeEpochs;
+    private transient int[] nodeVersions;
+    private transient int nodeCount;
+    private transient IntStack freeNodes;
+    private transient Map<Long, Integer> nodeIds;
+
+    private transient Map<String, String> names;
+    private transient Map<ObjectOutputStream, Integer> writtenVersions;
+
+    public ThreadDumpDictionary() {
+        this(DEFAULT_RETAINED_EPOCHS);
+    }
+
+    public ThreadDumpDictionary(int retainedEpochs) {
+        if (retainedEpochs <= 0) throw new IllegalArgumentException("Retained epochs must be positive, got " + retainedEpochs);
+        this.retainedEpochs = retainedEpochs;
+        initialize();
+    }
+
+    /**
+     * Returns the number of distinct frames.
+     *
+     * @return a positive integer
+     */
+    public synchronized int getFrameCount() {
+        return frameCount - freeFrames.size;
+    }
+
+    /**
+     * Returns the number of nodes in the stack trie.
+     *
+     * @return a positive integer
+     */
+    public synchronized int getNodeCount() {
+        return nodeCount - freeNodes.size;
+    }
+
+    /**
+     * Returns the number of epochs (encoded dumps) which are guaranteed to be decodable.
+     *
+     * @return a positive integer
+     */
+    public int getRetainedEpochs() {
+        return retainedEpochs;
+    }
+
+    /**
+     * Returns the current epoch, incremented for every encoded dump.
+     *
+     * @return a positive integer
+     */
+    public synchronized int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the oldest epoch whose dumps can still be decoded.
+     *
+     * @return a positive integer
+     */
+    public synchronized int getOldestEpoch() {
+        return oldestEpoch;
+    }
+
+    /**
+     * Returns whether the frames and stacks of an epoch are still available.
+     *
+     * @param epoch the epoch
+     * @return {@code true} if the dumps of the epoch can be decoded, {@code false} otherwise
+     */
+    public synchronized boolean isRetained(int epoch) {
+        return epoch >= oldestEpoch;
+    }
+
+    /**
+     * Returns the identifier of a frame, registering the frame if it was not seen before.
+     *
+     * @param frame the frame
+     * @return the identifier
+     */
+    public synchronized int getFrameId(StackTraceElement frame) {
+        Integer id = frameIds.get(frame);
+        if (id == null) {
+            id = addFrame(frame);
+            frameIds.put(frame, id);
+        }
+        frameEpochs[id] = epoch;
+        return id;
+    }
+
+    /**
+     * Returns a frame based on its identifier.
+     *
+     * @param id the identifier
+     * @return the frame
+     */
+    public synchronized StackTraceElement getFrame(int id) {
+        return frames.get(id);
+    }
+
+    /**
+     * Encodes a stack, registering the missing frames and nodes.
+     *
+     * @param stackTrace the stack, innermost frame first (like {@link Thread#getStackTrace()})
+     * @return the identifier of the stack
+     */
+    public synchronized int encode(List<StackTraceElement> stackTrace) {
+        int node = EMPTY_STACK;
+        for (int i = stackTrace.size() - 1; i >= 0; i--) {
+            int frameId = getFrameId(stackTrace.get(i));
+            long key = getNodeKey(node, frameId);
+            Integer child = nodeIds.get(key);
+            if (child == null) {
+                child = addNode(node, frameId);
+                nodeIds.put(key, child);
+            }
+            node = child;
+            nodeEpochs[node] = epoch;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the frame identifiers of a stack.
+     *
+     * @param stack the identifier of the stack
+     * @return the frame identifiers, innermost frame first
+     */
+    public synchronized int[] getFrameIds(int stack) {
+        int depth = 0;
+        for (int node = stack; node != EMPTY_STACK; node = nodeParents[node]) {
+            depth++;
+        }
+        int[] ids = new int[depth];
+        int index = 0;
+        for (int node = stack; node != EMPTY_STACK; node = nodeParents[node]) {
+            ids[index++] = nodeFrames[node];
+        }
+        return ids;
+    }
+
+    /**
+     * Decodes a stack.
+     *
+     * @param stack the identifier of the stack
+     * @return the frames, innermost frame first
+     */
+    public synchronized List<StackTraceElement> decode(int stack) {
+        if (stack == EMPTY_STACK) return Collections.emptyList();
+        List<StackTraceElement> stackTrace = new ArrayList<>();
+        for (int node = stack; node != EMPTY_STACK; node = nodeParents[node]) {
+            stackTrace.add(frames.get(nodeFrames[node]));
+        }
+        return stackTrace;
+    }
+
+    /**
+     * Returns a shared instance of a name.
+     *
+     * @param name the name
+     * @return the shared instance, null if the name is null
+     */
+    public synchronized String intern(String name) {
+        if (name == null) return null;
+        String sharedName = names.putIfAbsent(name, name);
+        return sharedName != null ? sharedName : name;
+    }
+
+    /**
+     * Starts a new epoch, before a dump is encoded, and prunes the frames and nodes of the epochs which are no
+     * longer retained.
+     *
+     * @return the new epoch
+     */
+    synchronized int nextEpoch() {
+        epoch++;
+        if (epoch - oldestEpoch >= 2 * retainedEpochs) prune(epoch - retainedEpochs + 1);
+        return epoch;
+    }
+
+    /**
+     * Writes the frames and nodes added (or reused) since the previous write of this dictionary to a stream.
+     *
+     * @param outputStream the stream
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void writeChanges(ObjectOutputStream outputStream) throws IOException {
+        Integer writtenVersion = writtenVersions.get(outputStream);
+        writeEntries(outputStream, writtenVersion != null ? writtenVersion : 0);
+    }
+
+    /**
+     * Reads the frames and nodes written by {@link #writeChanges(ObjectOutputStream)}.
+     *
+     * @param inputStream the stream
+     * @throws IOException            if an I/O error occurs
+     * @throws ClassNotFoundException if a frame cannot be deserialized
+     */
+    synchronized void readChanges(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        readEntries(inputStream);
+    }
+
+    private void prune(int newOldestEpoch) {
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeFrames[node] == FREE || nodeEpochs[node] >= newOldestEpoch) continue;
+            nodeIds.remove(getNodeKey(nodeParents[node], nodeFrames[node]));
+            nodeFrames[node] = FREE;
+            freeNodes.push(node);
+        }
+        for (int frame = 0; frame < frameCount; frame++) {
+            StackTraceElement element = frames.get(frame);
+            if (element == null || frameEpochs[frame] >= newOldestEpoch) continue;
+            frameIds.remove(element);
+            frames.set(frame, null);
+            freeFrames.push(frame);
+        }
+        names.clear();
+        oldestEpoch = newOldestEpoch;
+    }
+
+    private int addFrame(StackTraceElement frame) {
+        int id;
+        if (freeFrames.size > 0) {
+            id = freeFrames.pop();
+            frames.set(id, frame);
+        } else {
+            if (frameCount == frameEpochs.length) {
+                frameEpochs = Arrays.copyOf(frameEpochs, frameCount * 2);
+                frameVersions = Arrays.copyOf(frameVersions, frameCount * 2);
+            }
+            id = frameCount++;
+            frames.add(frame);
+        }
+        frameVersions[id] = ++version;
+        return id;
+    }
+
+    private int addNode(int parent, int frameId) {
+        int id;
+        if (freeNodes.size > 0) {
+            id = freeNodes.pop();
+        } else {
+            ensureNodeCapacity(nodeCount + 1);
+            id = nodeCount++;
+        }
+        nodeParents[id] = parent;
+        nodeFrames[id] = frameId;
+        nodeVersions[id] = ++version;
+        return id;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (capacity <= nodeParents.length) return;
+        int newCapacity = Math.max(capacity, nodeParents.length * 2);
+        nodeParents = Arrays.copyOf(nodeParents, newCapacity);
+        nodeFrames = Arrays.copyOf(nodeFrames, newCapacity);
+        nodeEpochs = Arrays.copyOf(nodeEpochs, newCapacity);
+        nodeVersions = Arrays.copyOf(nodeVersions, newCapacity);
+    }
+
+    private static long getNodeKey(int parent, int frameId) {
+        return ((long) parent << 32) | (frameId & 0xFFFFFFFFL);
+    }
+
+    private void initialize() {
+        frames = new ArrayList<>();
+        frameIds = new HashMap<>();
+        frameEpochs = new int[INITIAL_CAPACITY];
+        frameVersions = new int[INITIAL_CAPACITY];
+        freeFrames = new IntStack();
+        nodeParents = new int[INITIAL_CAPACITY];
+        nodeFrames = new int[INITIAL_CAPACITY];
+        nodeEpochs = new int[INITIAL_CAPACITY];
+        nodeVersions = new int[INITIAL_CAPACITY];
+        freeNodes = new IntStack();
+        nodeIds = new HashMap<>();
+        names = new HashMap<>();
+        writtenVersions = new WeakHashMap<>();
+    }
+
+    private void writeEntries(ObjectOutputStream outputStream, int sinceVersion) throws IOException {
+        outputStream.writeInt(epoch);
+        outputStream.writeInt(oldestEpoch);
+        int count = 0;
+        for (int frame = 0; frame < frameCount; frame++) {
+            if (frames.get(frame) != null && frameVersions[frame] > sinceVersion) count++;
+        }
+        outputStream.writeInt(count);
+        for (int frame = 0; frame < frameCount; frame++) {
+            if (frames.get(frame) == null || frameVersions[frame] <= sinceVersion) continue;
+            outputStream.writeInt(frame);
+            outputStream.writeObject(frames.get(frame));
+        }
+        count = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeFrames[node] != FREE && nodeVersions[node] > sinceVersion) count++;
+        }
+        outputStream.writeInt(count);
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeFrames[node] == FREE || nodeVersions[node] <= sinceVersion) continue;
+            outputStream.writeInt(node);
+            outputStream.writeInt(nodeParents[node]);
+            outputStream.writeInt(nodeFrames[node]);
+        }
+        writtenVersions.put(outputStream, version);
+    }
+
+    private void readEntries(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        epoch = inputStream.readInt();
+        oldestEpoch = inputStream.readInt();
+        int count = inputStream.readInt();
+        for (int i = 0; i < count; i++) {
+            int id = inputStream.readInt();
+            StackTraceElement frame = (StackTraceElement) inputStream.readObject();
+            while (frames.size() <= id) {
+                frames.add(null);
+            }
+            StackTraceElement previousFrame = frames.set(id, frame);
+            if (previousFrame != null) frameIds.remove(previousFrame);
+            frameIds.put(frame, id);
+        }
+        frameCount = frames.size();
+        frameEpochs = Arrays.copyOf(frameEpochs, Math.max(frameEpochs.length, frameCount));
+        frameVersions = Arrays.copyOf(frameVersions, Math.max(frameVersions.length, frameCount));
+        count = inputStream.readInt();
+        for (int i = 0; i < count; i++) {
+            int id = inputStream.readInt();
+            int parent = inputStream.readInt();
+            int frameId = inputStream.readInt();
+            ensureNodeCapacity(id + 1);
+            if (id < nodeCount && nodeFrames[id] != FREE) nodeIds.remove(getNodeKey(nodeParents[id], nodeFrames[id]));
+            for (int node = nodeCount; node < id; node++) {
+                nodeFrames[node] = FREE;
+            }
+            nodeCount = Math.max(nodeCount, id + 1);
+            nodeParents[id] = parent;
+            nodeFrames[id] = frameId;
+            nodeIds.put(getNodeKey(parent, frameId), id);
+        }
+    }
+
+    private synchronized void writeObject(ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        writeEntries(outputStream, 0);
+    }
+
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        initialize();
+        readEntries(inputStream);
+    }
+
+    /**
+     * A stack of identifiers available for reuse.
+     */
+    private static final class IntStack {
+
+        private int[] values = new int[16];
+        private int size;
+
+        private void push(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        private int pop() {
+            return values[--size];
+        }
+    }
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import net.microfalx.lang.Identifiable;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 @Data
 public class ThreadInformation implements Identifiable<Long>, Serializable {
@@ -11,6 +14,7 @@ public class ThreadInformation implements Identifiable<Long>, Serializable {
     private static final long serialVersionUID = 4174499425268985048L;
 
     private long id;
+    private String name;
     private int daemon;
     private int nonDaemon;
 
@@ -23,6 +27,14 @@ public class ThreadInformation implements Identifiable<Long>, Serializable {
     private int suspendedCount;
     
     private Thread.State state;
+    private String lockName;
+    private long lockOwnerId = -1;
+    private String lockOwnerName;
+    private List<StackTraceElement> stackTrace = Collections.emptyList();
+    private long stuckTime;
+
+    private Collection<ThreadPoolInformation> pools = Collections.emptyList();
+    private Collection<LockContention> contentions = Collections.emptyList();
 
     public Long getId() {
         return id;
@@ -0,0 +1,61 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+import net.microfalx.lang.Nameable;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds aggregated information about a pool of threads, the threads which share the same name once the sequence
+ * number is removed (<code>http-nio-8080-exec-1</code>, <code>http-nio-8080-exec-2</code>, etc.).
+ * <p>
+ * The CPU time (nanoseconds), allocated bytes and blocked/waited counters (times in milliseconds) are calculated
+ * for the last interval, for the threads alive at the end of the interval.
+ */
+@Data
+public class ThreadPoolInformation implements Nameable, Serializable {
+
+    private static final long serialVersionUID = -4305316271409457563L;
+
+    private String name;
+    private int threads;
+    private Map<Thread.State, Integer> states = new EnumMap<>(Thread.State.class);
+
+    private long cpuTime;
+    private float cpu;
+    private long allocatedBytes;
+    private float allocationRate;
+
+    private long blockedTime;
+    private long blockedCount;
+    private long waitedTime;
+    private long waitedCount;
+
+    protected ThreadPoolInformation() {
+    }
+
+    public ThreadPoolInformation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the number of threads in a given state.
+     *
+     * @param state the state
+     * @return a positive integer
+     */
+    public int getCount(Thread.State state) {
+        return states.getOrDefault(state, 0);
+    }
+
+    /**
+     * Returns the percentage of threads which are busy (running or blocked), an indication of the pool saturation.
+     *
+     * @return a value between 0 and 100
+     */
+    public float getBusy() {
+        return threads == 0 ? 0 : 100 * (float) (getCount(Thread.State.RUNNABLE) + getCount(Thread.State.BLOCKED)) / threads;
+    }
+}
@@ -0,0 +1,39 @@
+package net.microfalx.jvm.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Holds the threads suspected to have problems: deadlocked threads and threads stuck at the same code location for
+ * longer than a threshold. Only the involved threads are reported, with their full stack.
+ */
+@Data
+public class ThreadReport implements Serializable {
+
+    private static final long serialVersionUID = 1792430657404811338L;
+
+    private long timestamp = System.currentTimeMillis();
+    private Collection<ThreadInformation> deadlockedThreads = Collections.emptyList();
+    private Collection<ThreadInformation> stuckThreads = Collections.emptyList();
+
+    /**
+     * Returns whether there are deadlocked threads.
+     *
+     * @return {@code true} if at least one deadlock exists, {@code false} otherwise
+     */
+    public boolean isDeadlocked() {
+        return !deadlockedThreads.isEmpty();
+    }
+
+    /**
+     * Returns whether the report contains any thread.
+     *
+     * @return {@code true} if no problems were detected, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return deadlockedThreads.isEmpty() && stuckThreads.isEmpty();
+    }
+}
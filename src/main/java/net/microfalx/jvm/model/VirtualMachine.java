@@ -1,8 +1,10 @@
 package net.microfalx.jvm.model;
 
 import lombok.Data;
+import net.microfalx.jvm.SnapshotCache;
 import net.microfalx.jvm.VirtualMachineCollector;
 import net.microfalx.jvm.VirtualMachineMBeanServer;
+import net.microfalx.jvm.VirtualMachineUtils;
 import net.microfalx.lang.Descriptable;
 import net.microfalx.lang.Nameable;
 
@@ -26,6 +28,10 @@ public class VirtualMachine implements Nameable, Descriptable, Serializable {
     private long nonHeapTotalMemory;
     private long nonHeapUsedMemory;
 
+    private long allocatedMemory;
+    private long promotedMemory;
+    private long survivorOverflows;
+
     private String name;
     private String description;
     private Collection<MemoryPool> memoryPools = Collections.emptyList();
@@ -34,8 +40,17 @@ public class VirtualMachine implements Nameable, Descriptable, Serializable {
     private RuntimeInformation runtimeInformation;
     private ThreadInformation threadInformation;
     private Process process;
+    private SocketInventory sockets;
+    private Collection<NativeThreadGroup> nativeThreadGroups = Collections.emptyList();
 
     private ThreadDump threadDump;
+    private ThreadReport threadReport;
+
+    private static final SnapshotCache<VirtualMachine> snapshot = new SnapshotCache<>(() ->
+            new VirtualMachineCollector(VirtualMachineMBeanServer.local()), VirtualMachineUtils::copy);
+    private static final SnapshotCache<VirtualMachine> metadataSnapshot = new SnapshotCache<>(() ->
+            (VirtualMachineCollector) new VirtualMachineCollector(VirtualMachineMBeanServer.local()).setMetadata(true),
+            VirtualMachineUtils::copy);
 
     /**
      * Returns information about current JVM.
@@ -48,14 +63,16 @@ public class VirtualMachine implements Nameable, Descriptable, Serializable {
 
     /**
      * Returns information about current JVM.
+     * <p>
+     * The information is collected at most once a second; concurrent callers share the same collection and all
+     * callers within a second receive the same collection. Each caller receives its own copy, which can be modified
+     * without affecting other callers.
      *
      * @param metadata {@code true} to collect only metadata, {@code metadata} to collect full stats
      * @return a non-null instance
      */
     public static VirtualMachine get(boolean metadata) {
-        VirtualMachineCollector collector = (VirtualMachineCollector) new VirtualMachineCollector(VirtualMachineMBeanServer.local())
-                .setMetadata(metadata);
-        return collector.execute();
+        return metadata ? metadataSnapshot.get() : snapshot.get();
     }
 
     public float getHeapUsedMemoryPercent() {
@@ -0,0 +1,89 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.CGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CGroupCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void v2() throws IOException {
+        Path proc = directory.resolve("proc");
+        Path root = directory.resolve("cgroup");
+        write(proc.resolve("self/cgroup"), "0::/app");
+        write(root.resolve("cgroup.controllers"), "cpu memory io");
+        write(root.resolve("app/cpu.max"), "50000 100000");
+        write(root.resolve("app/cpu.stat"), "usage_usec 1000\nnr_periods 10\nnr_throttled 0\nthrottled_usec 0");
+        CGroupCollector collector = new CGroupCollector(proc, root);
+        CGroup cgroup = collector.execute();
+        assertEquals(2, cgroup.getVersion());
+        assertEquals("/app", cgroup.getPath());
+        assertTrue(cgroup.isCpuLimited());
+        assertEquals(0.5f, cgroup.getCpuLimit());
+
+        write(root.resolve("app/cpu.stat"), "usage_usec 2000\nnr_periods 20\nnr_throttled 5\nthrottled_usec 300");
+        cgroup = collector.execute();
+        assertEquals(50f, cgroup.getCpuThrottled());
+        assertEquals(300, cgroup.getCpuThrottledTime());
+        assertThat(cgroup.getCpuUsage()).isGreaterThan(0);
+    }
+
+    @Test
+    void v2Unlimited() throws IOException {
+        Path proc = directory.resolve("proc");
+        Path root = directory.resolve("cgroup");
+        write(proc.resolve("self/cgroup"), "0::/");
+        write(root.resolve("cgroup.controllers"), "cpu memory io");
+        write(root.resolve("cpu.max"), "max 100000");
+        write(root.resolve("cpuset.cpus.effective"), "0");
+        write(root.resolve("cpu.stat"), "usage_usec 1000\nnr_periods 0\nnr_throttled 0\nthrottled_usec 0");
+        CGroup cgroup = new CGroupCollector(proc, root).execute();
+        assertEquals(2, cgroup.getVersion());
+        assertEquals(-1, cgroup.getCpuQuota());
+        assertEquals(1f, cgroup.getCpuLimit());
+    }
+
+    @Test
+    void v1() throws IOException {
+        Path proc = directory.resolve("proc");
+        Path root = directory.resolve("cgroup");
+        write(proc.resolve("self/cgroup"), "4:cpuset:/docker/1\n3:cpu,cpuacct:/docker/1\n1:name=systemd:/docker/1");
+        write(root.resolve("cpu,cpuacct/docker/1/cpu.cfs_quota_us"), "100000");
+        write(root.resolve("cpu,cpuacct/docker/1/cpu.cfs_period_us"), "100000");
+        write(root.resolve("cpu,cpuacct/docker/1/cpu.stat"), "nr_periods 10\nnr_throttled 2\nthrottled_time 5000000");
+        write(root.resolve("cpu,cpuacct/docker/1/cpuacct.usage"), "1000000");
+        CGroupCollector collector = new CGroupCollector(proc, root);
+        CGroup cgroup = collector.execute();
+        assertEquals(1, cgroup.getVersion());
+        assertEquals(1f, cgroup.getCpuLimit());
+        assertEquals(1000, cgroup.getCpuUsageTime());
+        assertEquals(5000, cgroup.getThrottledTime());
+
+        write(root.resolve("cpu,cpuacct/docker/1/cpu.stat"), "nr_periods 20\nnr_throttled 12\nthrottled_time 9000000");
+        cgroup = collector.execute();
+        assertEquals(100f, cgroup.getCpuThrottled());
+        assertEquals(4000, cgroup.getCpuThrottledTime());
+    }
+
+    @Test
+    void missing() {
+        CGroup cgroup = new CGroupCollector(directory.resolve("proc"), directory.resolve("cgroup")).execute();
+        assertEquals(0, cgroup.getVersion());
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
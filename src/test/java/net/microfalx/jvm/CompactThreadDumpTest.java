@@ -0,0 +1,129 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.CompactThreadDump;
+import net.microfalx.jvm.model.ThreadDump;
+import net.microfalx.jvm.model.ThreadDumpDictionary;
+import net.microfalx.jvm.model.ThreadInformation;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactThreadDumpTest {
+
+    @Test
+    void sharedPrefix() {
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary();
+        StackTraceElement run = new StackTraceElement("java.lang.Thread", "run", "Thread.java", 829);
+        StackTraceElement work = new StackTraceElement("com.acme.Worker", "work", "Worker.java", 10);
+        StackTraceElement read = new StackTraceElement("java.net.SocketInputStream", "read", "SocketInputStream.java", 100);
+        StackTraceElement write = new StackTraceElement("java.net.SocketOutputStream", "write", "SocketOutputStream.java", 50);
+        int first = dictionary.encode(Arrays.asList(read, work, run));
+        int second = dictionary.encode(Arrays.asList(write, work, run));
+        int third = dictionary.encode(Arrays.asList(read, work, run));
+        assertEquals(first, third);
+        assertEquals(4, dictionary.getFrameCount());
+        assertEquals(4, dictionary.getNodeCount());
+        assertEquals(Arrays.asList(write, work, run), dictionary.decode(second));
+        assertArrayEquals(new int[]{3, 1, 0}, dictionary.getFrameIds(second));
+        assertEquals(ThreadDumpDictionary.EMPTY_STACK, dictionary.encode(new ArrayList<>()));
+    }
+
+    @Test
+    void roundTrip() throws IOException, ClassNotFoundException {
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary();
+        ThreadDump threadDump = VirtualMachineUtils.createThreadDump(ManagementFactory.getThreadMXBean().dumpAllThreads(false, false));
+        CompactThreadDump compactThreadDump = CompactThreadDump.encode(threadDump, dictionary);
+        int nodes = dictionary.getNodeCount();
+        CompactThreadDump.encode(VirtualMachineUtils.createThreadDump(ManagementFactory.getThreadMXBean().dumpAllThreads(false, false)), dictionary);
+        assertThat(dictionary.getNodeCount()).isLessThan(nodes * 2);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(buffer)) {
+            outputStream.writeObject(compactThreadDump);
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            compactThreadDump = (CompactThreadDump) inputStream.readObject();
+        }
+        ThreadDump decoded = compactThreadDump.decode();
+        assertEquals(threadDump.getTimestamp(), decoded.getTimestamp());
+        assertEquals(threadDump.getThreads().size(), decoded.getThreads().size());
+        Iterator<ThreadInformation> iterator = decoded.getThreads().iterator();
+        for (ThreadInformation thread : threadDump.getThreads()) {
+            ThreadInformation decodedThread = iterator.next();
+            assertEquals(thread.getId(), decodedThread.getId());
+            assertEquals(thread.getName(), decodedThread.getName());
+            assertEquals(thread.getState(), decodedThread.getState());
+            assertEquals(thread.getStackTrace(), decodedThread.getStackTrace());
+        }
+    }
+
+    @Test
+    void sameStream() throws IOException, ClassNotFoundException {
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary();
+        StackTraceElement run = new StackTraceElement("java.lang.Thread", "run", "Thread.java", 829);
+        StackTraceElement read = new StackTraceElement("java.net.SocketInputStream", "read", "SocketInputStream.java", 100);
+        StackTraceElement write = new StackTraceElement("java.net.SocketOutputStream", "write", "SocketOutputStream.java", 50);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(buffer)) {
+            outputStream.writeObject(CompactThreadDump.encode(createThreadDump(Arrays.asList(read, run)), dictionary));
+            // the second dump adds a frame and a node after the dictionary was written
+            outputStream.writeObject(CompactThreadDump.encode(createThreadDump(Arrays.asList(write, run)), dictionary));
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            CompactThreadDump first = (CompactThreadDump) inputStream.readObject();
+            CompactThreadDump second = (CompactThreadDump) inputStream.readObject();
+            assertSame(first.getDictionary(), second.getDictionary());
+            assertEquals(Arrays.asList(read, run), first.getThread(0).getStackTrace());
+            assertEquals(Arrays.asList(write, run), second.getThread(0).getStackTrace());
+            assertEquals(3, second.getDictionary().getFrameCount());
+        }
+    }
+
+    @Test
+    void prune() throws IOException, ClassNotFoundException {
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary(2);
+        StackTraceElement run = new StackTraceElement("java.lang.Thread", "run", "Thread.java", 829);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        List<CompactThreadDump> dumps = new ArrayList<>();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(buffer)) {
+            for (int i = 0; i < 8; i++) {
+                StackTraceElement work = new StackTraceElement("com.acme.Worker", "work" + i, "Worker.java", i);
+                CompactThreadDump dump = CompactThreadDump.encode(createThreadDump(Arrays.asList(work, run)), dictionary);
+                outputStream.writeObject(dump);
+                dumps.add(dump);
+            }
+        }
+        assertThat(dictionary.getFrameCount()).isLessThanOrEqualTo(4);
+        assertThat(dictionary.getNodeCount()).isLessThanOrEqualTo(4);
+        assertFalse(dumps.get(0).isDecodable());
+        assertThrows(IllegalStateException.class, () -> dumps.get(0).getThread(0));
+        assertTrue(dumps.get(7).isDecodable());
+        assertTrue(dumps.get(6).isDecodable());
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            // each dump is decoded before the following dumps reuse the identifiers of its pruned frames
+            for (int i = 0; i < 8; i++) {
+                CompactThreadDump dump = (CompactThreadDump) inputStream.readObject();
+                assertEquals("work" + i, dump.getThread(0).getStackTrace().get(0).getMethodName());
+            }
+        }
+    }
+
+    private static ThreadDump createThreadDump(List<StackTraceElement> stackTrace) {
+        ThreadInformation thread = new ThreadInformation();
+        thread.setId(1);
+        thread.setName("worker");
+        thread.setState(Thread.State.RUNNABLE);
+        thread.setStackTrace(stackTrace);
+        ThreadDump threadDump = new ThreadDump();
+        threadDump.addThread(thread);
+        return threadDump;
+    }
+}
@@ -0,0 +1,50 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.BlockDevice;
+import net.microfalx.lang.ThreadUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DiskStatsCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void collect() throws IOException {
+        Path proc = directory.resolve("proc");
+        Path sys = directory.resolve("sys");
+        Files.createDirectories(proc);
+        Files.createDirectories(sys.resolve("block/sda"));
+        write(proc, 100, 200, 50, 500, 100, 200);
+        DiskStatsCollector collector = new DiskStatsCollector(proc, sys);
+        Collection<BlockDevice> devices = collector.execute();
+        assertEquals(1, devices.size());
+        BlockDevice device = devices.iterator().next();
+        assertEquals("sda", device.getName());
+        assertEquals(800 * 512, device.getReadBytes());
+
+        ThreadUtils.sleepMillis(100);
+        write(proc, 110, 300, 60, 700, 150, 400);
+        device = collector.execute().iterator().next();
+        assertEquals(10, device.getReadLatency());
+        assertEquals(20, device.getWriteLatency());
+        assertThat(device.getUtilization()).isGreaterThan(0).isLessThanOrEqualTo(100);
+        assertThat(device.getQueueDepth()).isGreaterThan(0);
+    }
+
+    private void write(Path proc, long reads, long readTime, long writes, long writeTime, long ioTime, long weightedIoTime) throws IOException {
+        Files.writeString(proc.resolve("diskstats"),
+                "   7       0 loop0 10 0 10 0 0 0 0 0 0 0 0 0 0 0 0 0 0\n"
+                + "   8       0 sda " + reads + " 0 800 " + readTime + " " + writes + " 0 400 " + writeTime + " 0 " + ioTime + " " + weightedIoTime + " 0 0 0 0\n"
+                + "   8       1 sda1 " + reads + " 0 800 " + readTime + " " + writes + " 0 400 " + writeTime + " 0 " + ioTime + " " + weightedIoTime + " 0 0 0 0\n");
+    }
+}
@@ -0,0 +1,82 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ExhaustionForecast;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExhaustionEstimatorTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void notEnoughSamples() {
+        ExhaustionEstimator estimator = new ExhaustionEstimator();
+        for (int i = 0; i < 5; i++) {
+            estimator.update(i * 1000, i * MB);
+        }
+        ExhaustionForecast forecast = estimator.forecast(100 * MB);
+        assertFalse(forecast.isExhausting());
+        assertEquals(5, forecast.getSamples());
+    }
+
+    @Test
+    void linearGrowth() {
+        ExhaustionEstimator estimator = new ExhaustionEstimator();
+        for (int i = 0; i < 20; i++) {
+            estimator.update(i * 1000, i * MB);
+        }
+        ExhaustionForecast forecast = estimator.forecast(100 * MB);
+        assertTrue(forecast.isExhausting());
+        assertEquals(MB, forecast.getSlope(), 1);
+        assertEquals(81_000, forecast.getTimeToExhaustion(), 10);
+        assertEquals(forecast.getTimeToExhaustion(), forecast.getMinimumTimeToExhaustion(), 10);
+    }
+
+    @Test
+    void noisyGrowth() {
+        ExhaustionEstimator estimator = new ExhaustionEstimator();
+        Random random = new Random(1);
+        for (int i = 0; i < 60; i++) {
+            estimator.update(i * 1000, i * MB + random.nextInt((int) (5 * MB)));
+        }
+        ExhaustionForecast forecast = estimator.forecast(200 * MB);
+        assertTrue(forecast.isExhausting());
+        assertTrue(forecast.getMinimumTimeToExhaustion() <= forecast.getTimeToExhaustion());
+        assertTrue(forecast.getMaximumTimeToExhaustion() >= forecast.getTimeToExhaustion());
+        assertTrue(forecast.getRSquare() > 0.5);
+    }
+
+    @Test
+    void flatOrNoise() {
+        ExhaustionEstimator estimator = new ExhaustionEstimator();
+        Random random = new Random(1);
+        for (int i = 0; i < 60; i++) {
+            estimator.update(i * 1000, 50 * MB + random.nextInt((int) (5 * MB)));
+        }
+        assertFalse(estimator.forecast(100 * MB).isExhausting());
+    }
+
+    @Test
+    void followsTrendChanges() {
+        ExhaustionEstimator estimator = new ExhaustionEstimator(40);
+        for (int i = 0; i < 100; i++) {
+            estimator.update(i * 1000, i * MB);
+        }
+        assertTrue(estimator.forecast(1000 * MB).isExhausting());
+        for (int i = 100; i < 200; i++) {
+            estimator.update(i * 1000, (200 - i) * MB);
+        }
+        ExhaustionForecast forecast = estimator.forecast(1000 * MB);
+        assertFalse(forecast.isExhausting());
+        assertTrue(forecast.getSamples() <= 40);
+        assertTrue(forecast.getSlope() < 0);
+    }
+
+    @Test
+    void invalidWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new ExhaustionEstimator(5));
+    }
+}
@@ -0,0 +1,124 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Process;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDescriptorTrackerTest {
+
+    private static final long NOW = 10_000_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void limitsAndTypes() throws IOException {
+        Path self = directory.resolve("self");
+        Path fd = Files.createDirectories(self.resolve("fd"));
+        Files.writeString(self.resolve("limits"), "Limit                     Soft Limit           Hard Limit           Units\n"
+                                                  + "Max processes             unlimited            unlimited            processes\n"
+                                                  + "Max open files            1024                 524288               files\n");
+        Files.createSymbolicLink(fd.resolve("0"), Paths.get("/dev/null"));
+        Files.createSymbolicLink(fd.resolve("1"), Paths.get("pipe:[10]"));
+        Files.createSymbolicLink(fd.resolve("2"), Paths.get("socket:[11]"));
+        Files.createSymbolicLink(fd.resolve("3"), Paths.get("socket:[12]"));
+        Files.createSymbolicLink(fd.resolve("4"), Paths.get("anon_inode:[eventfd]"));
+        Files.createSymbolicLink(fd.resolve("5"), Paths.get("anon_inode:[eventpoll]"));
+        Files.createSymbolicLink(fd.resolve("6"), Paths.get("/opt/app/lib/app.jar"));
+
+        Process process = new Process();
+        process.setFileDescriptors(256);
+        new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10)).update(process);
+        assertEquals(1024, process.getFileDescriptorsSoftLimit());
+        assertEquals(524288, process.getFileDescriptorsHardLimit());
+        assertEquals(25f, process.getFileDescriptorsPercent());
+        assertEquals(2, process.getFileDescriptors(Process.FileDescriptorType.SOCKET));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.PIPE));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.EVENTFD));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.ANON_INODE));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.DEVICE));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.FILE));
+    }
+
+    @Test
+    void listing() {
+        FileDescriptorTracker tracker = new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        Process process = new Process();
+        tracker.update(process, List.of("socket:[11]", "socket:[12]", "pipe:[10]"));
+        assertEquals(2, process.getFileDescriptors(Process.FileDescriptorType.SOCKET));
+        process = new Process();
+        tracker.update(process, List.of("socket:[11]"));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.SOCKET));
+        assertEquals(0, process.getFileDescriptors(Process.FileDescriptorType.PIPE));
+    }
+
+    @Test
+    void classificationDue() {
+        FileDescriptorTracker tracker = new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        assertTrue(tracker.isClassificationDue(NOW));
+        Process process = new Process();
+        tracker.update(process, List.of("socket:[11]", "pipe:[10]"), NOW);
+        assertFalse(tracker.isClassificationDue(NOW + 30_000));
+        // between classifications the previous breakdown is reported, without listing the descriptors
+        process = new Process();
+        tracker.update(process, null, NOW + 30_000);
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.SOCKET));
+        assertEquals(1, process.getFileDescriptors(Process.FileDescriptorType.PIPE));
+        assertTrue(tracker.isClassificationDue(NOW + 60_000));
+    }
+
+    @Test
+    void leak() {
+        FileDescriptorTracker tracker = new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        Process process = null;
+        for (int i = 0; i < 10; i++) {
+            process = new Process();
+            process.setFileDescriptors(100 + i * 5);
+            tracker.update(process, null, NOW + i * 60_000);
+        }
+        assertTrue(process.isFileDescriptorsLeaking());
+        assertEquals(5, process.getFileDescriptorsGrowth(), 0.001);
+    }
+
+    @Test
+    void fluctuation() {
+        FileDescriptorTracker tracker = new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        Process process = null;
+        for (int i = 0; i < 20; i++) {
+            process = new Process();
+            process.setFileDescriptors(i % 2 == 0 ? 100 : 150);
+            tracker.update(process, null, NOW + i * 60_000);
+        }
+        assertFalse(process.isFileDescriptorsLeaking());
+    }
+
+    @Test
+    void window() {
+        FileDescriptorTracker tracker = new FileDescriptorTracker(directory, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        Process process = null;
+        // frequent updates over a short time do not cover the window, the growth is not a leak yet
+        for (int i = 0; i < 100; i++) {
+            process = new Process();
+            process.setFileDescriptors(100 + i);
+            tracker.update(process, null, NOW + i * 1000);
+        }
+        assertFalse(process.isFileDescriptorsLeaking());
+        // a fluctuation older than the window is forgotten
+        for (int i = 0; i < 20; i++) {
+            process = new Process();
+            process.setFileDescriptors(300 + i * 5);
+            tracker.update(process, null, NOW + 3_600_000 + i * 60_000);
+        }
+        assertTrue(process.isFileDescriptorsLeaking());
+        assertEquals(5, process.getFileDescriptorsGrowth(), 0.001);
+    }
+}
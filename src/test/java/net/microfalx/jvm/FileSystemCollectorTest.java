@@ -0,0 +1,107 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.FileSystem;
+import net.microfalx.lang.ThreadUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import oshi.software.os.OSFileStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class FileSystemCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    private Path mountInfo;
+    private oshi.software.os.FileSystem fileSystem;
+
+    @BeforeEach
+    void setup() throws IOException {
+        mountInfo = directory.resolve("mountinfo");
+        Files.writeString(mountInfo, "22 1 8:1 / / rw - ext4 /dev/sda1 rw\n");
+        fileSystem = mock(oshi.software.os.FileSystem.class);
+    }
+
+    @Test
+    void cached() throws IOException {
+        OSFileStore root = createStore("/", false);
+        when(fileSystem.getFileStores()).thenReturn(List.of(root));
+        FileSystemCollector collector = new FileSystemCollector(fileSystem, mountInfo);
+        assertEquals(1, collector.execute().size());
+        assertEquals(1, collector.execute().size());
+        verify(fileSystem, times(1)).getFileStores();
+        verify(root, timeout(1000).times(2)).updateAttributes();
+
+        Files.writeString(mountInfo, "22 1 8:1 / / rw - ext4 /dev/sda1 rw\n23 1 8:2 / /data rw - xfs /dev/sda2 rw\n");
+        collector.execute();
+        verify(fileSystem, times(2)).getFileStores();
+    }
+
+    @Test
+    void hung() {
+        OSFileStore root = createStore("/", false);
+        OSFileStore nfs = createStore("/mnt/nfs", true);
+        when(fileSystem.getFileStores()).thenReturn(List.of(root, nfs));
+        FileSystemCollector collector = new FileSystemCollector(fileSystem, mountInfo).setTimeout(Duration.ofMillis(200));
+        long start = System.currentTimeMillis();
+        Collection<FileSystem> fileSystems = collector.execute();
+        collector.execute();
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+        assertEquals(2, fileSystems.size());
+        for (FileSystem fs : fileSystems) {
+            if (fs.getMount().equals("/mnt/nfs")) {
+                assertTrue(fs.isStale());
+                assertEquals(1000, fs.getTotalSpace());
+            } else {
+                assertFalse(fs.isStale());
+            }
+        }
+        // a single refresh is pending for the hung mount
+        verify(nfs, times(1)).updateAttributes();
+    }
+
+    @Test
+    void hungMounts() {
+        OSFileStore root = createStore("/", false);
+        when(fileSystem.getFileStores()).thenAnswer(invocation -> {
+            ThreadUtils.sleepSeconds(10);
+            return List.of();
+        }).thenReturn(List.of(root));
+        FileSystemCollector collector = new FileSystemCollector(fileSystem, mountInfo).setTimeout(Duration.ofMillis(100))
+                .setMountsTimeout(Duration.ofMillis(300));
+        assertEquals(0, collector.execute().size());
+        ThreadUtils.sleepMillis(400);
+        // the hung retrieval is cancelled and the next one is submitted with the following scrape
+        assertEquals(0, collector.execute().size());
+        assertEquals(1, collector.execute().size());
+        verify(fileSystem, times(2)).getFileStores();
+    }
+
+    private OSFileStore createStore(String mount, boolean hung) {
+        OSFileStore store = mock(OSFileStore.class);
+        when(store.getName()).thenReturn(mount);
+        when(store.getMount()).thenReturn(mount);
+        when(store.getType()).thenReturn("ext4");
+        when(store.getUUID()).thenReturn(mount);
+        when(store.getTotalSpace()).thenReturn(1000L);
+        when(store.getUsableSpace()).thenReturn(500L);
+        when(store.updateAttributes()).thenAnswer(invocation -> {
+            if (hung) ThreadUtils.sleepSeconds(10);
+            return true;
+        });
+        return store;
+    }
+}
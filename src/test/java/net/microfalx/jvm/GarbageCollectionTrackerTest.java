@@ -0,0 +1,61 @@
+package net.microfalx.jvm;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GarbageCollectionTrackerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void youngCollections() {
+        GarbageCollectionTracker tracker = new GarbageCollectionTracker();
+        tracker.update("G1 Young Generation", usage(100, 10, 200, 10), usage(0, 5, 210, 10));
+        assertEquals(0, tracker.getAllocatedBytes());
+        assertEquals(10 * MB, tracker.getPromotedBytes());
+
+        tracker.update("G1 Young Generation", usage(80, 5, 210, 10), usage(0, 10, 240, 10));
+        assertEquals(80 * MB, tracker.getAllocatedBytes());
+        assertEquals(40 * MB, tracker.getPromotedBytes());
+        assertEquals(2, tracker.getYoungCollections());
+        assertEquals(1, tracker.getSurvivorOverflows());
+
+        tracker.update("G1 Old Generation", usage(50, 10, 240, 10), usage(0, 0, 100, 10));
+        assertEquals(130 * MB, tracker.getAllocatedBytes());
+        assertEquals(40 * MB, tracker.getPromotedBytes());
+        assertEquals(2, tracker.getYoungCollections());
+    }
+
+    @Test
+    void survivorWithoutMaximum() {
+        GarbageCollectionTracker tracker = new GarbageCollectionTracker();
+        // G1 commits the survivor regions as needed, so the survivor space is always (almost) full
+        tracker.update("G1 Young Generation", usage(100, 8, 200, 8, -1), usage(0, 8, 205, 8, -1));
+        tracker.update("G1 Young Generation", usage(100, 8, 205, 8, -1), usage(0, 12, 211, 12, -1));
+        assertEquals(2, tracker.getYoungCollections());
+        assertEquals(0, tracker.getSurvivorOverflows());
+
+        // more was promoted than the survivor space held, so objects were copied from Eden directly to the old gen
+        tracker.update("G1 Young Generation", usage(100, 12, 211, 12, -1), usage(0, 16, 251, 16, -1));
+        assertEquals(1, tracker.getSurvivorOverflows());
+    }
+
+    private Map<String, MemoryUsage> usage(long eden, long survivor, long tenured, long survivorMax) {
+        return usage(eden, survivor, tenured, survivorMax, survivorMax);
+    }
+
+    private Map<String, MemoryUsage> usage(long eden, long survivor, long tenured, long survivorCommitted, long survivorMax) {
+        Map<String, MemoryUsage> usage = new HashMap<>();
+        usage.put("G1 Eden Space", new MemoryUsage(0, eden * MB, 512 * MB, -1));
+        usage.put("G1 Survivor Space", new MemoryUsage(0, survivor * MB, survivorCommitted * MB,
+                survivorMax < 0 ? -1 : survivorMax * MB));
+        usage.put("G1 Old Gen", new MemoryUsage(0, tenured * MB, 1024 * MB, 2048 * MB));
+        usage.put("Metaspace", new MemoryUsage(0, 50 * MB, 60 * MB, -1));
+        return usage;
+    }
+}
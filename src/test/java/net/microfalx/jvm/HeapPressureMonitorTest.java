@@ -0,0 +1,74 @@
+package net.microfalx.jvm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.microfalx.jvm.HeapPressureMonitor.Level.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapPressureMonitorTest {
+
+    @Test
+    void levels() {
+        HeapPressureMonitor monitor = new HeapPressureMonitor();
+        assertEquals(NORMAL, monitor.getLevel());
+        monitor.update(50, 100);
+        assertEquals(NORMAL, monitor.getLevel());
+        monitor.update(80, 100);
+        assertEquals(ELEVATED, monitor.getLevel());
+        monitor.update(95, 100);
+        assertEquals(CRITICAL, monitor.getLevel());
+        assertEquals(95, monitor.getUsedPercent(), 0.01);
+    }
+
+    @Test
+    void hysteresis() {
+        HeapPressureMonitor monitor = new HeapPressureMonitor();
+        monitor.update(92, 100);
+        assertEquals(CRITICAL, monitor.getLevel());
+        monitor.update(85, 100);
+        assertEquals(CRITICAL, monitor.getLevel());
+        monitor.update(78, 100);
+        assertEquals(ELEVATED, monitor.getLevel());
+        monitor.update(70, 100);
+        assertEquals(ELEVATED, monitor.getLevel());
+        monitor.update(60, 100);
+        assertEquals(NORMAL, monitor.getLevel());
+        monitor.update(70, 100);
+        assertEquals(NORMAL, monitor.getLevel());
+    }
+
+    @Test
+    void listeners() {
+        HeapPressureMonitor monitor = new HeapPressureMonitor();
+        List<HeapPressureMonitor.Level> levels = new ArrayList<>();
+        monitor.addListener((previousLevel, level, usedPercent) -> {
+            throw new IllegalStateException("Should not stop other listeners");
+        });
+        monitor.addListener((previousLevel, level, usedPercent) -> levels.add(level));
+        monitor.update(80, 100);
+        monitor.update(82, 100);
+        monitor.update(95, 100);
+        monitor.update(10, 100);
+        assertEquals(List.of(ELEVATED, CRITICAL, NORMAL), levels);
+    }
+
+    @Test
+    void thresholds() {
+        HeapPressureMonitor monitor = new HeapPressureMonitor();
+        monitor.setThresholds(50, 60, 5);
+        monitor.update(55, 100);
+        assertEquals(ELEVATED, monitor.getLevel());
+        assertThrows(IllegalArgumentException.class, () -> monitor.setThresholds(70, 60, 5));
+        assertThrows(IllegalArgumentException.class, () -> monitor.setThresholds(50, 60, 50));
+    }
+
+    @Test
+    void start() {
+        HeapPressureMonitor monitor = HeapPressureMonitor.get();
+        System.gc();
+        assertNotNull(monitor.getLevel());
+    }
+}
@@ -0,0 +1,46 @@
+package net.microfalx.jvm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadAverageTest {
+
+    @Test
+    void initialValue() {
+        LoadAverage loadAverage = new LoadAverage();
+        loadAverage.update(1000, 50);
+        assertEquals(50, loadAverage.getOneMinute());
+        assertEquals(50, loadAverage.getFiveMinutes());
+        assertEquals(50, loadAverage.getFifteenMinutes());
+    }
+
+    @Test
+    void step() {
+        LoadAverage loadAverage = new LoadAverage();
+        loadAverage.update(0, 0);
+        for (int i = 1; i <= 12; i++) {
+            loadAverage.update(i * 5000, 100);
+        }
+        // after one minute, an average over one minute reaches 1 - 1/e of the step
+        assertEquals(100 * (1 - Math.exp(-1)), loadAverage.getOneMinute(), 0.001);
+        assertEquals(100 * (1 - Math.exp(-1 / 5d)), loadAverage.getFiveMinutes(), 0.001);
+        assertEquals(100 * (1 - Math.exp(-1 / 15d)), loadAverage.getFifteenMinutes(), 0.001);
+    }
+
+    @Test
+    void independentOfInterval() {
+        LoadAverage frequent = new LoadAverage();
+        LoadAverage rare = new LoadAverage();
+        frequent.update(0, 0);
+        rare.update(0, 0);
+        for (int i = 1; i <= 60; i++) {
+            frequent.update(i * 1000, 10);
+        }
+        rare.update(60_000, 10);
+        assertEquals(frequent.getOneMinute(), rare.getOneMinute(), 0.001);
+        assertTrue(frequent.getOneMinute() > frequent.getFiveMinutes());
+        assertTrue(frequent.getFiveMinutes() > frequent.getFifteenMinutes());
+    }
+}
@@ -0,0 +1,56 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.LockContention;
+import net.microfalx.jvm.model.ThreadInformation;
+import net.microfalx.lang.ThreadUtils;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LockContentionProfilerTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void contention() throws InterruptedException {
+        LockContentionProfiler profiler = new LockContentionProfiler(ManagementFactory.getThreadMXBean(), 5);
+        profiler.update(new ThreadInformation());
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        synchronized (lock) {
+            for (int i = 0; i < 2; i++) {
+                Thread thread = new Thread(() -> {
+                    synchronized (lock) {
+                        release.countDown();
+                    }
+                }, "contender-" + i);
+                thread.start();
+                threads.add(thread);
+            }
+            while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.BLOCKED)) {
+                ThreadUtils.sleepMillis(5);
+            }
+            ThreadInformation threadInformation = new ThreadInformation();
+            profiler.update(threadInformation);
+            assertThat(threadInformation.getContentions()).isNotEmpty();
+            LockContention contention = threadInformation.getContentions().iterator().next();
+            assertEquals(Object.class.getName(), contention.getLockClass());
+            assertEquals(2, contention.getSamples());
+            assertEquals(2, contention.getMaximumWaiters());
+            assertEquals(Thread.currentThread().getName(), contention.getOwnerName());
+            assertThat(contention.getFrame()).contains("lambda");
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ThreadInformation threadInformation = new ThreadInformation();
+        profiler.update(threadInformation);
+        assertThat(threadInformation.getContentions()).isEmpty();
+    }
+}
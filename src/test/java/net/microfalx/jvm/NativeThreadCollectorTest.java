@@ -0,0 +1,141 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.NativeThreadGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NativeThreadCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void collect() throws IOException {
+        write(10, "http-nio-8080-e", 1000, 100, 10);
+        write(11, "http-nio-8080-e", 1000, 100, 10);
+        write(12, "GC Thread#0", 500, 0, 5);
+        NativeThreadCollector collector = new NativeThreadCollector(directory,
+                () -> Arrays.asList("http-nio-8080-exec-1", "http-nio-8080-exec-2"));
+        Collection<NativeThreadGroup> groups = collector.execute();
+        assertEquals(2, groups.size());
+
+        write(10, "http-nio-8080-e", 2000, 1100, 20, 20, 10);
+        write(11, "http-nio-8080-e", 2000, 1100, 20, 20, 10);
+        write(12, "GC Thread#0", 1500, 0, 15, 20, 5);
+        groups = collector.execute();
+        NativeThreadGroup application = find(groups, "http-nio-8080-e");
+        assertFalse(application.isInternal());
+        assertEquals(2, application.getThreads());
+        assertEquals(2000, application.getCpuTime());
+        assertEquals(2000, application.getWaitTime());
+        assertEquals(50f, application.getRunQueueWait());
+        assertEquals(100, application.getSchedulingDelay());
+        NativeThreadGroup gc = find(groups, "GC Thread");
+        assertTrue(gc.isInternal());
+        assertEquals(0f, gc.getRunQueueWait());
+        assertEquals(NativeThreadGroup.Category.GC, gc.getCategory());
+        assertEquals(NativeThreadGroup.Category.APPLICATION, application.getCategory());
+        assertEquals(200, application.getUserTime());
+        assertEquals(100, application.getSystemTime());
+        assertEquals(100, gc.getUserTime());
+        assertTrue(gc.getCpu() > 0);
+    }
+
+    @Test
+    void mainThread() throws IOException {
+        write(10, "java", 1000, 100, 10);
+        write(11, "javalin-worker-", 1000, 100, 10);
+        write(12, "VM Thread", 1000, 100, 10);
+        NativeThreadCollector collector = new NativeThreadCollector(directory,
+                () -> Arrays.asList("main", "javalin-worker-1"));
+        Collection<NativeThreadGroup> groups = collector.execute();
+        assertEquals(NativeThreadGroup.Category.APPLICATION, find(groups, "java").getCategory());
+        assertEquals(NativeThreadGroup.Category.APPLICATION, find(groups, "javalin-worker-").getCategory());
+        assertEquals(NativeThreadGroup.Category.VM, find(groups, "VM Thread").getCategory());
+    }
+
+    @Test
+    void reusedIdentifier() throws IOException {
+        write(10, "worker-1", 1000, 100, 10);
+        NativeThreadCollector collector = new NativeThreadCollector(directory, () -> Arrays.asList("worker-1"));
+        collector.execute();
+        // the thread exited and its identifier was assigned to a new thread, with more CPU time
+        write(10, "GC Thread#1", 5000, 100, 10, 10, 5, 200);
+        Collection<NativeThreadGroup> groups = collector.execute();
+        assertEquals(1, groups.size());
+        assertEquals(NativeThreadGroup.Category.GC, find(groups, "GC Thread").getCategory());
+        assertEquals(0, find(groups, "GC Thread").getCpuTime());
+    }
+
+    @Test
+    void allocations() {
+        assumeTrue(LinuxUtils.isLinux());
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        NativeThreadCollector collector = new NativeThreadCollector();
+        ThreadSampler.Sample sample = new ThreadSampler().sample();
+        long allocatedBytes = Long.MAX_VALUE;
+        int threads = 0;
+        for (int i = 0; i < 10; i++) {
+            long threadId = Thread.currentThread().getId();
+            long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+            Collection<NativeThreadGroup> groups = collector.execute(sample);
+            allocatedBytes = Math.min(allocatedBytes, threadMXBean.getThreadAllocatedBytes(threadId) - startBytes);
+            threads = groups.stream().mapToInt(NativeThreadGroup::getThreads).sum();
+        }
+        // the files are read into a reused buffer, only the file names, streams and the groups are allocated
+        assertThat(threads).isGreaterThan(0);
+        assertThat(allocatedBytes).isLessThanOrEqualTo(4096L * threads);
+    }
+
+    @Test
+    void category() {
+        assertEquals(NativeThreadGroup.Category.GC, NativeThreadCollector.getCategory("G1 Conc#0", true));
+        assertEquals(NativeThreadGroup.Category.GC, NativeThreadCollector.getCategory("ZWorker#2", true));
+        assertEquals(NativeThreadGroup.Category.COMPILER, NativeThreadCollector.getCategory("C2 CompilerThre", true));
+        assertEquals(NativeThreadGroup.Category.VM, NativeThreadCollector.getCategory("VM Thread", true));
+        assertEquals(NativeThreadGroup.Category.VM, NativeThreadCollector.getCategory("Finalizer", false));
+        assertEquals(NativeThreadGroup.Category.VM, NativeThreadCollector.getCategory("unknown", true));
+        assertEquals(NativeThreadGroup.Category.APPLICATION, NativeThreadCollector.getCategory("worker-1", false));
+    }
+
+    @Test
+    void groupName() {
+        assertEquals("pool-1-thread", VirtualMachineUtils.getThreadGroupName("pool-1-thread-12"));
+        assertEquals("GC Thread", VirtualMachineUtils.getThreadGroupName("GC Thread#3"));
+        assertEquals("VM Thread", VirtualMachineUtils.getThreadGroupName("VM Thread"));
+        assertEquals("42", VirtualMachineUtils.getThreadGroupName("42"));
+    }
+
+    private NativeThreadGroup find(Collection<NativeThreadGroup> groups, String name) {
+        return groups.stream().filter(group -> group.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private void write(int tid, String name, long cpuTime, long waitTime, long timeslices) throws IOException {
+        write(tid, name, cpuTime, waitTime, timeslices, 10, 5);
+    }
+
+    private void write(int tid, String name, long cpuTime, long waitTime, long timeslices, long userTime, long systemTime) throws IOException {
+        write(tid, name, cpuTime, waitTime, timeslices, userTime, systemTime, 100);
+    }
+
+    private void write(int tid, String name, long cpuTime, long waitTime, long timeslices, long userTime, long systemTime,
+                       long startTime) throws IOException {
+        Path task = Files.createDirectories(directory.resolve("self/task/" + tid));
+        Files.writeString(task.resolve("comm"), name + "\n");
+        Files.writeString(task.resolve("schedstat"), cpuTime + " " + waitTime + " " + timeslices + "\n");
+        Files.writeString(task.resolve("stat"), tid + " (" + name + ") S 1 1 1 0 -1 4194624 100 0 0 0 "
+                                                + userTime + " " + systemTime + " 0 0 20 0 1 0 " + startTime + " 0 0\n");
+    }
+}
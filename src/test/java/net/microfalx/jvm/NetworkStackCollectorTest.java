@@ -0,0 +1,56 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.NetworkStack;
+import net.microfalx.jvm.model.SocketInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NetworkStackCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void collect() throws IOException {
+        Path net = directory.resolve("net");
+        Files.createDirectories(net);
+        Files.writeString(net.resolve("snmp"), "Tcp: RtoAlgorithm RtoMin RtoMax MaxConn ActiveOpens PassiveOpens AttemptFails EstabResets CurrEstab InSegs OutSegs RetransSegs InErrs OutRsts InCsumErrors\n"
+                                               + "Tcp: 1 200 120000 -1 10 20 1 2 5 1000 2000 40 3 4 0\n"
+                                               + "Udp: InDatagrams NoPorts InErrors OutDatagrams RcvbufErrors SndbufErrors InCsumErrors IgnoredMulti MemErrors\n"
+                                               + "Udp: 100 1 7 90 5 2 0 0 0\n");
+        Files.writeString(net.resolve("netstat"), "TcpExt: SyncookiesSent ListenOverflows ListenDrops TCPTimeouts\n"
+                                                  + "TcpExt: 0 11 12 13\n");
+        Files.writeString(net.resolve("sockstat"), "sockets: used 18\nTCP: inuse 4 orphan 1 tw 3 alloc 6 mem 0\nUDP: inuse 2 mem 0\n");
+        Files.writeString(net.resolve("tcp"), "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode\n"
+                                              + "   0: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 100 1 0 100 0 0 10 0\n"
+                                              + "   1: 0100007F:1F90 0100007F:D431 01 00000000:00000000 00:00000000 00000000  1000        0 101 1 0 20 4 30 10 -1\n"
+                                              + "   2: 0100007F:1F90 0100007F:D432 08 00000000:00000000 00:00000000 00000000  1000        0 102 1 0 20 4 30 10 -1\n");
+        Files.writeString(net.resolve("tcp6"), "  sl  local_address                         remote_address                        st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode\n"
+                                               + "   0: 00000000000000000000000000000000:0016 00000000000000000000000000000000:0000 0A 00000000:00000000 00:00000000 00000000     0        0 200 1 0 100 0 0 10 0\n"
+                                               + "  10: 00000000000000000000000001000000:1F90 00000000000000000000000001000000:D433 01 00000000:00000000 00:00000000 00000000  1000        0 201 1 0 20 4 30 10 -1\n");
+        NetworkStack stack = new NetworkStackCollector(directory).execute();
+        assertEquals(10, stack.getTcpActiveOpens());
+        assertEquals(20, stack.getTcpPassiveOpens());
+        assertEquals(5, stack.getTcpEstablished());
+        assertEquals(40, stack.getTcpRetransmits());
+        assertEquals(2f, stack.getTcpRetransmitsPercent());
+        assertEquals(11, stack.getTcpListenOverflows());
+        assertEquals(12, stack.getTcpListenDrops());
+        assertEquals(7, stack.getUdpReceiveErrors());
+        assertEquals(7, stack.getUdpBufferErrors());
+        assertEquals(18, stack.getSocketsUsed());
+        assertEquals(3, stack.getTcpTimeWait());
+        assertEquals(1, stack.getTcpOrphan());
+        assertEquals(2, stack.getUdpInUse());
+        assertEquals(2, stack.getTcpCount(SocketInventory.State.LISTEN));
+        assertEquals(2, stack.getTcpCount(SocketInventory.State.ESTABLISHED));
+        assertEquals(1, stack.getTcpCount(SocketInventory.State.CLOSE_WAIT));
+        assertEquals(0, stack.getTcpCount(SocketInventory.State.TIME_WAIT));
+    }
+}
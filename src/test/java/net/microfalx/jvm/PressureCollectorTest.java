@@ -0,0 +1,52 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Pressure;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PressureCollectorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void system() throws IOException {
+        write("cpu", 100, 0);
+        write("io", 2000, 1000);
+        PressureCollector collector = new PressureCollector(directory, "");
+        Collection<Pressure> pressures = collector.execute();
+        assertEquals(2, pressures.size());
+        Pressure io = pressures.stream().filter(p -> p.getType() == Pressure.Type.IO).findFirst().orElseThrow();
+        assertEquals(1.5f, io.getSomeAvg10());
+        assertEquals(2000, io.getSomeTotal());
+        assertEquals(1000, io.getFullTotal());
+        assertEquals(0, io.getSomeStallTime());
+
+        write("io", 2500, 1200);
+        pressures = collector.execute();
+        io = pressures.stream().filter(p -> p.getType() == Pressure.Type.IO).findFirst().orElseThrow();
+        assertEquals(500, io.getSomeStallTime());
+        assertEquals(200, io.getFullStallTime());
+    }
+
+    @Test
+    void cgroup() throws IOException {
+        Files.writeString(directory.resolve("memory.pressure"), "some avg10=0.00 avg60=0.00 avg300=0.00 total=10\n"
+                                                                 + "full avg10=0.00 avg60=0.00 avg300=0.00 total=5\n");
+        Collection<Pressure> pressures = PressureCollector.cgroup(directory).execute();
+        assertEquals(1, pressures.size());
+        assertEquals(5, pressures.iterator().next().getFullTotal());
+    }
+
+    private void write(String name, long someTotal, long fullTotal) throws IOException {
+        Files.writeString(directory.resolve(name), "some avg10=1.50 avg60=2.25 avg300=0.10 total=" + someTotal + "\n"
+                                                   + "full avg10=0.50 avg60=0.25 avg300=0.00 total=" + fullTotal + "\n");
+    }
+}
@@ -0,0 +1,46 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Server;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessScannerTest {
+
+    @Test
+    void parse() {
+        int[] counters = ProcessScanner.createCounters();
+        parse(counters, 1, "systemd", 'S', 1);
+        parse(counters, 2, "busy (worker) 1", 'R', 4);
+        parse(counters, 3, "defunct", 'Z', 1);
+        parse(counters, 4, "kworker/0:1", 'I', 1);
+        parse(counters, 5, "dd", 'D', 1);
+        Server server = new Server();
+        ProcessScanner.update(server, counters);
+        assertEquals(5, server.getProcessTotal());
+        assertEquals(1, server.getProcessRunning());
+        assertEquals(1, server.getProcessSleeping());
+        assertEquals(1, server.getProcessZombie());
+        assertEquals(1, server.getProcessIdle());
+        assertEquals(1, server.getProcessBlocked());
+        assertEquals(8, server.getProcessThreads());
+    }
+
+    @Test
+    void parseTruncated() {
+        int[] counters = ProcessScanner.createCounters();
+        byte[] buffer = "1 (systemd".getBytes(StandardCharsets.US_ASCII);
+        ProcessScanner.parse(buffer, buffer.length, counters);
+        Server server = new Server();
+        ProcessScanner.update(server, counters);
+        assertEquals(0, server.getProcessTotal());
+    }
+
+    private void parse(int[] counters, int pid, String command, char state, int threads) {
+        byte[] buffer = (pid + " (" + command + ") " + state + " 0 1 1 0 -1 4194560 100 0 0 0 10 20 0 0 20 0 "
+                         + threads + " 0 100 1000 200 18446744073709551615\n").getBytes(StandardCharsets.UTF_8);
+        ProcessScanner.parse(buffer, buffer.length, counters);
+    }
+}
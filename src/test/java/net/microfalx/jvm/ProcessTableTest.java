@@ -0,0 +1,82 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Process;
+import net.microfalx.jvm.model.Server;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void top() throws IOException {
+        write(1, "init", 10, 10, 1000, 0);
+        write(2, "idle", 10, 10, 1000, 0);
+        write(3, "busy", 10, 10, 1000, 0);
+        ProcessTable table = new ProcessTable(directory, 2);
+        Server server = new Server();
+        table.update(server);
+        assertEquals(3, table.getCount());
+        assertEquals(3, server.getProcessTotal());
+        assertEquals(3, server.getProcessSleeping());
+        assertEquals(3, server.getProcessThreads());
+        assertThat(server.getTopCpuProcesses()).isEmpty();
+
+        write(1, "init", 15, 10, 1000, 0);
+        write(3, "busy", 60, 20, 5000, 4096);
+        table.update(server);
+        assertEquals(List.of(3, 1), getPids(server.getTopCpuProcesses()));
+        assertEquals(List.of(3), getPids(server.getTopWriteProcesses()));
+        assertEquals(4096, server.getTopWriteProcesses().iterator().next().getBytesWritten());
+        assertEquals(2, server.getTopMemoryProcesses().size());
+    }
+
+    @Test
+    void evict() throws IOException {
+        write(1, "init", 10, 10, 1000, 0);
+        write(2, "short", 10, 10, 1000, 0);
+        ProcessTable table = new ProcessTable(directory, 10);
+        table.update(new Server());
+        assertEquals(2, table.getCount());
+
+        Files.delete(directory.resolve("2/stat"));
+        Files.delete(directory.resolve("2/io"));
+        Files.delete(directory.resolve("2"));
+        table.update(new Server());
+        assertEquals(1, table.getCount());
+    }
+
+    @Test
+    void local() {
+        ProcessTable table = new ProcessTable();
+        Server server = new Server();
+        table.update(server);
+        table.update(server);
+        if (LinuxUtils.isLinux()) assertThat(table.getCount()).isGreaterThan(0);
+    }
+
+    private List<Integer> getPids(Collection<Process> processes) {
+        return processes.stream().map(Process::getPid).collect(Collectors.toList());
+    }
+
+    private void write(int pid, String command, long userTime, long systemTime, long rss, long writeBytes) throws IOException {
+        Path stat = directory.resolve(Integer.toString(pid)).resolve("stat");
+        Files.createDirectories(stat.getParent());
+        Files.writeString(stat, pid + " (" + command + ") S 0 1 1 0 -1 4194560 100 0 0 0 " + userTime + " " + systemTime
+                                + " 0 0 20 0 1 0 100 1000 " + rss + " 18446744073709551615\n");
+        Files.writeString(stat.resolveSibling("io"), "rchar: 0\nwchar: 0\nsyscr: 0\nsyscw: 0\nread_bytes: 0\nwrite_bytes: "
+                                                     + writeBytes + "\ncancelled_write_bytes: 0\n");
+    }
+}
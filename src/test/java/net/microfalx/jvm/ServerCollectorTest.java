@@ -4,7 +4,11 @@ import net.microfalx.jvm.model.Server;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 class ServerCollectorTest {
 
@@ -26,6 +30,43 @@ class ServerCollectorTest {
         collectAndAssert();
     }
 
+    @Test
+    void memory() {
+        List<String> memInfo = List.of("MemTotal:       16000 kB", "MemFree:         2000 kB", "MemAvailable:    9000 kB",
+                "Buffers:          500 kB", "Cached:          5000 kB", "SwapCached:         0 kB", "Dirty:            300 kB",
+                "Writeback:        100 kB", "Shmem:            200 kB", "SReclaimable:     1000 kB", "SwapTotal:       4000 kB",
+                "SwapFree:        3000 kB", "HugePages_Total:       0");
+        List<String> vmStat = List.of("pgmajfault 42", "pswpin 5", "pswpout 6", "pgscan_kswapd 100", "pgscan_direct 10",
+                "pgscan_direct_throttle 3", "pgscan_anon 70", "pgscan_file 40", "pgsteal_kswapd 90", "pgsteal_direct 5");
+        Server server = new Server();
+        ServerCollector.extractMemory(server, memInfo, vmStat);
+        assertEquals(16000 * 1024, server.getMemoryTotal());
+        assertEquals(7000 * 1024, server.getMemoryUsed());
+        assertEquals(14000 * 1024, server.getMemoryUsedWithCache());
+        assertEquals(7500 * 1024, server.getMemoryActuallyUsed());
+        assertEquals(9000 * 1024, server.getMemoryAvailable());
+        assertEquals(300 * 1024, server.getMemoryDirty());
+        assertEquals(100 * 1024, server.getMemoryWriteback());
+        assertEquals(1000 * 1024, server.getSwapUsed());
+        assertEquals(110, server.getPageScans());
+        assertEquals(95, server.getPageSteals());
+        assertEquals(42, server.getPageMajorFaults());
+        assertEquals(6, server.getSwapPageOut());
+    }
+
+    @Test
+    void snapshotCopied() {
+        Server server = Server.get();
+        int fileSystems = server.getFileSystems().size();
+        long memoryTotal = server.getMemoryTotal();
+        server.setMemoryTotal(0);
+        server.getFileSystems().clear();
+        Server next = Server.get();
+        assertNotSame(server, next);
+        assertEquals(memoryTotal, next.getMemoryTotal());
+        assertEquals(fileSystems, next.getFileSystems().size());
+    }
+
     private void collectAndAssert() {
         Server server = collector.execute();
         for (int i = 0; i < 2; i++) {
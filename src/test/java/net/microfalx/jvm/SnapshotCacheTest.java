@@ -0,0 +1,107 @@
+package net.microfalx.jvm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    @Test
+    void cached() {
+        CountingCollector collector = new CountingCollector(0);
+        SnapshotCache<Integer> cache = new SnapshotCache<>(() -> collector);
+        assertEquals(1, cache.get());
+        assertEquals(1, cache.get());
+        cache.clear();
+        assertEquals(2, cache.get());
+    }
+
+    @Test
+    void expired() {
+        CountingCollector collector = new CountingCollector(0);
+        SnapshotCache<Integer> cache = new SnapshotCache<>(() -> collector).setMaximumAge(Duration.ZERO);
+        assertEquals(1, cache.get());
+        assertEquals(2, cache.get());
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaximumAge(Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void copied() {
+        SnapshotCache<List<String>> cache = new SnapshotCache<>(() -> new AbstractCollector<>() {
+
+            @Override
+            public List<String> execute() {
+                return new ArrayList<>(List.of("a", "b"));
+            }
+        }, ArrayList::new);
+        List<String> first = cache.get();
+        first.clear();
+        assertEquals(List.of("a", "b"), cache.get());
+        assertNotSame(cache.get(), cache.get());
+    }
+
+    @Test
+    void singleFlight() throws Exception {
+        CountingCollector collector = new CountingCollector(200);
+        SnapshotCache<Integer> cache = new SnapshotCache<>(() -> collector);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> result : results) {
+            assertEquals(1, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, collector.count.get());
+    }
+
+    @Test
+    void failure() {
+        SnapshotCache<Integer> cache = new SnapshotCache<>(() -> new AbstractCollector<>() {
+
+            private int count;
+
+            @Override
+            public Integer execute() {
+                if (count++ == 0) throw new VirtualMachineException("Failed");
+                return count;
+            }
+        });
+        assertThrows(VirtualMachineException.class, cache::get);
+        assertEquals(2, cache.get());
+    }
+
+    private static class CountingCollector extends AbstractCollector<Integer> {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final long delay;
+
+        private CountingCollector(long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public Integer execute() {
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return count.incrementAndGet();
+        }
+    }
+}
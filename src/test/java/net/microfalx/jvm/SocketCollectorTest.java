@@ -0,0 +1,65 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.SocketInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SocketCollectorTest {
+
+    private static final String HEADER = "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void collect() throws IOException {
+        Path self = directory.resolve("self");
+        Path fd = Files.createDirectories(self.resolve("fd"));
+        Path net = Files.createDirectories(self.resolve("net"));
+        Files.createSymbolicLink(fd.resolve("3"), Paths.get("socket:[100]"));
+        Files.createSymbolicLink(fd.resolve("4"), Paths.get("socket:[101]"));
+        Files.createSymbolicLink(fd.resolve("5"), Paths.get("socket:[102]"));
+        Files.createSymbolicLink(fd.resolve("6"), Paths.get("socket:[103]"));
+        Files.createSymbolicLink(fd.resolve("7"), Paths.get("/tmp/file.log"));
+        Files.writeString(net.resolve("tcp"), HEADER
+                + "   0: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 100 1 0 100 0 0 10 0\n"
+                + "   1: 0100007F:C350 0100007F:0CEA 01 00000010:00000020 00:00000000 00000000  1000        0 101 1 0 20 4 30 10 -1\n"
+                + "   2: 0100007F:C351 0100007F:0CEA 08 00000000:00000005 00:00000000 00000000  1000        0 102 1 0 20 4 30 10 -1\n"
+                + "   3: 0100007F:C352 0100007F:0CEA 01 00000000:00000000 00:00000000 00000000  1000        0 999 1 0 20 4 30 10 -1\n");
+        Files.writeString(net.resolve("tcp6"), HEADER
+                + "   0: 00000000000000000000000001000000:C353 0000000000000000FFFF00000A00000A:01BB 01 00000000:00000000 00:00000000 00000000  1000        0 103 1 0 20 4 30 10 -1\n");
+
+        SocketInventory inventory = new SocketCollector(directory).execute();
+        assertEquals(4, inventory.getTotal());
+        assertEquals(2, inventory.getCount(SocketInventory.State.ESTABLISHED));
+        assertEquals(1, inventory.getCount(SocketInventory.State.CLOSE_WAIT));
+        assertEquals(1, inventory.getCount(SocketInventory.State.LISTEN));
+        assertEquals(0x10, inventory.getSendQueue());
+        assertEquals(0x25, inventory.getReceiveQueue());
+        assertEquals(2, inventory.getEndpoints().size());
+        SocketInventory.Endpoint endpoint = inventory.getEndpoints().iterator().next();
+        assertEquals("127.0.0.1", endpoint.getAddress());
+        assertEquals(3306, endpoint.getPort());
+        assertEquals(2, endpoint.getConnections());
+        assertEquals(1, endpoint.getCloseWait());
+
+        inventory = new SocketCollector(directory).setMaximumEndpoints(1).execute();
+        assertEquals(1, inventory.getEndpoints().size());
+        assertEquals(1, inventory.getOtherEndpoints());
+        assertEquals(1, inventory.getOtherConnections());
+    }
+
+    @Test
+    void decodeAddress() {
+        assertEquals("127.0.0.1", SocketCollector.decodeAddress("0100007F"));
+        assertEquals("10.0.0.10", SocketCollector.decodeAddress("0000000000000000FFFF00000A00000A"));
+        assertEquals("0:0:0:0:0:0:0:1", SocketCollector.decodeAddress("00000000000000000000000001000000"));
+    }
+}
@@ -0,0 +1,95 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ThreadInformation;
+import net.microfalx.jvm.model.ThreadReport;
+import net.microfalx.lang.ThreadUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StuckThreadDetectorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void stuck() throws InterruptedException {
+        StuckThreadDetector detector = new StuckThreadDetector().setThreshold(Duration.ofMillis(50));
+        Thread thread = new Thread(() -> {
+            synchronized (lock) {
+                // nothing to do
+            }
+        }, "stuck-thread");
+        synchronized (lock) {
+            thread.start();
+            while (thread.getState() != Thread.State.BLOCKED) {
+                ThreadUtils.sleepMillis(5);
+            }
+            assertTrue(detector.update().getStuckThreads().stream().noneMatch(t -> t.getName().equals("stuck-thread")));
+            ThreadUtils.sleepMillis(100);
+            ThreadReport report = detector.update();
+            ThreadInformation stuck = report.getStuckThreads().stream().filter(t -> t.getName().equals("stuck-thread")).findFirst().orElseThrow();
+            assertThat(stuck.getStuckTime()).isGreaterThanOrEqualTo(50);
+            assertThat(stuck.getStackTrace()).isNotEmpty();
+            assertFalse(report.isDeadlocked());
+        }
+        thread.join();
+    }
+
+    @Test
+    void idleJvmThreads() throws IOException {
+        try (WatchService ignored = FileSystems.getDefault().newWatchService()) {
+            StuckThreadDetector detector = new StuckThreadDetector().setThreshold(Duration.ofMillis(50));
+            detector.update();
+            ThreadUtils.sleepMillis(100);
+            ThreadReport report = detector.update();
+            Set<String> internalThreads = Set.of("Reference Handler", "Finalizer", "Signal Dispatcher", "Common-Cleaner",
+                    "Notification Thread", "Attach Listener", "FileSystemWatchService");
+            assertThat(report.getStuckThreads()).extracting(ThreadInformation::getName).doesNotContainAnyElementsOf(internalThreads);
+        }
+    }
+
+    @Test
+    void deadlock() throws InterruptedException {
+        ReentrantLock first = new ReentrantLock();
+        ReentrantLock second = new ReentrantLock();
+        CountDownLatch locked = new CountDownLatch(2);
+        Thread thread1 = new Thread(() -> lock(first, second, locked), "deadlock-1");
+        Thread thread2 = new Thread(() -> lock(second, first, locked), "deadlock-2");
+        thread1.setDaemon(true);
+        thread2.setDaemon(true);
+        thread1.start();
+        thread2.start();
+        ThreadReport report = null;
+        for (int i = 0; i < 100; i++) {
+            report = new StuckThreadDetector().update();
+            if (report.isDeadlocked()) break;
+            ThreadUtils.sleepMillis(10);
+        }
+        assertTrue(report.isDeadlocked());
+        assertEquals(2, report.getDeadlockedThreads().size());
+        thread1.interrupt();
+        thread2.interrupt();
+    }
+
+    private void lock(ReentrantLock first, ReentrantLock second, CountDownLatch locked) {
+        first.lock();
+        try {
+            locked.countDown();
+            locked.await();
+            second.lockInterruptibly();
+        } catch (InterruptedException e) {
+            // stop
+        } finally {
+            first.unlock();
+        }
+    }
+}
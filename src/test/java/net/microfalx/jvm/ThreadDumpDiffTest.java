@@ -0,0 +1,84 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadDumpDiffTest {
+
+    private static final StackTraceElement RUN = new StackTraceElement("java.lang.Thread", "run", "Thread.java", 829);
+    private static final StackTraceElement READ = new StackTraceElement("java.net.SocketInputStream", "read", "SocketInputStream.java", 100);
+    private static final StackTraceElement PARK = new StackTraceElement("jdk.internal.misc.Unsafe", "park", null, -2);
+
+    @Test
+    void compare() {
+        ThreadDump previous = new ThreadDump();
+        previous.addThread(thread(1, "worker-1", Thread.State.RUNNABLE, READ, RUN));
+        previous.addThread(thread(2, "worker-2", Thread.State.RUNNABLE, READ, RUN));
+        previous.addThread(thread(3, "worker-3", Thread.State.WAITING, PARK, RUN));
+        ThreadDump current = new ThreadDump();
+        current.addThread(thread(1, "worker-1", Thread.State.RUNNABLE, READ, RUN));
+        current.addThread(thread(2, "worker-2", Thread.State.WAITING, PARK, RUN));
+        current.addThread(thread(4, "scheduler-1", Thread.State.TIMED_WAITING, PARK, RUN));
+
+        assertDiff(ThreadDumpDiff.compare(previous, current));
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary();
+        assertDiff(ThreadDumpDiff.compare(CompactThreadDump.encode(previous, dictionary), CompactThreadDump.encode(current, dictionary)));
+        assertDiff(ThreadDumpDiff.compare(CompactThreadDump.encode(previous, new ThreadDumpDictionary()),
+                CompactThreadDump.encode(current, new ThreadDumpDictionary())));
+    }
+
+    @Test
+    void same() {
+        ThreadDump threadDump = new ThreadDump();
+        threadDump.addThread(thread(1, "main", Thread.State.RUNNABLE));
+        ThreadDumpDiff diff = ThreadDumpDiff.compare(threadDump, threadDump);
+        assertTrue(diff.isEmpty());
+        assertEquals(1, diff.getUnchangedThreads().size());
+        assertTrue(diff.getIdenticalStackThreads().isEmpty());
+        assertTrue(diff.getPoolDeltas().isEmpty());
+    }
+
+    @Test
+    void pruned() {
+        ThreadDumpDictionary dictionary = new ThreadDumpDictionary(2);
+        ThreadDump threadDump = new ThreadDump();
+        threadDump.addThread(thread(1, "worker-1", Thread.State.RUNNABLE, READ, RUN));
+        CompactThreadDump first = CompactThreadDump.encode(threadDump, dictionary);
+        CompactThreadDump previous = first;
+        CompactThreadDump current = first;
+        // the dictionary prunes in batches, once every few epochs
+        while (first.isDecodable()) {
+            previous = current;
+            current = CompactThreadDump.encode(threadDump, dictionary);
+        }
+        CompactThreadDump last = current;
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> ThreadDumpDiff.compare(first, last));
+        assertTrue(exception.getMessage().contains("previous"));
+        assertEquals(1, ThreadDumpDiff.compare(previous, current).getIdenticalStackThreads().size());
+    }
+
+    private void assertDiff(ThreadDumpDiff diff) {
+        assertFalse(diff.isEmpty());
+        assertEquals(4, diff.getCreatedThreads().iterator().next().getId());
+        assertEquals(3, diff.getTerminatedThreads().iterator().next().getId());
+        assertEquals(2, diff.getChangedThreads().iterator().next().getId());
+        assertEquals(Thread.State.RUNNABLE, diff.getPreviousState(2));
+        assertEquals(1, diff.getUnchangedThreads().size());
+        assertEquals(1, diff.getIdenticalStackThreads().iterator().next().getId());
+        assertEquals(-1, diff.getPoolDeltas().get("worker"));
+        assertEquals(1, diff.getPoolDeltas().get("scheduler"));
+    }
+
+    private ThreadInformation thread(long id, String name, Thread.State state, StackTraceElement... stackTrace) {
+        ThreadInformation thread = new ThreadInformation();
+        thread.setId(id);
+        thread.setName(name);
+        thread.setState(state);
+        thread.setStackTrace(Arrays.asList(stackTrace));
+        return thread;
+    }
+}
@@ -0,0 +1,47 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.ThreadPoolInformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolCollectorTest {
+
+    @Test
+    void collect() throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3, runnable -> new Thread(runnable, "test-pool-exec-" + counter.getAndIncrement()));
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            started.await();
+            ThreadPoolCollector collector = new ThreadPoolCollector();
+            collector.execute();
+            Collection<ThreadPoolInformation> pools = collector.execute();
+            ThreadPoolInformation pool = pools.stream().filter(p -> p.getName().equals("test-pool-exec")).findFirst().orElseThrow();
+            assertEquals(3, pool.getThreads());
+            assertEquals(3, pool.getCount(Thread.State.WAITING));
+            assertTrue(pool.getCpu() >= 0);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
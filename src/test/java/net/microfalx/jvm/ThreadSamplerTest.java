@@ -0,0 +1,59 @@
+package net.microfalx.jvm;
+
+import net.microfalx.lang.ThreadUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadSamplerTest {
+
+    @Test
+    void sample() throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch slept = new CountDownLatch(1);
+        CountDownLatch stop = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                go.await();
+                for (int i = 0; i < 5; i++) {
+                    Thread.sleep(1);
+                }
+                slept.countDown();
+                stop.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "sampled-thread");
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            ThreadUtils.sleepMillis(1);
+        }
+        ThreadSampler sampler = new ThreadSampler();
+        ThreadSampler.Sample sample = sampler.sample();
+        int index = indexOf(sample, thread.getId());
+        assertTrue(index >= 0);
+        assertEquals(0, sample.getWaitedCount(index));
+        assertThat(sample.getThreadInfo(index).getStackTrace()).hasSizeLessThanOrEqualTo(1);
+        assertThat(sample.getThreadNames()).contains("sampled-thread");
+
+        go.countDown();
+        slept.await();
+        sample = sampler.sample();
+        assertThat(sample.getWaitedCount(indexOf(sample, thread.getId()))).isGreaterThanOrEqualTo(5);
+        stop.countDown();
+        thread.join();
+        sample = sampler.sample();
+        assertEquals(-1, indexOf(sample, thread.getId()));
+    }
+
+    private int indexOf(ThreadSampler.Sample sample, long id) {
+        for (int i = 0; i < sample.size(); i++) {
+            if (sample.getIds()[i] == id) return i;
+        }
+        return -1;
+    }
+}
@@ -1,10 +1,23 @@
 package net.microfalx.jvm;
 
+import net.microfalx.jvm.model.GarbageCollection;
+import net.microfalx.jvm.model.MemoryPool;
 import net.microfalx.jvm.model.VirtualMachine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class VirtualMachineCollectorTest {
 
@@ -22,10 +35,128 @@ class VirtualMachineCollectorTest {
         assertNotNull(vm);
     }
 
+    @Test
+    void collectLiveSet() {
+        System.gc();
+        VirtualMachine vm = collector.execute();
+        assertThat(vm.getTenuredMemoryPool().getCollectionUsed()).isGreaterThanOrEqualTo(0);
+        assertThat(vm.getEdenMemoryPool().getCollectionUsed()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void collectLiveSetBeforeCollection() {
+        VirtualMachine vm = collector.execute();
+        Set<String> collectedPools = new HashSet<>();
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (garbageCollectorMXBean.getCollectionCount() > 0) collectedPools.addAll(Arrays.asList(garbageCollectorMXBean.getMemoryPoolNames()));
+        }
+        List<MemoryPoolMXBean> memoryPoolMXBeans = ManagementFactory.getMemoryPoolMXBeans();
+        List<MemoryPool> memoryPools = new ArrayList<>(vm.getMemoryPools());
+        for (int i = 0; i < memoryPoolMXBeans.size(); i++) {
+            // a pool not collected yet has no live set, instead of zero
+            if (!collectedPools.contains(memoryPoolMXBeans.get(i).getName())) {
+                assertEquals(-1, memoryPools.get(i).getCollectionUsed());
+            }
+        }
+    }
+
+    @Test
+    void reuseSnapshot() {
+        VirtualMachine vm = collector.execute(new VirtualMachine());
+        Collection<MemoryPool> memoryPools = vm.getMemoryPools();
+        MemoryPool tenured = vm.getTenuredMemoryPool();
+        Collection<GarbageCollection> garbageCollections = vm.getGarbageCollections();
+        assertSame(vm, collector.execute(vm));
+        assertSame(memoryPools, vm.getMemoryPools());
+        assertSame(tenured, vm.getTenuredMemoryPool());
+        assertSame(garbageCollections, vm.getGarbageCollections());
+        assertThat(vm.getHeapUsedMemory()).isGreaterThan(0);
+    }
+
+    @Test
+    void garbageCollections() {
+        System.gc();
+        List<GarbageCollectorMXBean> garbageCollectorMXBeans = ManagementFactory.getGarbageCollectorMXBeans();
+        long[] counts = new long[garbageCollectorMXBeans.size()];
+        long[] times = new long[garbageCollectorMXBeans.size()];
+        for (int i = 0; i < garbageCollectorMXBeans.size(); i++) {
+            counts[i] = garbageCollectorMXBeans.get(i).getCollectionCount();
+            times[i] = garbageCollectorMXBeans.get(i).getCollectionTime();
+        }
+        VirtualMachine fresh = new VirtualMachine();
+        collector.collectGarbageCollection(fresh);
+        List<GarbageCollection> freshCollections = new ArrayList<>();
+        for (GarbageCollection garbageCollection : fresh.getGarbageCollections()) {
+            freshCollections.add(new GarbageCollection(garbageCollection.getType(), garbageCollection.getDuration(), garbageCollection.getCount()));
+        }
+        collector.collectGarbageCollection(fresh);
+        List<GarbageCollection> reusedCollections = new ArrayList<>(fresh.getGarbageCollections());
+        assertEquals(garbageCollectorMXBeans.size(), freshCollections.size());
+        for (int i = 0; i < garbageCollectorMXBeans.size(); i++) {
+            // the new and the reused instances report the same values (collections can happen in between)
+            GarbageCollectorMXBean garbageCollectorMXBean = garbageCollectorMXBeans.get(i);
+            assertThat(freshCollections.get(i).getCount()).isBetween((int) counts[i], reusedCollections.get(i).getCount());
+            assertThat(reusedCollections.get(i).getCount()).isLessThanOrEqualTo((int) garbageCollectorMXBean.getCollectionCount());
+            assertThat(freshCollections.get(i).getDuration()).isBetween(times[i], reusedCollections.get(i).getDuration());
+            assertThat(reusedCollections.get(i).getDuration()).isLessThanOrEqualTo(garbageCollectorMXBean.getCollectionTime());
+        }
+    }
+
+    @Test
+    void reuseSnapshotAllocations() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        VirtualMachine vm = collector.execute(new VirtualMachine());
+        long allocatedBytes = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            allocatedBytes = Math.min(allocatedBytes, measurePools(threadMXBean, vm));
+        }
+        // only the usage returned by the memory pool beans (current and after collection) is allocated
+        assertThat(allocatedBytes).isLessThanOrEqualTo(128L * vm.getMemoryPools().size());
+    }
+
+    @Test
+    void independentIntervals() {
+        collector.execute();
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long cpuTime = threadMXBean.getCurrentThreadCpuTime();
+        long value = 0;
+        while (threadMXBean.getCurrentThreadCpuTime() - cpuTime < 300_000_000L) {
+            value += System.nanoTime() % 7;
+        }
+        assertThat(value).isGreaterThanOrEqualTo(0);
+        // another collector (the cached VirtualMachine.get()) does not shorten the interval of this collector
+        new VirtualMachineCollector(VirtualMachineMBeanServer.local()).execute();
+        VirtualMachine vm = collector.execute();
+        assertThat(vm.getProcess().getCpuUserTime() + vm.getProcess().getCpuSystemTime()).isGreaterThanOrEqualTo(200);
+        assertNotSame(collector.getStuckThreadDetector(), new VirtualMachineCollector(VirtualMachineMBeanServer.local()).getStuckThreadDetector());
+    }
+
+    @Test
+    void snapshotCopied() {
+        VirtualMachine vm = VirtualMachine.get();
+        int memoryPools = vm.getMemoryPools().size();
+        String name = vm.getName();
+        vm.setName("changed");
+        vm.getMemoryPools().clear();
+        VirtualMachine next = VirtualMachine.get();
+        assertNotSame(vm, next);
+        assertEquals(name, next.getName());
+        assertEquals(memoryPools, next.getMemoryPools().size());
+    }
+
     @Test
     void collectProcess() {
         VirtualMachine vm = collector.execute();
         assertNotNull(vm);
     }
 
-}
\ No newline at end of file
+    private long measurePools(com.sun.management.ThreadMXBean threadMXBean, VirtualMachine vm) {
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        collector.collectMemoryStats(vm);
+        collector.collectGarbageCollection(vm);
+        collector.collectBufferPools(vm);
+        return threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes;
+    }
+}
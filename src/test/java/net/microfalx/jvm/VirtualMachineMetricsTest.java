@@ -1,6 +1,9 @@
 package net.microfalx.jvm;
 
+import net.microfalx.jvm.model.GarbageCollection;
+import net.microfalx.jvm.model.MemoryPool;
 import net.microfalx.jvm.model.Process;
+import net.microfalx.jvm.model.ThreadInformation;
 import net.microfalx.jvm.model.VirtualMachine;
 import net.microfalx.lang.ThreadUtils;
 import org.assertj.core.api.Assertions;
@@ -8,10 +11,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static java.time.Duration.ofSeconds;
 import static net.microfalx.lang.FormatterUtils.formatPercent;
 import static net.microfalx.lang.ThreadUtils.sleepMillis;
 import static net.microfalx.lang.ThreadUtils.sleepSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -38,6 +44,30 @@ class VirtualMachineMetricsTest extends AbstractMetricsTest {
         metrics.stop();
     }
 
+    @Test
+    public void liveSetSamples() {
+        assertFalse(metrics.updateLiveSet(createVirtualMachine(-1, 0)));
+        assertFalse(metrics.updateLiveSet(createVirtualMachine(0, 0)));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(metrics.updateLiveSet(createVirtualMachine(1000, 1)));
+        }
+        assertEquals(1, metrics.getHeapExhaustion().getSamples());
+        metrics.updateLiveSet(createVirtualMachine(1000, 2));
+        metrics.updateLiveSet(createVirtualMachine(2000, 3));
+        metrics.updateLiveSet(createVirtualMachine(2000, 3));
+        assertEquals(3, metrics.getHeapExhaustion().getSamples());
+    }
+
+    @Test
+    public void gcLoadAverage() {
+        metrics.updateLoadAverages(createVirtualMachine(100L, 50L), 10_000);
+        // 200ms young and 50ms tenured collections in one second
+        metrics.updateLoadAverages(createVirtualMachine(300L, 100L), 11_000);
+        assertEquals(25, metrics.getGcLoadAverage().getOneMinute(), 0.001);
+        metrics.updateLoadAverages(createVirtualMachine(300L, 100L), 12_000);
+        Assertions.assertThat(metrics.getGcLoadAverage().getOneMinute()).isLessThan(25);
+    }
+
     @Test
     public void memory() {
         scrapeInLoop();
@@ -92,6 +122,22 @@ class VirtualMachineMetricsTest extends AbstractMetricsTest {
         }
     }
 
+    private VirtualMachine createVirtualMachine(long youngGcTime, long tenuredGcTime) {
+        VirtualMachine vm = new VirtualMachine();
+        vm.setProcess(new Process());
+        vm.setThreadInformation(new ThreadInformation());
+        vm.setGarbageCollections(List.of(new GarbageCollection(GarbageCollection.Type.EDEN, youngGcTime, 1000),
+                new GarbageCollection(GarbageCollection.Type.TENURED, tenuredGcTime, 10)));
+        return vm;
+    }
+
+    private VirtualMachine createVirtualMachine(long liveSet, int gcCount) {
+        VirtualMachine vm = new VirtualMachine();
+        vm.setMemoryPools(List.of(new MemoryPool(MemoryPool.Type.TENURED, 10_000, 10_000, 5000, 10_000, liveSet)));
+        vm.setGarbageCollections(List.of(new GarbageCollection(GarbageCollection.Type.TENURED, 0, gcCount)));
+        return vm;
+    }
+
     private void scrapeInLoop() {
         scrapeInLoop(20);
     }
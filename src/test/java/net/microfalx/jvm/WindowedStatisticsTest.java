@@ -0,0 +1,113 @@
+package net.microfalx.jvm;
+
+import net.microfalx.jvm.model.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static net.microfalx.jvm.WindowedStatistics.Window.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedStatisticsTest {
+
+    private static final long NOW = 10_000_000;
+
+    @Test
+    void empty() {
+        Statistics statistics = new WindowedStatistics().getStatistics(ONE_MINUTE);
+        assertTrue(statistics.isEmpty());
+        assertEquals(0, statistics.getAverage());
+    }
+
+    @Test
+    void percentiles() {
+        WindowedStatistics windowedStatistics = new WindowedStatistics();
+        for (int i = 1; i <= 100; i++) {
+            windowedStatistics.add(NOW - 50_000 + i * 100, 101 - i);
+        }
+        Statistics statistics = windowedStatistics.getStatistics(ONE_MINUTE, NOW);
+        assertEquals(100, statistics.getCount());
+        assertEquals(1, statistics.getMinimum());
+        assertEquals(100, statistics.getMaximum());
+        assertEquals(50.5, statistics.getAverage(), 0.001);
+        assertEquals(50, statistics.getP50());
+        assertEquals(95, statistics.getP95());
+        assertEquals(99, statistics.getP99());
+    }
+
+    @Test
+    void windows() {
+        WindowedStatistics windowedStatistics = new WindowedStatistics();
+        // one value every 10 seconds for the last 2 hours, the value is the age in minutes
+        for (long age = 7200; age >= 0; age -= 10) {
+            windowedStatistics.add(NOW - age * 1000, age / 60d);
+        }
+        assertEquals(7, windowedStatistics.getStatistics(ONE_MINUTE, NOW).getCount());
+        assertEquals(1, windowedStatistics.getStatistics(ONE_MINUTE, NOW).getMaximum());
+        assertEquals(31, windowedStatistics.getStatistics(FIVE_MINUTES, NOW).getCount());
+        assertEquals(361, windowedStatistics.getStatistics(ONE_HOUR, NOW).getCount());
+        assertEquals(30, windowedStatistics.getStatistics(ONE_HOUR, NOW).getAverage(), 0.001);
+    }
+
+    @Test
+    void average() {
+        WindowedStatistics windowedStatistics = new WindowedStatistics();
+        assertEquals(0, windowedStatistics.getAverage(ONE_MINUTE, NOW));
+        for (long age = 7200; age >= 0; age -= 10) {
+            windowedStatistics.add(NOW - age * 1000, age / 60d);
+        }
+        for (WindowedStatistics.Window window : WindowedStatistics.Window.values()) {
+            assertEquals(windowedStatistics.getStatistics(window, NOW).getAverage(), windowedStatistics.getAverage(window, NOW), 0.001);
+        }
+        // without new values, the values leave the window as time passes
+        assertEquals(0.25, windowedStatistics.getAverage(ONE_MINUTE, NOW + 30_000), 0.001);
+        assertEquals(0, windowedStatistics.getAverage(ONE_MINUTE, NOW + 120_000));
+        assertEquals(windowedStatistics.getStatistics(ONE_HOUR, NOW + 120_000).getAverage(),
+                windowedStatistics.getAverage(ONE_HOUR, NOW + 120_000), 0.001);
+    }
+
+    @Test
+    void averageOverwritten() {
+        WindowedStatistics windowedStatistics = new WindowedStatistics(10);
+        for (int i = 0; i < 25; i++) {
+            windowedStatistics.add(NOW - 25 + i, i);
+        }
+        assertEquals(19.5, windowedStatistics.getAverage(ONE_MINUTE, NOW), 0.001);
+        assertEquals(19.5, windowedStatistics.getAverage(ONE_HOUR, NOW), 0.001);
+    }
+
+    @Test
+    void capacity() {
+        WindowedStatistics windowedStatistics = new WindowedStatistics(10);
+        for (int i = 0; i < 25; i++) {
+            windowedStatistics.add(NOW - 25 + i, i);
+        }
+        Statistics statistics = windowedStatistics.getStatistics(ONE_MINUTE, NOW);
+        assertEquals(10, statistics.getCount());
+        assertEquals(15, statistics.getMinimum());
+        assertEquals(24, statistics.getMaximum());
+        assertThrows(IllegalArgumentException.class, () -> new WindowedStatistics(0));
+    }
+
+    @Test
+    void concurrent() throws Exception {
+        WindowedStatistics windowedStatistics = new WindowedStatistics(100);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                windowedStatistics.add(i % 10);
+            }
+        });
+        while (!writer.isDone()) {
+            Statistics statistics = windowedStatistics.getStatistics(ONE_MINUTE);
+            assertTrue(statistics.getMinimum() >= 0 && statistics.getMaximum() <= 9);
+        }
+        writer.get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(100, windowedStatistics.getStatistics(ONE_MINUTE).getCount());
+    }
+}